@@ -0,0 +1,83 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métodos de identidad y presentación de {@link Asesor}. {@code hashCodeAsesor}
+ * mide el hash ya calculado y {@code hashCodeAfterSet} el recálculo tras un setter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Thread)
+public class AsesorBenchmark {
+
+    private static final int SAMPLE = 1024;
+
+    private Asesor[] asesores;
+    private Asesor[] copies;
+    private int index;
+
+    @Setup
+    public void setup() {
+        List<Asesor> data = BenchmarkData.asesores(SAMPLE, BenchmarkData.DEFAULT_SEED);
+        asesores = data.toArray(new Asesor[0]);
+        copies = data.stream().map(BenchmarkData::copy).toArray(Asesor[]::new);
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public String getFullName() {
+        return asesores[next()].getFullName();
+    }
+
+    @Benchmark
+    public int hashCodeAsesor() {
+        return asesores[next()].hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeAfterSet() {
+        Asesor asesor = asesores[next()];
+        asesor.setTelefono(asesor.getTelefono());
+        return asesor.hashCode();
+    }
+
+    @Benchmark
+    public int idEquivalenceHash() {
+        return Asesor.idEquivalence().hash(asesores[next()]);
+    }
+
+    @Benchmark
+    public boolean equalsAsesor() {
+        int i = next();
+        return asesores[i].equals(copies[i]);
+    }
+
+    @Benchmark
+    public String toStringAsesor() {
+        return asesores[next()].toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos reproducibles para los benchmarks: la misma semilla produce siempre
+ * los mismos asesores, así dos ejecuciones son comparables.
+ */
+final class BenchmarkData {
+
+    static final long DEFAULT_SEED = 42L;
+
+    private static final String[] NOMBRES = {
+        "JUAN", "maría", "Carlos", "ANA", "luis", "Rosa", "Pedro", "Lucía", "jorge", "Elena"
+    };
+    private static final String[] APELLIDOS = {
+        "Pérez", "GARCÍA", "quispe", "Mamani", "flores", "Rojas", "Torres", "Díaz", "RAMOS", "Castro"
+    };
+    private static final String[] ESPECIALIDADES = {
+        "Tecnología", "FINANZAS", "legal", "Marketing", "Recursos Humanos", "ventas"
+    };
+    private static final String[] UBICACIONES = {
+        "Lima", "Arequipa", "Cusco", "Trujillo", "Piura"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Genera {@code rows} asesores sin normalizar; aproximadamente un 5 % son inválidos.
+     */
+    static List<Asesor> asesores(int rows, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Asesor> asesores = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            asesores.add(asesor(i, random));
+        }
+        return asesores;
+    }
+
+    static Asesor asesor(long id, SplittableRandom random) {
+        String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+        String apellido = APELLIDOS[random.nextInt(APELLIDOS.length)];
+        boolean invalid = random.nextInt(20) == 0;
+        String email = invalid
+                ? nombre + "@" + id
+                : " " + nombre + "." + apellido + id + "@AsesoraMe.com ";
+        String telefono = 900_000_000L + random.nextInt(100_000_000) + "";
+        return new Asesor(id, nombre, apellido, email, telefono,
+                ESPECIALIDADES[random.nextInt(ESPECIALIDADES.length)],
+                UBICACIONES[random.nextInt(UBICACIONES.length)]);
+    }
+
+    /**
+     * Copia profunda, para benchmarks que modifican los asesores (normalización).
+     */
+    static Asesor copy(Asesor a) {
+        return new Asesor(a.getId(), a.getNombre(), a.getApellido(), a.getEmail(),
+                a.getTelefono(), a.getEspecialidad(), a.getUbicacion());
+    }
+}
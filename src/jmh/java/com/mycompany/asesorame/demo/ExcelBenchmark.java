@@ -0,0 +1,98 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Lectura y escritura streaming de XLSX. Cada operación procesa el archivo
+ * completo, por eso se mide en modo SingleShotTime. Los asesores se generan
+ * en el setup, fuera de la medida; para que la escritura de 10M filas no
+ * necesite tenerlas todas en memoria se recorren cíclicamente {@link #POOL}
+ * asesores distintos (a partir de ahí se repiten, id incluido).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class ExcelBenchmark {
+
+    private static final int POOL = 1 << 16;
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"42"})
+    public long seed;
+
+    // Hilos de compresión de la salida: 1 es el ZipOutputStream de siempre
+    @Param({"1", "4"})
+    public int outputThreads;
+
+    private ExcelService excelService;
+    private Path directory;
+    private Path input;
+    private Asesor[] pool;
+
+    @Setup
+    public void setup() throws IOException {
+        excelService = new ExcelService(outputThreads);
+        directory = Files.createTempDirectory("asesores-bench");
+        input = directory.resolve("input.xlsx");
+        SplittableRandom random = new SplittableRandom(seed);
+        pool = LongStream.rangeClosed(1, Math.min(rows, POOL))
+                .mapToObj(id -> BenchmarkData.asesor(id, random))
+                .toArray(Asesor[]::new);
+        excelService.writeAsesoresToExcel(data(), input.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private Stream<Asesor> data() {
+        return IntStream.range(0, rows).mapToObj(i -> pool[i % pool.length]);
+    }
+
+    @Benchmark
+    public long readStreaming() throws IOException {
+        try (Stream<Asesor> asesores = excelService.streamAsesoresFromExcel(input.toString())) {
+            return asesores.count();
+        }
+    }
+
+    @Benchmark
+    public long writeStreaming() throws IOException {
+        return excelService.writeAsesoresToExcel(data(), directory.resolve("output.xlsx").toString());
+    }
+}
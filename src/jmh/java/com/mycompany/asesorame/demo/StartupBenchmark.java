@@ -0,0 +1,205 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Arranque en frío de una ejecución por archivo: cada medida lanza una JVM
+ * nueva con {@link StartupProbe}, que procesa el archivo con la propia
+ * aplicación, y mide el tiempo hasta el primer lote validado por el pipeline
+ * ({@code timeToFirstRecord}) y hasta terminar de procesar el archivo
+ * ({@code fullRun}).
+ *
+ * {@code cache} compara el arranque actual ("cold", solo el CDS de las clases
+ * del JDK) con un archivo AppCDS dinámico ("appcds") y con la caché AOT de
+ * JDK 24+ ("aot"); ambos se generan en el setup con una ejecución de
+ * entrenamiento. En JDK anteriores a 24 "aot" se omite: el setup lo avisa y
+ * sus medidas no lanzan ninguna JVM. CDS y AOT solo admiten jars en el classpath, así
+ * que los directorios de clases se empaquetan antes en jars temporales.
+ *   mvn -Pbenchmarks verify -Djmh.includes=StartupBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"cold", "appcds", "aot"})
+    public String cache;
+
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"42"})
+    public long seed;
+
+    private Path directory;
+    // null si la variante no está disponible en esta JVM
+    private List<String> command;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("asesores-startup");
+        Path input = directory.resolve("input.xlsx");
+        SplittableRandom random = new SplittableRandom(seed);
+        new ExcelService(1).writeAsesoresToExcel(
+                LongStream.rangeClosed(1, rows).mapToObj(id -> BenchmarkData.asesor(id, random)), input.toString());
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = jarClasspath();
+        List<String> jvm = new ArrayList<>(List.of(java, "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn",
+                "-Dasesorame.incremental=false"));
+        List<String> probe = List.of("-cp", classpath, StartupProbe.class.getName(), input.toString());
+        switch (cache) {
+            case "cold":
+                break;
+            case "appcds": {
+                Path archive = directory.resolve("probe.jsa");
+                run(concat(jvm, List.of("-XX:ArchiveClassesAtExit=" + archive), probe, List.of("full")));
+                jvm.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:on"));
+                break;
+            }
+            case "aot": {
+                if (Runtime.version().feature() < 24) {
+                    System.err.println("Se omite cache=aot: la caché AOT requiere JDK 24 o posterior ("
+                            + Runtime.version() + ")");
+                    return;
+                }
+                Path config = directory.resolve("probe.aotconf");
+                Path aot = directory.resolve("probe.aot");
+                run(concat(jvm, List.of("-XX:AOTMode=record", "-XX:AOTConfiguration=" + config), probe, List.of("full")));
+                run(concat(jvm, List.of("-XX:AOTMode=create", "-XX:AOTConfiguration=" + config,
+                        "-XX:AOTCache=" + aot, "-cp", classpath)));
+                // Con AOTMode=on la JVM falla si no puede usar la caché, en lugar de medir sin ella
+                jvm.addAll(List.of("-XX:AOTCache=" + aot, "-XX:AOTMode=on"));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Caché desconocida: " + cache);
+        }
+        command = concat(jvm, probe);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void timeToFirstRecord() throws IOException, InterruptedException {
+        if (command == null) {
+            return;
+        }
+        Process process = new ProcessBuilder(concat(command, List.of("first")))
+                .redirectErrorStream(true).start();
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = out.readLine(); ; line = out.readLine()) {
+                if (line == null) {
+                    throw new IllegalStateException("La sonda terminó sin leer ningún asesor (código "
+                            + process.waitFor() + ")");
+                }
+                if (line.equals(StartupProbe.FIRST_RECORD)) {
+                    break;
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    @Benchmark
+    public void fullRun() throws IOException, InterruptedException {
+        if (command == null) {
+            return;
+        }
+        run(concat(command, List.of("full")));
+    }
+
+    /* Ejecuta el comando descartando su salida; falla si no termina bien */
+    private static void run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exit = process.waitFor();
+        if (exit != 0) {
+            throw new IllegalStateException("Código " + exit + " en " + String.join(" ", command) + "\n" + output);
+        }
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... parts) {
+        List<String> result = new ArrayList<>();
+        for (List<String> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    /* Classpath del benchmark con cada directorio de clases empaquetado en un jar */
+    private String jarClasspath() throws IOException {
+        List<String> entries = new ArrayList<>();
+        int index = 0;
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            Path path = Paths.get(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            Path jar = directory.resolve("classes-" + index++ + ".jar");
+            try (OutputStream file = Files.newOutputStream(jar);
+                 JarOutputStream out = new JarOutputStream(file);
+                 Stream<Path> files = Files.walk(path)) {
+                for (Path source : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    out.putNextEntry(new JarEntry(path.relativize(source).toString().replace(File.separatorChar, '/')));
+                    Files.copy(source, out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Proceso que lanza {@link StartupBenchmark}: arranca la aplicación como una
+ * ejecución por archivo ({@link AsesorProcessorApp#processAsesorFile}, con sus
+ * servicios perezosos y el pipeline) y escribe {@link #FIRST_RECORD} en cuanto
+ * el pipeline tiene validado el primer lote. Con "first" la JVM termina ahí;
+ * con "full" procesa el archivo entero.
+ *
+ * Uso: StartupProbe archivo.xlsx [first|full]
+ */
+public final class StartupProbe {
+
+    static final String FIRST_RECORD = "primer-registro";
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = args[0];
+        boolean full = args.length > 1 && args[1].equals("full");
+
+        // Siempre el camino completo: sin snapshot ni estado de la ejecución anterior
+        Files.deleteIfExists(Paths.get(AsesorProcessorApp.snapshotPathFor(input)));
+        Files.deleteIfExists(Paths.get(AsesorProcessorApp.statePathFor(input)));
+        // Ruta fija: con "first" la JVM se detiene sin limpiar y la siguiente medida la sobrescribe
+        Path output = Paths.get(input + ".probe.xlsx");
+        AsesorProcessorApp app = new AsesorProcessorApp();
+        app.setFirstBatchListener(() -> {
+            System.out.println(FIRST_RECORD);
+            System.out.flush();
+            if (!full) {
+                Runtime.getRuntime().halt(0);
+            }
+        });
+        try {
+            AsesorProcessorApp.ProcessingResult result = app.processAsesorFile(input, output.toString());
+            if (result.getError() != null) {
+                throw new IllegalStateException(result.getError());
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
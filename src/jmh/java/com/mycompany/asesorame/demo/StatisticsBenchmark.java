@@ -0,0 +1,76 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.collect.Multimap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregaciones de {@link StatisticsService} sobre listas de 10k, 1M y 10M asesores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+@State(Scope.Benchmark)
+public class StatisticsBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"42"})
+    public long seed;
+
+    private final StatisticsService statisticsService = new StatisticsService();
+    private List<Asesor> asesores;
+
+    @Setup
+    public void setup() {
+        AsesorValidator validator = new AsesorValidator();
+        asesores = BenchmarkData.asesores(rows, seed);
+        asesores.forEach(validator::normalizeAsesor);
+    }
+
+    @Benchmark
+    public StatisticsService.EmployeeSummary createSummary() {
+        return statisticsService.createSummary(asesores);
+    }
+
+    @Benchmark
+    public Map<String, StatisticsService.DepartmentStats> calculateDepartmentStatistics() {
+        return statisticsService.calculateDepartmentStatistics(asesores);
+    }
+
+    @Benchmark
+    public List<Asesor> filterAsesores() {
+        return statisticsService.filterAsesores(asesores, "Tecnología", "Lima");
+    }
+
+    @Benchmark
+    public Multimap<String, Asesor> groupByEspecialidad() {
+        return statisticsService.groupByEspecialidad(asesores);
+    }
+
+    /* Top-K, distintos y frecuencias con sketches de memoria fija */
+    @Benchmark
+    public StatisticsService.SketchAggregator sketch() {
+        return statisticsService.sketch(asesores);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación y normalización de un asesor. {@code validate} frente a
+ * {@code check} muestra el coste de construir mensajes frente a la máscara de bits.
+ * Ejecutar con {@code -prof gc} para ver la asignación por operación.
+ * {@code capitalizeCached} frente a {@code capitalizeUncached} compara la
+ * caché de {@link TextNormalizer} con la normalización directa de un nombre
+ * que llega en mayúsculas y con espacios. {@code normalizeAsesor} restaura
+ * antes los valores sin normalizar del asesor; {@code restoreOnly} mide solo
+ * esa restauración, que hay que restar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    private static final int SAMPLE = 1024;
+
+    private final AsesorValidator validator = new AsesorValidator();
+
+    private Asesor[] raw;
+    private Asesor[] normalized;
+    private Asesor[] scratch;
+    private String[] messyNombres;
+    private final TextNormalizer normalizer = new TextNormalizer();
+    private int index;
+
+    @Setup
+    public void setup() {
+        List<Asesor> data = BenchmarkData.asesores(SAMPLE, BenchmarkData.DEFAULT_SEED);
+        raw = data.toArray(new Asesor[0]);
+        normalized = data.stream().map(BenchmarkData::copy).toArray(Asesor[]::new);
+        scratch = data.stream().map(BenchmarkData::copy).toArray(Asesor[]::new);
+        for (Asesor asesor : normalized) {
+            validator.normalizeAsesor(asesor);
+        }
+        messyNombres = new String[SAMPLE];
+        for (int i = 0; i < SAMPLE; i++) {
+            messyNombres[i] = " " + raw[i].getNombre().toUpperCase(Locale.ROOT) + " ";
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return validator.validate(normalized[next()]);
+    }
+
+    @Benchmark
+    public int check() {
+        return validator.check(normalized[next()]);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(normalized[next()]);
+    }
+
+    // La normalización modifica el asesor: cada llamada parte de los valores sin normalizar
+    @Benchmark
+    public Asesor normalizeAsesor() {
+        int i = next();
+        Asesor asesor = restore(scratch[i], raw[i]);
+        validator.normalizeAsesor(asesor);
+        return asesor;
+    }
+
+    @Benchmark
+    public Asesor restoreOnly() {
+        int i = next();
+        return restore(scratch[i], raw[i]);
+    }
+
+    private static Asesor restore(Asesor target, Asesor source) {
+        target.setNombre(source.getNombre());
+        target.setApellido(source.getApellido());
+        target.setEmail(source.getEmail());
+        target.setTelefono(source.getTelefono());
+        target.setEspecialidad(source.getEspecialidad());
+        target.setUbicacion(source.getUbicacion());
+        return target;
+    }
+
+    @Benchmark
+    public String capitalizeCached() {
+        return normalizer.nombre(messyNombres[next()]);
+    }
+
+    @Benchmark
+    public String capitalizeUncached() {
+        return StringUtils.capitalize(messyNombres[next()].toLowerCase(Locale.ROOT).trim());
+    }
+}
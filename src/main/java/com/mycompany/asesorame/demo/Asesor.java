@@ -5,13 +5,14 @@
 package com.mycompany.asesorame.demo;
 
 
+import com.google.common.base.Equivalence;
 import com.google.common.base.Objects;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
 
 public class Asesor {
     
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
     private Long id;
     private String nombre;
     private String apellido;
@@ -20,6 +21,9 @@ public class Asesor {
     private String especialidad;
     private String ubicacion;
 
+    // hashCode calculado; 0 = pendiente. Los setters lo invalidan
+    private int hash;
+
 
     //Constructor vacio
     public Asesor() {
@@ -34,18 +38,24 @@ public class Asesor {
         this.telefono = telefono;
         this.especialidad = especialidad;
         this.ubicacion = ubicacion;
+        this.hash = 0;
     }
 
-    /*  Obetiene el nombre completo de los Asesores esta utilizando
-     * el Apache Commons Lang3 para unir el nombre y apellido
-     * y manejar los casos donde alguno de los dos sea nulo o vacío.
+    /*  Obtiene el nombre completo de los Asesores uniendo nombre y
+     * apellido, y maneja los casos donde alguno de los dos sea nulo o vacío.
      */
     public String getFullName() {
-        return StringUtils.join(
-            StringUtils.defaultString(nombre),
-            " ",
-            StringUtils.defaultString(apellido)
-        ).trim();
+        return fullName(nombre, apellido);
+    }
+
+    static String fullName(String nombre, String apellido) {
+        if (StringUtils.isEmpty(apellido)) {
+            return nombre == null ? "" : nombre.trim();
+        }
+        if (StringUtils.isEmpty(nombre)) {
+            return apellido.trim();
+        }
+        return (nombre + " " + apellido).trim();
     }
 
     public boolean isValid() {
@@ -65,6 +75,7 @@ public class Asesor {
 
     public void setId(Long id) {
         this.id = id;
+        this.hash = 0;
     }
 
     public String getNombre() {
@@ -73,6 +84,7 @@ public class Asesor {
 
     public void setNombre(String nombre) {
         this.nombre = nombre;
+        this.hash = 0;
     }
 
     public String getApellido() {
@@ -81,6 +93,7 @@ public class Asesor {
 
     public void setApellido(String apellido) {
         this.apellido = apellido;
+        this.hash = 0;
     }
 
     public String getEmail() {
@@ -89,6 +102,7 @@ public class Asesor {
 
     public void setEmail(String email) {
         this.email = email;
+        this.hash = 0;
     }
 
     public String getTelefono() {
@@ -97,6 +111,7 @@ public class Asesor {
 
     public void setTelefono(String telefono) {
         this.telefono = telefono;
+        this.hash = 0;
     }
 
     public String getEspecialidad() {
@@ -105,6 +120,7 @@ public class Asesor {
 
     public void setEspecialidad(String especialidad) {
         this.especialidad = especialidad;
+        this.hash = 0;
     }
 
     public String getUbicacion() {
@@ -113,6 +129,7 @@ public class Asesor {
 
     public void setUbicacion(String ubicacion) {
         this.ubicacion = ubicacion;
+        this.hash = 0;
     }
 
     /* Implementacion de equals Google Guava Objects */
@@ -121,6 +138,8 @@ public class Asesor {
         if (this == o) return true;
         if (!(o instanceof Asesor)) return false;
         Asesor asesor = (Asesor) o;
+        // Si ambos hashes ya están calculados, distinto hash descarta sin comparar campos
+        if (hash != 0 && asesor.hash != 0 && hash != asesor.hash) return false;
         return Objects.equal(id, asesor.id) &&
                Objects.equal(nombre, asesor.nombre) &&
                Objects.equal(apellido, asesor.apellido) &&
@@ -130,24 +149,98 @@ public class Asesor {
                Objects.equal(ubicacion, asesor.ubicacion);
     }
 
-    /* Implementacion de hashCode Google Guava Objects */
+    /* Mismo valor que Guava Objects.hashCode (Arrays.hashCode) con los siete
+     * campos, sin array de varargs; se calcula una vez hasta el siguiente setter */
     @Override
     public int hashCode() {
-        return Objects.hashCode(id, nombre, apellido, email, telefono, especialidad, ubicacion);
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            h = 31 * h + (id == null ? 0 : id.hashCode());
+            h = 31 * h + (nombre == null ? 0 : nombre.hashCode());
+            h = 31 * h + (apellido == null ? 0 : apellido.hashCode());
+            h = 31 * h + (email == null ? 0 : email.hashCode());
+            h = 31 * h + (telefono == null ? 0 : telefono.hashCode());
+            h = 31 * h + (especialidad == null ? 0 : especialidad.hashCode());
+            h = 31 * h + (ubicacion == null ? 0 : ubicacion.hashCode());
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Identidad por id: dos asesores son el mismo si tienen el mismo id, sin
+     * mirar el resto de campos. Para sets o mapas grandes de asesores que se
+     * siguen modificando ({@code idEquivalence().wrap(asesor)}); si solo hace
+     * falta el id, {@link LongIntHashMap} evita los objetos intermedios.
+     */
+    public static Equivalence<Asesor> idEquivalence() {
+        return ID_EQUIVALENCE;
     }
 
-    /* Implementacion de toString Apache Commons Lang3 */
+    private static final Equivalence<Asesor> ID_EQUIVALENCE = new Equivalence<Asesor>() {
+        @Override
+        protected boolean doEquivalent(Asesor a, Asesor b) {
+            return Objects.equal(a.id, b.id);
+        }
+
+        @Override
+        protected int doHash(Asesor asesor) {
+            return asesor.id == null ? 0 : Long.hashCode(asesor.id);
+        }
+    };
+
+    /* Mismo JSON que ToStringBuilder con ToStringStyle.JSON_STYLE, escrito directamente */
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
-            .append("id", id)
-            .append("fullName", getFullName())
-            .append("email", email)
-            .append("telefono", telefono)
-            .append("especialidad", especialidad)
-            .append("ubicacion", ubicacion)    
-            .toString();
+        return toJson(id, getFullName(), email, telefono, especialidad, ubicacion);
+    }
+
+    static String toJson(Long id, String fullName, String email, String telefono, String especialidad,
+                         String ubicacion) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"id\":").append(id);
+        appendJsonField(json, "fullName", fullName);
+        appendJsonField(json, "email", email);
+        appendJsonField(json, "telefono", telefono);
+        appendJsonField(json, "especialidad", especialidad);
+        appendJsonField(json, "ubicacion", ubicacion);
+        return json.append('}').toString();
+    }
+
+    // Escapa como StringEscapeUtils.escapeJson: también '/' y todo lo que no es ASCII imprimible
+    private static void appendJsonField(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":");
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '/' -> json.append("\\/");
+                case '\b' -> json.append("\\b");
+                case '\n' -> json.append("\\n");
+                case '\t' -> json.append("\\t");
+                case '\f' -> json.append("\\f");
+                case '\r' -> json.append("\\r");
+                default -> {
+                    if (ch >= 0x20 && ch <= 0x7f) {
+                        json.append(ch);
+                    } else {
+                        json.append("\\u");
+                        for (int shift = 12; shift >= 0; shift -= 4) {
+                            json.append(HEX[(ch >>> shift) & 0xF]);
+                        }
+                    }
+                }
+            }
+        }
+        json.append('"');
     }
-    
+
 }
 
@@ -0,0 +1,544 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo servicio: una sola JVM (con el JIT ya caliente y los servicios de
+ * {@link AsesorProcessorApp} compartidos) procesa los archivos que llegan a
+ * la bandeja de entrada o que se envían por HTTP local.
+ *
+ * Cada trabajo corre en su propio hilo virtual y tiene un directorio
+ * {@code jobs/<id>} con la entrada, la salida, los archivos auxiliares
+ * (snapshot, estado, errores, métricas) y {@code result.json}. Antes de empezar,
+ * un trabajo reserva memoria de un presupuesto global según el tamaño y el
+ * formato del archivo; si no hay suficiente espera, así que el número de
+ * trabajos simultáneos se ajusta solo a su tamaño.
+ *
+ * Endpoints (solo en 127.0.0.1):
+ * <pre>
+ *   POST /jobs?file=/ruta/asesores.csv   encola una copia del archivo
+ *   GET  /jobs                           estado de todos los trabajos
+ *   GET  /jobs/{id}                      estado y resultado de un trabajo
+ *   GET  /metrics                        métricas en formato Prometheus
+ *   GET  /health
+ * </pre>
+ */
+public class AsesorBatchService implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsesorBatchService.class);
+
+    static final String DIR_PROPERTY = "asesorame.service.dir";
+    static final String PORT_PROPERTY = "asesorame.service.port";
+    static final String MEMORY_PROPERTY = "asesorame.service.memory.mb";
+
+    static final String DEFAULT_DIR = "data/service";
+    static final int DEFAULT_PORT = 8085;
+
+    // Memoria estimada por MB de archivo: el XLSX está comprimido, el CSV no
+    static final int XLSX_MEMORY_FACTOR = 12;
+    static final int CSV_MEMORY_FACTOR = 4;
+    static final int MIN_JOB_MEMORY_MB = 32;
+
+    // Un archivo de la bandeja se procesa cuando su tamaño deja de cambiar
+    static final long STABLE_CHECK_MILLIS = 500;
+
+    private final AsesorProcessorApp app;
+    private final Path inbox;
+    private final Path jobsDir;
+    private final int port;
+    private final int memoryBudgetMb;
+    private final Semaphore memory;
+    private final ExecutorService executor;
+    private final Map<String, Job> jobs = new ConcurrentSkipListMap<>();
+    private final Set<Path> claimed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final Metrics.Counter submittedJobs;
+    private final Metrics.Histogram jobLatency;
+    private final Metrics.Histogram admissionWait;
+    private WatchService watchService;
+    private HttpServer server;
+    private ExecutorService httpExecutor;
+
+    /**
+     * @param baseDir        contiene {@code inbox/} y {@code jobs/}
+     * @param port           puerto HTTP en 127.0.0.1; 0 desactiva el endpoint
+     * @param memoryBudgetMb memoria total que pueden reservar los trabajos simultáneos
+     */
+    public AsesorBatchService(AsesorProcessorApp app, Path baseDir, int port, int memoryBudgetMb) {
+        if (memoryBudgetMb < MIN_JOB_MEMORY_MB) {
+            throw new IllegalArgumentException("El presupuesto de memoria debe ser al menos " + MIN_JOB_MEMORY_MB + " MB");
+        }
+        this.app = app;
+        this.inbox = baseDir.resolve("inbox");
+        this.jobsDir = baseDir.resolve("jobs");
+        this.port = port;
+        this.memoryBudgetMb = memoryBudgetMb;
+        this.memory = new Semaphore(memoryBudgetMb, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("asesor-job-", 1).factory());
+        Metrics metrics = app.getMetrics();
+        this.submittedJobs = metrics.counter("asesorame_service_jobs_submitted_total", "Trabajos recibidos");
+        this.jobLatency = metrics.histogram("asesorame_service_job_seconds", "Duración de cada trabajo");
+        this.admissionWait = metrics.histogram("asesorame_service_admission_wait_seconds",
+                "Espera de memoria antes de empezar cada trabajo");
+    }
+
+    /**
+     * Configuración desde propiedades del sistema; por defecto el presupuesto
+     * de memoria es la mitad del heap máximo.
+     */
+    public static AsesorBatchService fromSystemProperties(AsesorProcessorApp app) {
+        int defaultBudget = (int) Math.max(MIN_JOB_MEMORY_MB, Runtime.getRuntime().maxMemory() / 2 / (1 << 20));
+        return new AsesorBatchService(app, Paths.get(System.getProperty(DIR_PROPERTY, DEFAULT_DIR)),
+                Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT), Integer.getInteger(MEMORY_PROPERTY, defaultBudget));
+    }
+
+    public void start() throws IOException {
+        Files.createDirectories(inbox);
+        Files.createDirectories(jobsDir);
+        // Los ids siguen a los de ejecuciones anteriores para no reutilizar directorios
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(jobsDir, dir -> dir.getFileName().toString().matches("\\d+"))) {
+            for (Path dir : dirs) {
+                long id = Long.parseLong(dir.getFileName().toString());
+                sequence.accumulateAndGet(id, Math::max);
+            }
+        }
+
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().name("asesor-inbox-watcher").daemon().start(this::watchInbox);
+        // Lo que ya estaba en la bandeja antes de arrancar
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                offerInboxFile(file);
+            }
+        }
+
+        if (port > 0) {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            server.setExecutor(httpExecutor);
+            server.createContext("/jobs", this::handleJobs);
+            server.createContext("/metrics", this::handleMetrics);
+            server.createContext("/health", exchange -> respond(exchange, 200, "application/json",
+                    "{\"status\": \"ok\", \"jobs\": " + jobs.size()
+                            + ", \"memoryAvailableMb\": " + memory.availablePermits() + "}"));
+            server.start();
+        }
+        logger.info("Servicio de procesamiento iniciado: bandeja {}, trabajos en {}, HTTP {}, memoria {} MB",
+                   inbox.toAbsolutePath(), jobsDir.toAbsolutePath(),
+                   port > 0 ? "127.0.0.1:" + server.getAddress().getPort() : "desactivado", memoryBudgetMb);
+    }
+
+    /**
+     * Arranca y bloquea hasta que la JVM se detiene (Ctrl+C); entonces deja de
+     * aceptar trabajos y espera a que terminen los que están en curso.
+     */
+    public void runUntilShutdown() throws IOException, InterruptedException {
+        start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                logger.warn("Error al detener el servicio: {}", e.getMessage());
+            }
+        }, "asesor-service-shutdown"));
+        stopped.await();
+    }
+
+    /**
+     * Encola una copia del archivo indicado (el original no se modifica).
+     *
+     * @throws RejectedExecutionException si el servicio se está deteniendo
+     */
+    public Job submit(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("No existe el archivo " + file);
+        }
+        if (!isSupported(file)) {
+            throw new IOException("Formato no soportado (se espera .xlsx, .csv o .tsv): " + file);
+        }
+        Job job = newJob(file.getFileName().toString());
+        Files.copy(file, job.input, StandardCopyOption.REPLACE_EXISTING);
+        register(job);
+        try {
+            executor.execute(job::run);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return job;
+    }
+
+    public Job getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /* Puerto HTTP real (útil con puerto 0 en el sistema), o -1 sin endpoint */
+    public int getHttpPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    // Bandeja de entrada
+
+    private void watchInbox() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Se perdieron eventos: se revisa la bandeja completa
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+                            files.forEach(this::offerInboxFile);
+                        }
+                    } else {
+                        offerInboxFile(inbox.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("La bandeja de entrada {} ya no es accesible", inbox);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // parada del servicio
+        } catch (IOException e) {
+            logger.error("Error vigilando la bandeja de entrada {}: {}", inbox, e.getMessage(), e);
+        }
+    }
+
+    /*
+     * Un archivo puede generar varios eventos mientras se copia: solo el primero
+     * lo reclama, espera a que deje de crecer y lo mueve al directorio del trabajo.
+     */
+    private void offerInboxFile(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || !isSupported(file) || !claimed.add(file)) {
+            return;
+        }
+        try {
+            executor.execute(() -> claimInboxFile(file, name));
+        } catch (RejectedExecutionException e) {
+            // El servicio se está deteniendo: el archivo queda en la bandeja para el próximo arranque
+            claimed.remove(file);
+        }
+    }
+
+    private void claimInboxFile(Path file, String name) {
+        try {
+            if (!waitUntilStable(file)) {
+                return;
+            }
+            Job job = newJob(name);
+            Files.move(file, job.input, StandardCopyOption.ATOMIC_MOVE);
+            register(job);
+            job.run();
+        } catch (IOException e) {
+            logger.error("No se pudo tomar {} de la bandeja de entrada: {}", file, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            claimed.remove(file);
+        }
+    }
+
+    private static boolean waitUntilStable(Path file) throws IOException, InterruptedException {
+        long size = -1;
+        while (Files.exists(file)) {
+            long current = Files.size(file);
+            if (current == size) {
+                return true;
+            }
+            size = current;
+            Thread.sleep(STABLE_CHECK_MILLIS);
+        }
+        return false;
+    }
+
+    static boolean isSupported(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".xlsx") || ExcelService.isDelimitedFile(name);
+    }
+
+    // Trabajos
+
+    private Job newJob(String fileName) throws IOException {
+        String id = String.format("%06d", sequence.incrementAndGet());
+        Path dir = jobsDir.resolve(id);
+        Files.createDirectories(dir);
+        return new Job(id, fileName, dir);
+    }
+
+    private void register(Job job) {
+        jobs.put(job.id, job);
+        submittedJobs.increment();
+        logger.info("Trabajo {} recibido: {}", job.id, job.fileName);
+    }
+
+    /* Memoria estimada para procesar un archivo, acotada al presupuesto total */
+    int estimateMemoryMb(Path file) throws IOException {
+        long size = Files.size(file);
+        int factor = ExcelService.isDelimitedFile(file.toString()) ? CSV_MEMORY_FACTOR : XLSX_MEMORY_FACTOR;
+        long estimate = (size * factor + (1 << 20) - 1) >> 20;
+        return (int) Math.min(memoryBudgetMb, Math.max(MIN_JOB_MEMORY_MB, estimate));
+    }
+
+    public enum Status {
+        EN_COLA, ESPERANDO_MEMORIA, EN_PROCESO, COMPLETADO, FALLIDO
+    }
+
+    /* Un archivo a procesar con su estado y resultado */
+    public final class Job {
+
+        private final String id;
+        private final String fileName;
+        private final Path dir;
+        private final Path input;
+        private final Instant submittedAt = Instant.now();
+        private volatile Status status = Status.EN_COLA;
+        private volatile int memoryMb;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile AsesorProcessorApp.ProcessingResult result;
+        private volatile String error;
+
+        private Job(String id, String fileName, Path dir) {
+            this.id = id;
+            this.fileName = fileName;
+            this.dir = dir;
+            this.input = dir.resolve(fileName);
+        }
+
+        private void run() {
+            long admissionStart = System.nanoTime();
+            boolean admitted = false;
+            try {
+                memoryMb = estimateMemoryMb(input);
+                status = Status.ESPERANDO_MEMORIA;
+                memory.acquire(memoryMb);
+                admitted = true;
+                admissionWait.record(System.nanoTime() - admissionStart);
+
+                status = Status.EN_PROCESO;
+                startedAt = Instant.now();
+                String base = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+                result = app.processAsesorFile(input.toString(), dir.resolve(base + "_processed.xlsx").toString());
+                status = result.isSuccess() ? Status.COMPLETADO : Status.FALLIDO;
+                error = result.getError();
+            } catch (IOException | RuntimeException e) {
+                status = Status.FALLIDO;
+                error = e.getMessage();
+                logger.error("Trabajo {} fallido: {}", id, e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = Status.FALLIDO;
+                error = "Servicio detenido antes de empezar";
+            } finally {
+                if (admitted) {
+                    memory.release(memoryMb);
+                }
+                finishedAt = Instant.now();
+                if (startedAt != null) {
+                    jobLatency.record(Duration.between(startedAt, finishedAt).toNanos());
+                }
+                app.getMetrics().counter("asesorame_service_jobs_finished_total", "Trabajos terminados por estado",
+                        "status", status.name()).increment();
+                writeResult();
+            }
+        }
+
+        private void writeResult() {
+            try {
+                Files.writeString(dir.resolve("result.json"), toJson() + "\n", StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                logger.warn("No se pudo guardar el resultado del trabajo {}: {}", id, e.getMessage());
+            }
+            if (status == Status.COMPLETADO) {
+                logger.info("Trabajo {} completado en {} ms: {} leídos, {} válidos, {} inválidos, {} duplicados ({})",
+                           id, result.getElapsedMillis(), result.getRead(), result.getValid(), result.getInvalid(),
+                           result.getDuplicates(), result.getMode());
+            } else {
+                logger.warn("Trabajo {} fallido: {}", id, error);
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Path getDirectory() {
+            return dir;
+        }
+
+        /* Resultado del procesamiento, o null si aún no ha terminado */
+        public AsesorProcessorApp.ProcessingResult getResult() {
+            return result;
+        }
+
+        public String toJson() {
+            AsesorProcessorApp.ProcessingResult current = result;
+            return "{\"id\": " + Metrics.jsonString(id)
+                    + ", \"file\": " + Metrics.jsonString(fileName)
+                    + ", \"status\": \"" + status + "\""
+                    + ", \"memoryMb\": " + memoryMb
+                    + ", \"submittedAt\": \"" + submittedAt + "\""
+                    + ", \"startedAt\": " + (startedAt == null ? "null" : "\"" + startedAt + "\"")
+                    + ", \"finishedAt\": " + (finishedAt == null ? "null" : "\"" + finishedAt + "\"")
+                    + ", \"error\": " + (error == null ? "null" : Metrics.jsonString(error))
+                    + ", \"result\": " + (current == null ? "null" : current.toJson()) + "}";
+        }
+    }
+
+    // HTTP
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/jobs") || path.equals("/jobs/")) {
+            if (method.equals("POST")) {
+                String file = queryParameter(exchange, "file");
+                if (file == null) {
+                    respondError(exchange, 400, "Falta el parámetro file");
+                    return;
+                }
+                try {
+                    respond(exchange, 202, "application/json", submit(Paths.get(file)).toJson());
+                } catch (IOException e) {
+                    respondError(exchange, 400, e.getMessage());
+                } catch (RejectedExecutionException e) {
+                    respondError(exchange, 503, "El servicio se está deteniendo");
+                }
+            } else if (method.equals("GET")) {
+                StringBuilder json = new StringBuilder("[");
+                for (Job job : getJobs()) {
+                    json.append(json.length() > 1 ? ",\n" : "\n").append(job.toJson());
+                }
+                respond(exchange, 200, "application/json", json.append("\n]").toString());
+            } else {
+                respondError(exchange, 405, "Método no soportado: " + method);
+            }
+            return;
+        }
+        Job job = jobs.get(path.substring("/jobs/".length()));
+        if (job == null) {
+            respondError(exchange, 404, "No existe el trabajo " + path);
+        } else {
+            respond(exchange, 200, "application/json", job.toJson());
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        Metrics metrics = app.getMetrics();
+        metrics.gauge("asesorame_service_memory_available_mb", "Memoria del presupuesto sin reservar")
+                .set(memory.availablePermits());
+        for (Status status : Status.values()) {
+            metrics.gauge("asesorame_service_jobs", "Trabajos por estado", "status", status.name())
+                    .set(jobs.values().stream().filter(job -> job.status == status).count());
+        }
+        metrics.recordJvm();
+        respond(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", metrics.toPrometheusText());
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, "application/json", "{\"error\": " + Metrics.jsonString(message) + "}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Deja de aceptar trabajos y espera a que terminen los que están en curso.
+     */
+    @Override
+    public void close() throws IOException {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        logger.info("Deteniendo el servicio de procesamiento...");
+        if (server != null) {
+            server.stop(1);
+            httpExecutor.shutdown();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                logger.warn("Quedaron trabajos sin terminar");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stopped.countDown();
+        logger.info("Servicio detenido");
+    }
+}
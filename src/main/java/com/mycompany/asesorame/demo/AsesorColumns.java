@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Conjunto de asesores en formato columnar (en heap o mapeado en memoria):
+ * acceso por fila y códigos de diccionario para especialidad y ubicación.
+ */
+public interface AsesorColumns {
+
+    int size();
+
+    /**
+     * Materializa la fila como un Asesor nuevo.
+     */
+    Asesor get(int row);
+
+    String getEmail(int row);
+
+    String getTelefono(int row);
+
+    int especialidadCode(int row);
+
+    int ubicacionCode(int row);
+
+    StringDictionary getEspecialidadDictionary();
+
+    StringDictionary getUbicacionDictionary();
+
+    /**
+     * Conteos por código [ubicacion + 1][especialidad + 1]; la posición 0 es el valor null.
+     */
+    default long[][] countByUbicacionAndEspecialidad() {
+        long[][] counts = new long[getUbicacionDictionary().size() + 1][getEspecialidadDictionary().size() + 1];
+        for (int row = 0; row < size(); row++) {
+            counts[ubicacionCode(row) + 1][especialidadCode(row) + 1]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Vista de solo lectura como List; cada get() materializa la fila en ese momento.
+     */
+    default List<Asesor> asList() {
+        class View extends AbstractList<Asesor> implements RandomAccess {
+            @Override
+            public Asesor get(int index) {
+                return AsesorColumns.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return AsesorColumns.this.size();
+            }
+        }
+        return new View();
+    }
+}
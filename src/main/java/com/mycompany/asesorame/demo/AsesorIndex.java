@@ -0,0 +1,414 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Índices sobre una lista de asesores ya cargada, para lanzar muchos filtros
+ * contra el mismo conjunto sin recorrerlo entero cada vez:
+ * <ul>
+ *   <li>hash: especialidad y ubicación -> filas (posting list ordenada),</li>
+ *   <li>bitmap: un BitSet por valor, para intersectar filtros multicriterio,</li>
+ *   <li>prefijo: nombre completo y email ordenados, con búsqueda binaria.</li>
+ * </ul>
+ * {@link #query(Query)} elige el índice más selectivo y cae a un recorrido
+ * completo cuando no hay ninguno aplicable. El coste es del orden del tamaño del
+ * resultado (más un log n para los prefijos).
+ *
+ * La lista no debe modificarse después de construir el índice.
+ */
+public class AsesorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsesorIndex.class);
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final List<Asesor> asesores;
+    private final ValueIndex especialidades;
+    private final ValueIndex ubicaciones;
+    // Los índices de prefijo son caros de ordenar: se construyen en la primera consulta que los usa
+    private final Supplier<PrefixIndex> fullNames;
+    private final Supplier<PrefixIndex> emails;
+
+    public AsesorIndex(List<Asesor> asesores) {
+        this.asesores = asesores;
+        this.especialidades = new ValueIndex(asesores, Asesor::getEspecialidad);
+        this.ubicaciones = new ValueIndex(asesores, Asesor::getUbicacion);
+        this.fullNames = Suppliers.memoize(() -> new PrefixIndex(asesores, Asesor::getFullName));
+        this.emails = Suppliers.memoize(() -> new PrefixIndex(asesores, Asesor::getEmail));
+        logger.debug("Índices construidos sobre {} asesores ({} especialidades, {} ubicaciones)",
+                asesores.size(), especialidades.postings.size(), ubicaciones.postings.size());
+    }
+
+    public int size() {
+        return asesores.size();
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve los asesores que cumplen, en el orden de la lista original.
+     */
+    public List<Asesor> query(Query query) {
+        return new Rows(rows(query));
+    }
+
+    /**
+     * Número de coincidencias sin materializar la lista.
+     */
+    public int count(Query query) {
+        return rows(query).length;
+    }
+
+    /**
+     * Describe el plan que se usaría para la consulta (para logs y diagnósticos).
+     */
+    public String explain(Query query) {
+        return plan(query).toString();
+    }
+
+    int[] rows(Query query) {
+        Plan plan = plan(query);
+        logger.debug("Consulta {} -> {}", query, plan);
+        return switch (plan.access) {
+            case SCAN -> scan(query);
+            case BITMAP -> bitmapIntersection(query);
+            case INDEX -> plan.candidates;
+            case POSTINGS -> filter(plan.candidates, query);
+            case EMPTY -> NO_ROWS;
+        };
+    }
+
+    private Plan plan(Query query) {
+        if (!query.hasCriteria()) {
+            return new Plan(Access.SCAN, null, "sin criterios: recorrido completo");
+        }
+
+        // Candidatos de cada índice aplicable; se queda con el más pequeño
+        int[] best = null;
+        String source = null;
+        int hashCriteria = 0;
+        boolean sorted = true;
+        if (query.especialidad != null) {
+            hashCriteria++;
+            best = especialidades.rows(query.especialidad);
+            source = "hash(especialidad)";
+        }
+        if (query.ubicacion != null) {
+            hashCriteria++;
+            int[] candidates = ubicaciones.rows(query.ubicacion);
+            if (best == null || candidates.length < best.length) {
+                best = candidates;
+                source = "hash(ubicacion)";
+            }
+        }
+        if (query.fullNamePrefix != null) {
+            int[] candidates = fullNames.get().rows(query.fullNamePrefix);
+            if (best == null || candidates.length < best.length) {
+                best = candidates;
+                source = "prefijo(nombre)";
+                sorted = false;
+            }
+        }
+        if (query.emailPrefix != null) {
+            int[] candidates = emails.get().rows(query.emailPrefix);
+            if (best == null || candidates.length < best.length) {
+                best = candidates;
+                source = "prefijo(email)";
+                sorted = false;
+            }
+        }
+
+        if (best.length == 0) {
+            return new Plan(Access.EMPTY, null, source + " sin coincidencias");
+        }
+        // Un solo criterio: el índice ya da exactamente las filas, sin filtrar
+        if (query.criteriaCount() == 1) {
+            if (!sorted) {
+                // Los índices de prefijo devuelven una copia: se puede ordenar in situ
+                Arrays.sort(best);
+            }
+            return new Plan(Access.INDEX, best, source + " (" + best.length + " filas)");
+        }
+        // Dos criterios hash poco selectivos: la intersección de bitmaps es más barata
+        // que comprobar cada candidato
+        if (hashCriteria == 2 && query.fullNamePrefix == null && query.emailPrefix == null
+                && best.length > asesores.size() / 64) {
+            return new Plan(Access.BITMAP, null, "bitmap(especialidad) AND bitmap(ubicacion)");
+        }
+        return new Plan(Access.POSTINGS, best, source + " (" + best.length + " candidatos) + filtro");
+    }
+
+    private int[] filter(int[] candidates, Query query) {
+        // Los criterios hash se comprueban contra su bitmap (sin comparar strings)
+        BitSet especialidadRows = query.especialidad != null ? especialidades.bitmap(query.especialidad) : null;
+        BitSet ubicacionRows = query.ubicacion != null ? ubicaciones.bitmap(query.ubicacion) : null;
+        boolean prefixes = query.fullNamePrefix != null || query.emailPrefix != null;
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if ((especialidadRows == null || especialidadRows.get(row))
+                    && (ubicacionRows == null || ubicacionRows.get(row))
+                    && (!prefixes || query.matches(asesores.get(row)))) {
+                matches[count++] = row;
+            }
+        }
+        // Las filas de un índice de prefijo no vienen en orden de lista
+        Arrays.sort(matches, 0, count);
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    private int[] bitmapIntersection(Query query) {
+        BitSet result = (BitSet) especialidades.bitmap(query.especialidad).clone();
+        result.and(ubicaciones.bitmap(query.ubicacion));
+        return result.stream().toArray();
+    }
+
+    private int[] scan(Query query) {
+        int[] matches = new int[Math.min(asesores.size(), 1024)];
+        int count = 0;
+        for (int row = 0; row < asesores.size(); row++) {
+            if (query.matches(asesores.get(row))) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(16, count * 2));
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private enum Access {
+        SCAN, INDEX, POSTINGS, BITMAP, EMPTY
+    }
+
+    private record Plan(Access access, int[] candidates, String description) {
+        @Override
+        public String toString() {
+            return access + ": " + description;
+        }
+    }
+
+    /* Índice hash + bitmap de una columna de baja cardinalidad */
+    private static final class ValueIndex {
+
+        private final Map<String, int[]> postings = new HashMap<>();
+        private final Map<String, BitSet> bitmaps = new HashMap<>();
+
+        ValueIndex(List<Asesor> asesores, Function<Asesor, String> column) {
+            Map<String, IntList> building = new HashMap<>();
+            for (int row = 0; row < asesores.size(); row++) {
+                String value = column.apply(asesores.get(row));
+                if (value != null) {
+                    building.computeIfAbsent(value, k -> new IntList()).add(row);
+                }
+            }
+            int size = asesores.size();
+            building.forEach((value, rows) -> {
+                int[] array = rows.toArray();
+                postings.put(value, array);
+                BitSet bitmap = new BitSet(size);
+                for (int row : array) {
+                    bitmap.set(row);
+                }
+                bitmaps.put(value, bitmap);
+            });
+        }
+
+        int[] rows(String value) {
+            return postings.getOrDefault(value, NO_ROWS);
+        }
+
+        BitSet bitmap(String value) {
+            BitSet bitmap = bitmaps.get(value);
+            return bitmap != null ? bitmap : new BitSet();
+        }
+    }
+
+    /*
+     * Única forma de ignorar mayúsculas en los prefijos, tanto en el índice
+     * como en el filtro de comprobación; si difirieran, el índice y el
+     * recorrido completo darían resultados distintos. Se pliega carácter a
+     * carácter, como String.regionMatches con ignoreCase: toLowerCase(Locale)
+     * depende del contexto (sigma final) y puede cambiar la longitud ('İ').
+     */
+    static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    /* Índice de prefijos: claves en minúsculas ordenadas con su fila */
+    private static final class PrefixIndex {
+
+        private final String[] keys;
+        private final int[] rows;
+
+        PrefixIndex(List<Asesor> asesores, Function<Asesor, String> column) {
+            List<String> keyList = new ArrayList<>(asesores.size());
+            IntList rowList = new IntList();
+            for (int row = 0; row < asesores.size(); row++) {
+                String value = column.apply(asesores.get(row));
+                if (StringUtils.isNotEmpty(value)) {
+                    keyList.add(foldCase(value));
+                    rowList.add(row);
+                }
+            }
+            int[] unsortedRows = rowList.toArray();
+            Integer[] order = new Integer[unsortedRows.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keyList.get(a).compareTo(keyList.get(b)));
+            keys = new String[order.length];
+            rows = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                rows[i] = unsortedRows[order[i]];
+            }
+        }
+
+        /* Filas cuya clave empieza por el prefijo (sin distinguir mayúsculas) */
+        int[] rows(String prefix) {
+            String key = foldCase(prefix);
+            int from = lowerBound(key);
+            int to = from;
+            while (to < keys.length && keys[to].startsWith(key)) {
+                to++;
+            }
+            return Arrays.copyOfRange(rows, from, to);
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /* Lista de int creciente sin boxing */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /* Vista de las filas resultado sobre la lista original */
+    private final class Rows extends AbstractList<Asesor> implements RandomAccess {
+
+        private final int[] rows;
+
+        Rows(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Asesor get(int index) {
+            return asesores.get(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+
+    /**
+     * Criterios de consulta; los que quedan en null no se aplican.
+     * Especialidad y ubicación son exactos; los prefijos no distinguen mayúsculas.
+     */
+    public static class Query {
+
+        private String especialidad;
+        private String ubicacion;
+        private String fullNamePrefix;
+        private String emailPrefix;
+
+        public static Query where() {
+            return new Query();
+        }
+
+        public Query especialidad(String especialidad) {
+            this.especialidad = especialidad;
+            return this;
+        }
+
+        public Query ubicacion(String ubicacion) {
+            this.ubicacion = ubicacion;
+            return this;
+        }
+
+        public Query fullNameStartsWith(String prefix) {
+            this.fullNamePrefix = prefix;
+            return this;
+        }
+
+        public Query emailStartsWith(String prefix) {
+            this.emailPrefix = prefix;
+            return this;
+        }
+
+        boolean hasCriteria() {
+            return criteriaCount() > 0;
+        }
+
+        int criteriaCount() {
+            return (especialidad != null ? 1 : 0) + (ubicacion != null ? 1 : 0)
+                    + (fullNamePrefix != null ? 1 : 0) + (emailPrefix != null ? 1 : 0);
+        }
+
+        boolean matches(Asesor asesor) {
+            return (especialidad == null || especialidad.equals(asesor.getEspecialidad()))
+                    && (ubicacion == null || ubicacion.equals(asesor.getUbicacion()))
+                    && (fullNamePrefix == null || startsWithFolded(asesor.getFullName(), fullNamePrefix))
+                    && (emailPrefix == null || startsWithFolded(asesor.getEmail(), emailPrefix));
+        }
+
+        private static boolean startsWithFolded(String value, String prefix) {
+            return value != null && foldCase(value).startsWith(foldCase(prefix));
+        }
+
+        @Override
+        public String toString() {
+            return "Query{especialidad=" + especialidad + ", ubicacion=" + ubicacion
+                    + ", fullNamePrefix=" + fullNamePrefix + ", emailPrefix=" + emailPrefix + "}";
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Motor de procesamiento por etapas concurrentes:
+ *
+ *   lectura -> validación -> { estadísticas, escritura }
+ *
+ * Las etapas se comunican con colas acotadas de lotes de asesores. Cuando una
+ * cola se llena, la etapa productora se bloquea (backpressure), de modo que la
+ * memoria queda limitada a capacidad x tamaño de lote por cola y el tiempo total
+ * se aproxima al de la etapa más lenta en lugar de a la suma de todas.
+ *
+ * Con {@code retainValid} los asesores válidos se conservan además en una
+ * {@link AsesorTable} columnar (del orden de 100 bytes por fila en lugar de los
+ * ~300 de un Asesor con sus String); sin él la memoria no depende del tamaño
+ * del archivo.
+ */
+public class AsesorPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsesorPipeline.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    // Marca de fin de flujo; se compara por identidad
+    private static final List<Asesor> END = Collections.unmodifiableList(new ArrayList<>());
+
+    private final UnaryOperator<List<Asesor>> validationStep;
+    private final StatisticsService statisticsService;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final boolean retainValid;
+    private final Metrics metrics;
+
+    public AsesorPipeline(UnaryOperator<List<Asesor>> validationStep, StatisticsService statisticsService,
+                          int batchSize, int queueCapacity, boolean retainValid) {
+        this(validationStep, statisticsService, batchSize, queueCapacity, retainValid, new Metrics());
+    }
+
+    /**
+     * @param validationStep normaliza un lote y devuelve solo los asesores válidos, en orden
+     * @param retainValid    conservar los asesores válidos en una {@link AsesorTable} del resultado
+     *                       (para snapshot, duplicados y filtros posteriores)
+     * @param metrics        registro donde se publican las métricas de etapas y colas al terminar
+     */
+    public AsesorPipeline(UnaryOperator<List<Asesor>> validationStep, StatisticsService statisticsService,
+                          int batchSize, int queueCapacity, boolean retainValid, Metrics metrics) {
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batchSize y queueCapacity deben ser positivos");
+        }
+        this.validationStep = validationStep;
+        this.statisticsService = statisticsService;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.retainValid = retainValid;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Ejecuta el pipeline completo. El escritor se cierra al terminar la etapa de escritura.
+     */
+    public Result run(Iterator<Asesor> source, XlsxAsesorWriter writer) throws IOException {
+        Stopwatch total = Stopwatch.createStarted();
+
+        StageMetrics read = new StageMetrics("lectura");
+        StageMetrics validate = new StageMetrics("validacion");
+        StageMetrics stats = new StageMetrics("estadisticas");
+        StageMetrics write = new StageMetrics("escritura");
+
+        MeteredQueue readQueue = new MeteredQueue("lectura->validacion", queueCapacity);
+        MeteredQueue statsQueue = new MeteredQueue("validacion->estadisticas", queueCapacity);
+        MeteredQueue writeQueue = new MeteredQueue("validacion->escritura", queueCapacity);
+
+        Result result = new Result(total);
+        result.stages.addAll(List.of(read, validate, stats, write));
+        result.queues.addAll(List.of(readQueue, statsQueue, writeQueue));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4,
+                new ThreadFactoryBuilder().setNameFormat("asesor-pipeline-%d").setDaemon(true).build());
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+
+        List<Callable<Void>> tasks = List.of(
+            () -> {
+                read.start();
+                List<Asesor> batch = new ArrayList<>(batchSize);
+                long batchStart = System.nanoTime();
+                while (source.hasNext()) {
+                    batch.add(source.next());
+                    if (batch.size() >= batchSize) {
+                        read.processed(batch.size(), System.nanoTime() - batchStart);
+                        readQueue.put(batch, read);
+                        batch = new ArrayList<>(batchSize);
+                        batchStart = System.nanoTime();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    read.processed(batch.size(), System.nanoTime() - batchStart);
+                    readQueue.put(batch, read);
+                }
+                readQueue.put(END, read);
+                read.stop();
+                return null;
+            },
+            () -> {
+                validate.start();
+                for (List<Asesor> batch = readQueue.take(validate); batch != END; batch = readQueue.take(validate)) {
+                    long batchStart = System.nanoTime();
+                    List<Asesor> valid = validationStep.apply(batch);
+                    validate.processed(batch.size(), System.nanoTime() - batchStart);
+                    if (!valid.isEmpty()) {
+                        statsQueue.put(valid, validate);
+                        writeQueue.put(valid, validate);
+                    }
+                }
+                statsQueue.put(END, validate);
+                writeQueue.put(END, validate);
+                validate.stop();
+                return null;
+            },
+            () -> {
+                stats.start();
+                StatisticsService.Aggregator aggregator = statisticsService.newAggregator();
+                StatisticsService.SketchAggregator sketches = statisticsService.newSketchAggregator();
+                AsesorTable valid = retainValid ? new AsesorTable() : null;
+                for (List<Asesor> batch = statsQueue.take(stats); batch != END; batch = statsQueue.take(stats)) {
+                    long batchStart = System.nanoTime();
+                    aggregator.addAll(batch);
+                    sketches.addAll(batch);
+                    if (valid != null) {
+                        for (Asesor asesor : batch) {
+                            valid.add(asesor);
+                        }
+                    }
+                    stats.processed(batch.size(), System.nanoTime() - batchStart);
+                }
+                result.summary = aggregator.toSummary();
+                result.departmentStats = aggregator.toDepartmentStats();
+                result.sketches = sketches;
+                if (valid != null) {
+                    valid.trimToSize();
+                    result.validTable = valid;
+                }
+                stats.stop();
+                return null;
+            },
+            () -> {
+                write.start();
+                try (writer) {
+                    for (List<Asesor> batch = writeQueue.take(write); batch != END; batch = writeQueue.take(write)) {
+                        long batchStart = System.nanoTime();
+                        for (Asesor asesor : batch) {
+                            writer.write(asesor);
+                        }
+                        write.processed(batch.size(), System.nanoTime() - batchStart);
+                    }
+                }
+                write.stop();
+                return null;
+            });
+
+        try {
+            for (Callable<Void> task : tasks) {
+                completion.submit(task);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                completion.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Pipeline interrumpido", e);
+        } catch (ExecutionException e) {
+            // Una etapa falló: se cancelan las demás para no dejarlas bloqueadas en sus colas
+            executor.shutdownNow();
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Error en el pipeline: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        total.stop();
+        result.read = read.getRecords();
+        result.valid = write.getRecords();
+        result.publish(metrics);
+        return result;
+    }
+
+    /**
+     * Métricas de una etapa: tiempo total, tiempo bloqueado, registros procesados,
+     * latencia por lote, memoria reservada por el hilo de la etapa y GC
+     * ocurrido mientras la etapa estaba activa (el GC es global a la JVM, así
+     * que las etapas simultáneas lo comparten).
+     */
+    public static class StageMetrics {
+
+        private final String name;
+        private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+        private final LatencyHistogram batchLatency = new LatencyHistogram();
+        private long records;
+        private long batches;
+        private long putStallNanos;
+        private long takeStallNanos;
+        private long allocatedBytes = -1;
+        private long gcCount;
+        private long gcMillis;
+
+        StageMetrics(String name) {
+            this.name = name;
+        }
+
+        void start() {
+            allocatedBytes = Metrics.currentThreadAllocatedBytes();
+            gcCount = Metrics.totalGcCount();
+            gcMillis = Metrics.totalGcMillis();
+            stopwatch.start();
+        }
+
+        void stop() {
+            stopwatch.stop();
+            long allocatedAtStop = Metrics.currentThreadAllocatedBytes();
+            allocatedBytes = allocatedBytes < 0 || allocatedAtStop < 0 ? -1 : allocatedAtStop - allocatedBytes;
+            gcCount = Metrics.totalGcCount() - gcCount;
+            gcMillis = Metrics.totalGcMillis() - gcMillis;
+        }
+
+        void processed(int count, long nanos) {
+            records += count;
+            batches++;
+            batchLatency.recordValue(nanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getElapsedMillis() {
+            return stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        }
+
+        /* Tiempo bloqueado esperando hueco en la cola de salida (backpressure) */
+        public long getPutStallMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(putStallNanos);
+        }
+
+        /* Tiempo bloqueado esperando datos en la cola de entrada */
+        public long getTakeStallMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(takeStallNanos);
+        }
+
+        /* Tiempo de trabajo efectivo (total menos bloqueos) */
+        public long getBusyMillis() {
+            return Math.max(0, getElapsedMillis() - getPutStallMillis() - getTakeStallMillis());
+        }
+
+        /* Registros por segundo sobre el tiempo total de la etapa */
+        public double getThroughput() {
+            long nanos = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+            return nanos == 0 ? 0 : records * 1e9 / nanos;
+        }
+
+        /* Tiempo de trabajo por lote (sin esperas en las colas) */
+        public LatencyHistogram getBatchLatency() {
+            return batchLatency;
+        }
+
+        /* Bytes reservados por el hilo de la etapa, o -1 si la JVM no lo mide */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+    }
+
+    /* Cola acotada que registra profundidad y bloqueos */
+    public static class MeteredQueue {
+
+        private final String name;
+        private final int capacity;
+        private final BlockingQueue<List<Asesor>> queue;
+        private volatile int maxDepth;
+        private long depthSum;
+        private long depthSamples;
+
+        MeteredQueue(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void put(List<Asesor> batch, StageMetrics producer) throws InterruptedException {
+            if (!queue.offer(batch)) {
+                long start = System.nanoTime();
+                queue.put(batch);
+                producer.putStallNanos += System.nanoTime() - start;
+            }
+            // Solo escribe el productor: no hace falta sincronizar
+            int depth = queue.size();
+            if (depth > maxDepth) {
+                maxDepth = depth;
+            }
+            depthSum += depth;
+            depthSamples++;
+        }
+
+        List<Asesor> take(StageMetrics consumer) throws InterruptedException {
+            List<Asesor> batch = queue.poll();
+            if (batch == null) {
+                long start = System.nanoTime();
+                batch = queue.take();
+                consumer.takeStallNanos += System.nanoTime() - start;
+            }
+            return batch;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public double getAverageDepth() {
+            return depthSamples == 0 ? 0 : (double) depthSum / depthSamples;
+        }
+    }
+
+    /* Resultado de una ejecución del pipeline */
+    public static class Result {
+
+        private final Stopwatch total;
+        private final List<StageMetrics> stages = new ArrayList<>();
+        private final List<MeteredQueue> queues = new ArrayList<>();
+        private long read;
+        private long valid;
+        private StatisticsService.EmployeeSummary summary;
+        private Map<String, StatisticsService.DepartmentStats> departmentStats = new LinkedHashMap<>();
+        private StatisticsService.SketchAggregator sketches = new StatisticsService.SketchAggregator();
+        private AsesorTable validTable = new AsesorTable(0);
+
+        Result(Stopwatch total) {
+            this.total = total;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return read - valid;
+        }
+
+        public StatisticsService.EmployeeSummary getSummary() {
+            return summary;
+        }
+
+        public Map<String, StatisticsService.DepartmentStats> getDepartmentStats() {
+            return departmentStats;
+        }
+
+        /* Top-K y conteos aproximados de los asesores válidos */
+        public StatisticsService.SketchAggregator getSketches() {
+            return sketches;
+        }
+
+        /* Asesores válidos en orden; vacía si el pipeline se creó con retainValid = false */
+        public AsesorTable getValidTable() {
+            return validTable;
+        }
+
+        /* Vista perezosa de getValidTable(): cada get() decodifica un Asesor nuevo */
+        public List<Asesor> getValidAsesores() {
+            return validTable.asList();
+        }
+
+        public List<StageMetrics> getStages() {
+            return Collections.unmodifiableList(stages);
+        }
+
+        public StageMetrics getStage(String name) {
+            return stages.stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+        }
+
+        public List<MeteredQueue> getQueues() {
+            return Collections.unmodifiableList(queues);
+        }
+
+        public long getElapsedMillis() {
+            return total.elapsed(TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Publica las métricas de etapas y colas en el registro.
+         */
+        public void publish(Metrics metrics) {
+            metrics.gauge("asesorame_pipeline_seconds", "Duración total del pipeline")
+                    .set(total.elapsed(TimeUnit.NANOSECONDS) / 1e9);
+            for (StageMetrics stage : stages) {
+                String[] labels = {"stage", stage.getName()};
+                metrics.counter("asesorame_stage_records_total", "Registros procesados por etapa", labels)
+                        .add(stage.getRecords());
+                metrics.counter("asesorame_stage_batches_total", "Lotes procesados por etapa", labels)
+                        .add(stage.getBatches());
+                metrics.gauge("asesorame_stage_seconds", "Duración de la etapa", labels)
+                        .set(stage.stopwatch.elapsed(TimeUnit.NANOSECONDS) / 1e9);
+                metrics.gauge("asesorame_stage_busy_seconds", "Tiempo de trabajo de la etapa sin bloqueos", labels)
+                        .set(Math.max(0, stage.stopwatch.elapsed(TimeUnit.NANOSECONDS)
+                                - stage.takeStallNanos - stage.putStallNanos) / 1e9);
+                metrics.gauge("asesorame_stage_take_stall_seconds", "Tiempo esperando datos de entrada", labels)
+                        .set(stage.takeStallNanos / 1e9);
+                metrics.gauge("asesorame_stage_put_stall_seconds", "Tiempo bloqueado por backpressure", labels)
+                        .set(stage.putStallNanos / 1e9);
+                metrics.gauge("asesorame_stage_records_per_second", "Rendimiento de la etapa", labels)
+                        .set(stage.getThroughput());
+                metrics.gauge("asesorame_stage_allocated_bytes", "Memoria reservada por el hilo de la etapa", labels)
+                        .set(stage.getAllocatedBytes());
+                metrics.gauge("asesorame_stage_gc_collections", "Colecciones de GC durante la etapa", labels)
+                        .set(stage.getGcCount());
+                metrics.gauge("asesorame_stage_gc_seconds", "Tiempo de GC durante la etapa", labels)
+                        .set(stage.getGcMillis() / 1000.0);
+                metrics.histogram("asesorame_stage_batch_seconds", "Tiempo de trabajo por lote", labels)
+                        .record(stage.getBatchLatency());
+            }
+            for (MeteredQueue queue : queues) {
+                String[] labels = {"queue", queue.getName()};
+                metrics.gauge("asesorame_queue_capacity", "Capacidad de la cola en lotes", labels)
+                        .set(queue.getCapacity());
+                metrics.gauge("asesorame_queue_max_depth", "Profundidad máxima de la cola", labels)
+                        .set(queue.getMaxDepth());
+                metrics.gauge("asesorame_queue_avg_depth", "Profundidad media de la cola", labels)
+                        .set(queue.getAverageDepth());
+            }
+        }
+
+        /**
+         * Registra en el log las métricas de etapas y colas.
+         */
+        public void logMetrics() {
+            logger.info("Pipeline completado en {} ms ({} leídos, {} válidos)", getElapsedMillis(), read, valid);
+            for (StageMetrics stage : stages) {
+                logger.info("  Etapa {}: {} ms total, {} ms trabajo, {} ms esperando entrada, {} ms bloqueada por backpressure, {} registros en {} lotes",
+                        stage.getName(), stage.getElapsedMillis(), stage.getBusyMillis(),
+                        stage.getTakeStallMillis(), stage.getPutStallMillis(),
+                        stage.getRecords(), stage.getBatches());
+                logger.info("    {} registros/s, lote p50 {} µs / p99 {} µs, {} MB reservados, {} GC ({} ms)",
+                        String.format("%.0f", stage.getThroughput()),
+                        stage.getBatchLatency().getValueAtPercentile(50) / 1000,
+                        stage.getBatchLatency().getValueAtPercentile(99) / 1000,
+                        stage.getAllocatedBytes() < 0 ? "?" : stage.getAllocatedBytes() >> 20,
+                        stage.getGcCount(), stage.getGcMillis());
+            }
+            for (MeteredQueue queue : queues) {
+                logger.info("  Cola {}: profundidad máx {}/{}, media {}",
+                        queue.getName(), queue.getMaxDepth(), queue.getCapacity(),
+                        String.format("%.1f", queue.getAverageDepth()));
+            }
+        }
+    }
+}
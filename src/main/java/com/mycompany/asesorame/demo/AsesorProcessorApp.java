@@ -4,38 +4,104 @@
  */
 package com.mycompany.asesorame.demo;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Multimap;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Iterables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 
-public class AsesorProcessorApp {
+public class AsesorProcessorApp implements AutoCloseable {
     
 private static final Logger logger = LoggerFactory.getLogger(AsesorProcessorApp.class);
     
-    // Servicios
-    private final ExcelService excelService;
-    private final AsesorValidator validator;
-    private final StatisticsService statisticsService;
+    // Hilos usados para validar cada lote (1 = secuencial)
+    static final String VALIDATION_PARALLELISM_PROPERTY = "asesorame.validation.parallelism";
+    
+    // Snapshot binario de los asesores válidos, junto al archivo de entrada
+    static final String SNAPSHOT_EXTENSION = ".snap";
+    
+    // Hashes por fila de la última ejecución para el modo incremental (desactivable con false)
+    static final String STATE_EXTENSION = ".state";
+    static final String INCREMENTAL_PROPERTY = "asesorame.incremental";
+    
+    // Métricas de cada ejecución (texto de Prometheus, o JSON si la ruta termina en .json)
+    static final String METRICS_EXTENSION = ".metrics.prom";
+    static final String METRICS_FILE_PROPERTY = "asesorame.metrics.file";
+    
+    // Lista completa de asesores inválidos (TSV); el log solo muestra algunos
+    static final String ERRORS_EXTENSION = ".errors.tsv";
+    static final String ERRORS_FILE_PROPERTY = "asesorame.errors.file";
+    
+    // Hilos para comprimir los libros de salida (1 = un solo hilo)
+    static final String OUTPUT_THREADS_PROPERTY = "asesorame.output.threads";
+    
+    // false: el pipeline no conserva los asesores válidos, así que la memoria no depende
+    // del tamaño del archivo, pero se omiten snapshot, estado incremental, libros
+    // divididos, duplicados y filtros (todos necesitan el conjunto completo)
+    static final String RETAIN_VALID_PROPERTY = "asesorame.retain.valid";
+    
+    // Además del libro consolidado: "filas:K" (libros de K filas como mucho) o "especialidad" (uno por especialidad)
+    static final String OUTPUT_SPLIT_PROPERTY = "asesorame.output.split";
+    
+    // Servicios; salvo las métricas se crean al usarse por primera vez, así que
+    // una ejecución que no los necesita no carga sus clases (p. ej. el validador
+    // cuando el snapshot sigue vigente)
+    private final Supplier<ExcelService> excelService;
+    private final Supplier<AsesorValidator> validator;
+    // El validador ya creado, para cerrarlo en close(); null si no se llegó a usar
+    private volatile AsesorValidator createdValidator;
+    private final Supplier<StatisticsService> statisticsService;
+    private final Supplier<DuplicateDetector> duplicateDetector;
+    private final Metrics metrics;
+    // Aviso tras el primer lote validado de cada ejecución (medición del arranque)
+    private volatile Runnable firstBatchListener;
+    
+    // Grupos de duplicados que se detallan en el log
+    private static final int MAX_REPORTED_CLUSTERS = 5;
+    private static final int MAX_REPORTED_IDS = 10;
+    private static final int MAX_REPORTED_TOP = 5;
     
     public AsesorProcessorApp() {
-        this.excelService = new ExcelService();
-        this.validator = new AsesorValidator();
-        this.statisticsService = new StatisticsService();
+        this.metrics = new Metrics();
+        this.excelService = Suppliers.memoize(() -> new ExcelService(Integer.getInteger(OUTPUT_THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors())));
+        this.validator = Suppliers.memoize(() -> {
+            createdValidator = new AsesorValidator(Integer.getInteger(VALIDATION_PARALLELISM_PROPERTY,
+                    Runtime.getRuntime().availableProcessors()));
+            return createdValidator;
+        });
+        this.statisticsService = Suppliers.memoize(StatisticsService::new);
+        this.duplicateDetector = Suppliers.memoize(DuplicateDetector::new);
         
         logger.info("AsesorProcessorApp inicializada");
         logger.info("Timestamp: {}", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
     
 
-    public void processAsesorFile(String inputFilePath, String outputFilePath) {
+    /**
+     * Procesa un archivo de asesores completo. Los errores se registran en el
+     * log y se reflejan en el resultado en lugar de propagarse.
+     *
+     * La entrada también puede ser un directorio, un patrón glob o un libro con
+     * varias hojas: entonces cada archivo u hoja se lee y valida en paralelo
+     * (ver {@link MultiSourceIngestor}) y se escribe un único archivo de salida.
+     */
+    public ProcessingResult processAsesorFile(String inputFilePath, String outputFilePath) {
         
         // Usar Guava Stopwatch para medir tiempo de ejecución
         Stopwatch totalStopwatch = Stopwatch.createStarted();
@@ -43,75 +109,441 @@ private static final Logger logger = LoggerFactory.getLogger(AsesorProcessorApp.
         logger.info("=== INICIANDO PROCESAMIENTO DE ASESORES ===");
         logger.info("Archivo de entrada: {}", inputFilePath);
         logger.info("Archivo de salida: {}", outputFilePath);
+        boolean multiSource = MultiSourceIngestor.isMultiSource(inputFilePath);
+        logger.info("Formato de entrada: {}", multiSource ? "varios archivos"
+                : ExcelService.isDelimitedFile(inputFilePath) ? "CSV/TSV" : "XLSX");
         
+        ProcessingResult outcome = new ProcessingResult(inputFilePath, outputFilePath);
+        // Métricas solo de esta ejecución (archivo .metrics.prom); al terminar se suman a las de la instancia
+        Metrics runMetrics = new Metrics();
+        ValidationErrorReport errorReport = null;
         try {
             // VERIFICAR Y CREAR ARCHIVO DE ENTRADA SI NO EXISTE
-            if (!ensureInputFileExists(inputFilePath)) {
+            if (!multiSource && !ensureInputFileExists(inputFilePath)) {
                 logger.error("No se pudo crear o encontrar el archivo de entrada");
-                return;
+                outcome.error = "No se pudo crear o encontrar el archivo de entrada";
+                return outcome;
+            }
+
+            // Directorio, patrón o libro con varias hojas: un fragmento por archivo u hoja
+            List<MultiSourceIngestor.Shard> shards = multiSource || !ExcelService.isDelimitedFile(inputFilePath)
+                    ? MultiSourceIngestor.resolve(inputFilePath) : List.of();
+            if (multiSource || shards.size() > 1) {
+                if (shards.isEmpty()) {
+                    logger.error("No se encontraron archivos de asesores en {}", inputFilePath);
+                    outcome.error = "No se encontraron archivos de asesores en " + inputFilePath;
+                    return outcome;
+                }
+                if (!multiSource) {
+                    logger.warn("{} tiene {} hojas: se leen en paralelo y sin snapshot ni procesamiento incremental",
+                               inputFilePath, shards.size());
+                }
+                outcome.mode = "multi";
+                errorReport = openErrorReport(inputFilePath);
+                processMultiSource(shards, outputFilePath, errorReport, outcome, runMetrics);
+                return outcome.succeeded();
             }
             
-            // PASO 1: Leer asesores del Excel
-            logger.info("--- PASO 1: Leyendo asesores del archivo Excel ---");
-            Stopwatch readStopwatch = Stopwatch.createStarted();
-            
-            List<Asesor> asesores = excelService.readAsesoresFromExcel(inputFilePath);
-            
-            readStopwatch.stop();
-            logger.info("Lectura completada en {} ms. {} asesores leídos", 
-                       readStopwatch.elapsed(TimeUnit.MILLISECONDS), asesores.size());
-            
-            if (asesores.isEmpty()) {
+            // Sin conservar los válidos la memoria no depende del número de filas: snapshot e
+            // incremental construyen la tabla completa, así que no se usan aunque existan sus archivos
+            boolean retainValid = Boolean.parseBoolean(System.getProperty(RETAIN_VALID_PROPERTY, "true"));
+            String snapshotPath = snapshotPathFor(inputFilePath);
+            String statePath = statePathFor(inputFilePath);
+            if (!retainValid) {
+                logger.info("{}=false: se ignoran el snapshot y el estado incremental y se procesa el archivo completo",
+                           RETAIN_VALID_PROPERTY);
+            }
+
+            // Si el snapshot del último procesamiento sigue vigente se evita releer el XLSX
+            Optional<AsesorSnapshot> snapshot = retainValid
+                    ? excelService.get().openSnapshotIfCurrent(snapshotPath, inputFilePath) : Optional.empty();
+            if (snapshot.isPresent()) {
+                outcome.mode = "snapshot";
+                processFromSnapshot(snapshot.get(), inputFilePath, outputFilePath, outcome, runMetrics);
+                return outcome.succeeded();
+            }
+
+            // Si hay resultado anterior, solo se validan las filas nuevas o modificadas
+            errorReport = openErrorReport(inputFilePath);
+            if (retainValid && isIncrementalEnabled()
+                    && processIncrementally(inputFilePath, outputFilePath, snapshotPath, statePath, errorReport,
+                                            outcome, runMetrics)) {
+                outcome.mode = "incremental";
+                return outcome.succeeded();
+            }
+            outcome.mode = "pipeline";
+
+            // PASOS 1-4: lectura, validación, estadísticas y escritura como etapas concurrentes
+            logger.info("--- PASOS 1-4: Procesando asesores en pipeline ---");
+            IncrementalState.Builder stateBuilder = new IncrementalState.Builder(AsesorPipeline.DEFAULT_BATCH_SIZE);
+            UnaryOperator<List<Asesor>> validation = validationStep(errorReport, runMetrics);
+            // El estado incremental también crece con cada fila: solo se lleva si se va a guardar
+            UnaryOperator<List<Asesor>> step = retainValid ? batch -> stateBuilder.track(batch, validation) : validation;
+            AsesorPipeline pipeline = new AsesorPipeline(step, statisticsService.get(),
+                    AsesorPipeline.DEFAULT_BATCH_SIZE, AsesorPipeline.DEFAULT_QUEUE_CAPACITY, retainValid, runMetrics);
+
+            AsesorPipeline.Result result;
+            try (AsesorReader reader = excelService.get().openAsesorReader(inputFilePath)) {
+                result = pipeline.run(reader, excelService.get().openWriter(outputFilePath));
+            }
+
+            logger.info("Lectura completada en {} ms. {} asesores leídos",
+                       result.getStage("lectura").getElapsedMillis(), result.getRead());
+
+            outcome.read = result.getRead();
+            outcome.valid = result.getValid();
+            if (result.getRead() == 0) {
                 logger.warn("No se encontraron asesores en el archivo");
-                return;
+                Files.deleteIfExists(Paths.get(outputFilePath));
+                return outcome.succeeded();
             }
-            
-            // PASO 2: Validar y normalizar asesores
-            logger.info("--- PASO 2: Validando y normalizando asesores ---");
-            Stopwatch validationStopwatch = Stopwatch.createStarted();
-            
-            List<Asesor> validAsesores = validateAndNormalizeAsesores(asesores);
-            
-            validationStopwatch.stop();
-            logger.info("Validación completada en {} ms. {} asesores válidos de {} totales", 
-                       validationStopwatch.elapsed(TimeUnit.MILLISECONDS), 
-                       validAsesores.size(), asesores.size());
-            
-            // PASO 3: Generar estadísticas
-            logger.info("--- PASO 3: Generando estadísticas ---");
-            Stopwatch statsStopwatch = Stopwatch.createStarted();
-            
-            generateStatistics(validAsesores);
-            
-            statsStopwatch.stop();
-            logger.info("Estadísticas generadas en {} ms", 
-                       statsStopwatch.elapsed(TimeUnit.MILLISECONDS));
-            
-            // PASO 4: Escribir archivo de salida
-            logger.info("--- PASO 4: Escribiendo archivo de salida ---");
-            Stopwatch writeStopwatch = Stopwatch.createStarted();
-            
-            excelService.writeAsesoresToExcel(validAsesores, outputFilePath);
-            
-            writeStopwatch.stop();
-            logger.info("Escritura completada en {} ms", 
-                       writeStopwatch.elapsed(TimeUnit.MILLISECONDS));
-            
-            // PASO 5: Demostrar filtros avanzados
-            logger.info("--- PASO 5: Demostrando filtros avanzados ---");
-            demonstrateAdvancedFiltering(validAsesores);
-            
+
+            logger.info("Validación completada en {} ms. {} asesores válidos de {} totales",
+                       result.getStage("validacion").getElapsedMillis(),
+                       result.getValid(), result.getRead());
+            if (result.getInvalid() > 0) {
+                logger.warn("Se encontraron {} asesores con datos inválidos que fueron excluidos", result.getInvalid());
+            }
+            closeErrorReport(errorReport, runMetrics);
+            result.getSketches().addFailures(errorReport);
+
+            logger.info("Estadísticas generadas en {} ms",
+                       result.getStage("estadisticas").getElapsedMillis());
+            reportStatistics(result.getSummary(), result.getDepartmentStats());
+            reportSketches(result.getSketches());
+
+            logger.info("Escritura completada en {} ms",
+                       result.getStage("escritura").getElapsedMillis());
+            result.logMetrics();
+            if (!retainValid) {
+                logger.info("Asesores válidos no conservados ({}=false): se omiten snapshot, libros divididos, "
+                           + "duplicados y filtros", RETAIN_VALID_PROPERTY);
+                return outcome.succeeded();
+            }
+            // Los válidos se conservan en columnas; los Asesor se decodifican al pedirlos
+            AsesorTable validAsesores = result.getValidTable();
+            writeSplitOutputs(validAsesores.asList(), outputFilePath);
+
+            saveProcessingState(validAsesores, stateBuilder.build(), result.getRead(), errorReport, inputFilePath,
+                    snapshotPath, statePath);
+
+            // PASO 5: Detectar duplicados entre los asesores ya normalizados
+            outcome.duplicates = reportDuplicates(validAsesores.asList(), runMetrics);
+
+            // PASO 6: Demostrar filtros avanzados
+            logger.info("--- PASO 6: Demostrando filtros avanzados ---");
+            demonstrateAdvancedFiltering(validAsesores, result.getSummary());
+            outcome.succeeded();
+
         } catch (IOException e) {
             logger.error("Error de E/S durante el procesamiento: {}", e.getMessage(), e);
+            outcome.error = "Error de E/S: " + e.getMessage();
         } catch (Exception e) {
             logger.error("Error inesperado durante el procesamiento: {}", e.getMessage(), e);
+            outcome.error = "Error inesperado: " + e.getMessage();
         } finally {
             totalStopwatch.stop();
             logger.info("=== PROCESAMIENTO COMPLETADO EN {} ms ===", 
                        totalStopwatch.elapsed(TimeUnit.MILLISECONDS));
+            closeErrorReport(errorReport, runMetrics);
+            runMetrics.gauge("asesorame_run_seconds", "Duración total del procesamiento", "mode", outcome.mode)
+                    .set(totalStopwatch.elapsed(TimeUnit.NANOSECONDS) / 1e9);
+            writeMetrics(inputFilePath, runMetrics);
+            metrics.addAll(runMetrics);
+            outcome.elapsedMillis = totalStopwatch.elapsed(TimeUnit.MILLISECONDS);
         }
+        return outcome;
     }
     
+    /**
+     * Procesa a partir del snapshot de asesores ya validados: las estadísticas se
+     * calculan sobre las columnas mapeadas y las filas se decodifican al escribirlas.
+     * Las filas leídas y los inválidos por regla son los que anotó la ejecución
+     * que lo generó, así que el informe es el mismo que sin snapshot.
+     */
+    private void processFromSnapshot(AsesorSnapshot snapshot, String inputFilePath, String outputFilePath,
+                                     ProcessingResult outcome, Metrics runMetrics) throws IOException {
+        try (snapshot) {
+            logger.info("--- PASOS 1-2: Snapshot vigente {} ({} asesores válidos), se omiten lectura y validación ---",
+                       snapshot.getPath(), snapshot.size());
+            outcome.valid = snapshot.size();
+            if (snapshot.getSourceRows() >= 0) {
+                outcome.read = snapshot.getSourceRows();
+                if (outcome.getInvalid() > 0) {
+                    logger.warn("Se encontraron {} asesores con datos inválidos que fueron excluidos",
+                               outcome.getInvalid());
+                }
+                // El origen no cambió desde que se generó el informe de errores
+                Path errors = Paths.get(System.getProperty(ERRORS_FILE_PROPERTY,
+                        artifactPathFor(inputFilePath, ERRORS_EXTENSION)));
+                if (outcome.getInvalid() > 0 && Files.exists(errors)) {
+                    logger.info("Lista completa de errores (de la ejecución que generó el snapshot) en {}", errors);
+                }
+            } else {
+                logger.info("El snapshot no anota las filas leídas del origen: solo se conocen los válidos");
+                outcome.read = snapshot.size();
+            }
+
+            Stopwatch stepStopwatch = Stopwatch.createStarted();
+            StatisticsService.Aggregator aggregator = statisticsService.get().aggregate(snapshot);
+            StatisticsService.EmployeeSummary summary = aggregator.toSummary();
+            StatisticsService.SketchAggregator sketches = statisticsService.get().sketch(snapshot);
+            sketches.addFailures(snapshot);
+            logger.info("--- PASO 3: Estadísticas generadas en {} ms ---", stepStopwatch.elapsed(TimeUnit.MILLISECONDS));
+            reportStatistics(summary, aggregator.toDepartmentStats());
+            reportSketches(sketches);
+
+            stepStopwatch.reset().start();
+            excelService.get().writeAsesoresToExcel(snapshot.asList(), outputFilePath);
+            writeSplitOutputs(snapshot.asList(), outputFilePath);
+            logger.info("--- PASO 4: Escritura completada en {} ms ---", stepStopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+            outcome.duplicates = reportDuplicates(snapshot.asList(), runMetrics);
+
+            logger.info("--- PASO 6: Demostrando filtros avanzados ---");
+            demonstrateAdvancedFiltering(snapshot, summary);
+        }
+    }
+
+    /**
+     * Reprocesa comparando cada fila con el resultado anterior; devuelve false si
+     * no hay resultado anterior utilizable y hay que procesar el archivo completo.
+     */
+    private boolean processIncrementally(String inputFilePath, String outputFilePath, String snapshotPath,
+                                         String statePath, ValidationErrorReport errorReport,
+                                         ProcessingResult outcome, Metrics runMetrics) throws IOException {
+        if (!Files.exists(Paths.get(snapshotPath)) || !Files.exists(Paths.get(statePath))) {
+            return false;
+        }
+        IncrementalState previousState;
+        try {
+            previousState = IncrementalState.read(Paths.get(statePath));
+        } catch (IOException e) {
+            logger.warn("No se pudo leer el estado incremental {}: {}", statePath, e.getMessage());
+            return false;
+        }
+
+        IncrementalProcessor.Result result;
+        try (AsesorSnapshot previous = excelService.get().openSnapshot(snapshotPath)) {
+            if (previous.size() != previousState.getValidCount()) {
+                logger.warn("El snapshot {} no corresponde al estado {}; se procesa el archivo completo",
+                           snapshotPath, statePath);
+                return false;
+            }
+            logger.info("--- PASOS 1-3: Procesando solo los cambios respecto a la ejecución anterior ---");
+            IncrementalProcessor processor = new IncrementalProcessor(validationStep(errorReport, runMetrics),
+                    statisticsService.get(), AsesorPipeline.DEFAULT_BATCH_SIZE);
+            try (AsesorReader reader = excelService.get().openAsesorReader(inputFilePath)) {
+                result = processor.run(reader, previous, previousState);
+            }
+        }
+
+        logger.info("Cambios detectados: {} nuevos, {} modificados, {} eliminados ({} sin cambios, {} validados)",
+                   result.getInserted(), result.getUpdated(), result.getDeleted(),
+                   result.getUnchanged(), result.getValidated());
+        closeErrorReport(errorReport, runMetrics);
+        String help = "Filas por tipo de cambio en modo incremental";
+        runMetrics.counter("asesorame_incremental_rows_total", help, "change", "inserted").add(result.getInserted());
+        runMetrics.counter("asesorame_incremental_rows_total", help, "change", "updated").add(result.getUpdated());
+        runMetrics.counter("asesorame_incremental_rows_total", help, "change", "deleted").add(result.getDeleted());
+        runMetrics.counter("asesorame_incremental_rows_total", help, "change", "unchanged").add(result.getUnchanged());
+        AsesorTable table = result.getTable();
+        StatisticsService.EmployeeSummary summary = result.getAggregator().toSummary();
+        // Los sketches no admiten restas: se recalculan sobre la tabla resultante. Las
+        // inválidas se validan otra vez en cada ejecución, así que el informe las cuenta todas
+        StatisticsService.SketchAggregator sketches = statisticsService.get().sketch(table);
+        sketches.addFailures(errorReport);
+        reportStatistics(summary, result.getAggregator().toDepartmentStats());
+        reportSketches(sketches);
+
+        if (result.hasChanges()) {
+            writeIncrementalOutputs(table, outputFilePath);
+            saveProcessingState(table, result.getState(), result.getRead(), errorReport, inputFilePath, snapshotPath,
+                    statePath);
+        } else {
+            // Mismo contenido que la ejecución anterior: el estado y el snapshot no cambian,
+            // solo se asocia el snapshot a la versión actual para que la próxima vez se use
+            logger.info("--- PASO 4: Sin cambios respecto a la ejecución anterior: se conservan snapshot y estado ---");
+            try {
+                excelService.get().refreshSnapshotSource(snapshotPath, inputFilePath);
+            } catch (IOException e) {
+                logger.warn("No se pudo actualizar el snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+            if (Files.exists(Paths.get(outputFilePath))) {
+                logger.info("Se conserva la salida existente {}", outputFilePath);
+            } else {
+                writeIncrementalOutputs(table, outputFilePath);
+            }
+        }
+
+        outcome.read = result.getRead();
+        outcome.valid = table.size();
+        outcome.duplicates = reportDuplicates(table.asList(), runMetrics);
+
+        logger.info("--- PASO 6: Demostrando filtros avanzados ---");
+        demonstrateAdvancedFiltering(table, summary);
+        return true;
+    }
+
+    private void writeIncrementalOutputs(AsesorTable table, String outputFilePath) throws IOException {
+        Stopwatch stepStopwatch = Stopwatch.createStarted();
+        excelService.get().writeAsesoresToExcel(table.asList(), outputFilePath);
+        writeSplitOutputs(table.asList(), outputFilePath);
+        logger.info("--- PASO 4: Escritura completada en {} ms ---", stepStopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Lee y valida cada fragmento en paralelo y combina sus estadísticas. No
+     * usa snapshot ni modo incremental: ambos se asocian a un único archivo.
+     */
+    private void processMultiSource(List<MultiSourceIngestor.Shard> shards, String outputFilePath,
+                                    ValidationErrorReport errorReport, ProcessingResult outcome,
+                                    Metrics runMetrics) throws IOException {
+        logger.info("--- PASOS 1-3: Leyendo y validando {} fuentes en paralelo ---", shards.size());
+        MultiSourceIngestor ingestor = new MultiSourceIngestor(excelService.get(), statisticsService.get(),
+                validationStep(errorReport, runMetrics), validator.get().getParallelism(), AsesorPipeline.DEFAULT_BATCH_SIZE);
+        MultiSourceIngestor.Result result = ingestor.run(shards);
+
+        for (MultiSourceIngestor.ShardResult shard : result.getShards()) {
+            logger.info("  {}: {} asesores leídos, {} válidos en {} ms", shard.getShard().getName(),
+                       shard.getRead(), shard.getValid(), shard.getElapsedMillis());
+        }
+        MultiSourceIngestor.ShardResult slowest = result.getSlowest();
+        logger.info("{} fuentes procesadas en {} ms (la más lenta, {}, en {} ms). {} asesores válidos de {} totales",
+                   shards.size(), result.getElapsedMillis(), slowest.getShard().getName(),
+                   slowest.getElapsedMillis(), result.getValid(), result.getRead());
+        if (result.getInvalid() > 0) {
+            logger.warn("Se encontraron {} asesores con datos inválidos que fueron excluidos", result.getInvalid());
+        }
+        closeErrorReport(errorReport, runMetrics);
+        result.getSketches().addFailures(errorReport);
+        result.publish(runMetrics);
+
+        outcome.read = result.getRead();
+        outcome.valid = result.getValid();
+        if (result.getRead() == 0) {
+            logger.warn("No se encontraron asesores en las fuentes");
+            return;
+        }
+
+        StatisticsService.EmployeeSummary summary = result.getAggregator().toSummary();
+        reportStatistics(summary, result.getAggregator().toDepartmentStats());
+        reportSketches(result.getSketches());
+
+        Stopwatch stepStopwatch = Stopwatch.createStarted();
+        // Se recorren los válidos de cada fuente en orden, sin juntarlos en otra lista
+        excelService.get().writeAsesoresToExcel(result.getValidAsesores().iterator(), outputFilePath);
+        writeSplitOutputs(result.getValidAsesores(), outputFilePath);
+        logger.info("--- PASO 4: Escritura completada en {} ms ---", stepStopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+        // Los duplicados se buscan entre todas las fuentes a la vez
+        outcome.duplicates = reportDuplicates(result.getValidAsesores(), runMetrics);
+
+        logger.info("--- PASO 6: Demostrando filtros avanzados ---");
+        demonstrateAdvancedFiltering(result.getValidAsesores(), summary);
+    }
+
+    /**
+     * Escribe los libros divididos pedidos con {@value #OUTPUT_SPLIT_PROPERTY},
+     * junto al libro consolidado. Sin la propiedad no hace nada.
+     */
+    private void writeSplitOutputs(List<Asesor> asesores, String outputFilePath) throws IOException {
+        String split = System.getProperty(OUTPUT_SPLIT_PROPERTY, "").trim();
+        if (split.isEmpty() || asesores.isEmpty()) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Path> files;
+        if (split.equalsIgnoreCase("especialidad")) {
+            files = excelService.get().writeAsesoresByEspecialidad(asesores, outputFilePath);
+        } else if (split.regionMatches(true, 0, "filas:", 0, 6)) {
+            int maxRows;
+            try {
+                maxRows = Integer.parseInt(split.substring(6).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + OUTPUT_SPLIT_PROPERTY + ": " + split);
+            }
+            files = excelService.get().writeAsesoresSplit(asesores, outputFilePath, maxRows);
+        } else {
+            throw new IllegalArgumentException("Valor inválido para " + OUTPUT_SPLIT_PROPERTY + ": " + split
+                    + " (se espera \"filas:K\" o \"especialidad\")");
+        }
+        logger.info("{} libros divididos ({}) escritos en {} ms", files.size(), split,
+                   stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Guarda el snapshot de válidos y el estado incremental para la próxima ejecución.
+     * Es solo una optimización: si falla, el procesamiento sigue siendo válido.
+     */
+    private void saveProcessingState(AsesorTable validAsesores, IncrementalState state, long read,
+                                     ValidationErrorReport errorReport, String inputFilePath,
+                                     String snapshotPath, String statePath) {
+        try {
+            state.write(Paths.get(statePath));
+            excelService.get().exportSnapshot(validAsesores, snapshotPath, inputFilePath, read,
+                    errorReport.countsByRule());
+        } catch (IOException e) {
+            logger.warn("No se pudo guardar el estado del procesamiento en {}: {}", snapshotPath, e.getMessage());
+            // Un snapshot y un estado de ejecuciones distintas no deben combinarse
+            try {
+                Files.deleteIfExists(Paths.get(statePath));
+                Files.deleteIfExists(Paths.get(snapshotPath));
+            } catch (IOException ignored) {
+                logger.debug("No se pudo limpiar el estado anterior", ignored);
+            }
+        }
+    }
+
+    /**
+     * Guarda las métricas de la ejecución; un fallo no afecta al procesamiento.
+     */
+    private void writeMetrics(String inputFilePath, Metrics runMetrics) {
+        String metricsPath = System.getProperty(METRICS_FILE_PROPERTY, artifactPathFor(inputFilePath, METRICS_EXTENSION));
+        try {
+            runMetrics.recordJvm();
+            runMetrics.write(Paths.get(metricsPath));
+        } catch (IOException e) {
+            logger.warn("No se pudieron guardar las métricas en {}: {}", metricsPath, e.getMessage());
+        }
+    }
+
+    private static boolean isIncrementalEnabled() {
+        return Boolean.parseBoolean(System.getProperty(INCREMENTAL_PROPERTY, "true"));
+    }
+
+    /**
+     * Ruta del estado incremental asociado a un archivo de entrada
+     */
+    static String statePathFor(String inputFilePath) {
+        return withExtension(inputFilePath, STATE_EXTENSION);
+    }
+
+    /**
+     * Ruta del snapshot asociado a un archivo de entrada (misma ruta, extensión .snap)
+     */
+    static String snapshotPathFor(String inputFilePath) {
+        return withExtension(inputFilePath, SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Ruta de un archivo auxiliar (errores, métricas): junto al archivo de
+     * entrada, o junto al directorio si la entrada es un directorio o patrón.
+     */
+    static String artifactPathFor(String inputFilePath, String extension) {
+        if (MultiSourceIngestor.isMultiSource(inputFilePath)) {
+            return MultiSourceIngestor.artifactBaseFor(inputFilePath) + extension;
+        }
+        return withExtension(inputFilePath, extension);
+    }
+
+    private static String withExtension(String filePath, String extension) {
+        int dot = filePath.lastIndexOf('.');
+        int slash = Math.max(filePath.lastIndexOf('/'), filePath.lastIndexOf(File.separatorChar));
+        String base = dot > slash ? filePath.substring(0, dot) : filePath;
+        return base + extension;
+    }
+
     /**
      * NUEVO MÉTODO: Asegura que el archivo de entrada existe
      */
@@ -150,53 +582,84 @@ private static final Logger logger = LoggerFactory.getLogger(AsesorProcessorApp.
     }
     
     /**
-     * Valida y normaliza la lista de asesores
+     * Paso de validación de un lote: normaliza, valida y devuelve solo los
+     * válidos, en orden. Los inválidos van al informe de errores, que limita lo
+     * que llega al log.
      */
-    private List<Asesor> validateAndNormalizeAsesores(List<Asesor> asesores) {
-        logger.debug("Iniciando validación de {} asesores", asesores.size());
-        
-        List<Asesor> validAsesores = asesores.stream()
-            .peek(validator::normalizeAsesor) // Normalizar datos
-            .filter(asesor -> {
-                List<String> errors = validator.validate(asesor);
-                if (errors.isEmpty()) {
-                    return true;
-                } else {
-                    logger.warn("Asesor {} inválido. Errores: {}", 
-                               asesor.getId(), String.join(", ", errors));
-                    return false;
-                }
-            })
-            .collect(Collectors.toList());
-        
-        int validCount = validAsesores.size();
-        int invalidCount = asesores.size() - validCount;
-        
-        logger.info("Validación completada: {} válidos, {} inválidos", validCount, invalidCount);
-        
-        if (invalidCount > 0) {
-            logger.warn("Se encontraron {} asesores con datos inválidos que fueron excluidos", invalidCount);
+    private UnaryOperator<List<Asesor>> validationStep(ValidationErrorReport errorReport, Metrics runMetrics) {
+        // El validador compartido se sigue creando solo al validar el primer lote
+        Supplier<AsesorValidator> runValidator = Suppliers.memoize(() -> validator.get().withMetrics(runMetrics));
+        Runnable listener = firstBatchListener;
+        AtomicBoolean notified = new AtomicBoolean();
+        return asesores -> {
+            AsesorValidator.BatchResult result = runValidator.get().normalizeAndValidate(asesores);
+            errorReport.record(result.getInvalid());
+            if (listener != null && notified.compareAndSet(false, true)) {
+                listener.run();
+            }
+            return result.getValid();
+        };
+    }
+
+    /**
+     * Libera los hilos de validación en paralelo. Se llama al terminar con la
+     * aplicación, cuando ya no quedan ejecuciones en curso.
+     */
+    @Override
+    public void close() {
+        AsesorValidator current = createdValidator;
+        if (current != null) {
+            current.close();
         }
-        
-        return validAsesores;
+    }
+
+    /* Se ejecuta en el hilo de validación al terminar el primer lote de cada ejecución */
+    void setFirstBatchListener(Runnable listener) {
+        this.firstBatchListener = listener;
+    }
+
+    /**
+     * Abre el informe de errores de validación; si el archivo no se puede crear
+     * el informe queda solo en memoria.
+     */
+    private ValidationErrorReport openErrorReport(String inputFilePath) {
+        String errorsPath = System.getProperty(ERRORS_FILE_PROPERTY, artifactPathFor(inputFilePath, ERRORS_EXTENSION));
+        try {
+            return ValidationErrorReport.open(Paths.get(errorsPath));
+        } catch (IOException e) {
+            logger.warn("No se pudo crear el informe de errores {}: {}", errorsPath, e.getMessage());
+            return ValidationErrorReport.inMemory();
+        }
+    }
+
+    /**
+     * Cierra el informe (termina de escribir el archivo) y resume los errores
+     * en el log; cerrarlo de nuevo no tiene efecto.
+     */
+    private void closeErrorReport(ValidationErrorReport errorReport, Metrics runMetrics) {
+        if (errorReport == null || errorReport.isClosed()) {
+            return;
+        }
+        try {
+            errorReport.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo completar el informe de errores {}: {}", errorReport.getErrorFile(), e.getMessage());
+        }
+        errorReport.logSummary();
+        runMetrics.counter("asesorame_error_report_rows_total", "Filas escritas en el informe de errores")
+                .add(errorReport.getWrittenCount());
     }
     
     /**
-     * Genera y muestra estadísticas detalladas
+     * Muestra las estadísticas calculadas por el pipeline
      */
-    private void generateStatistics(List<Asesor> asesores) {
-        logger.debug("Generando estadísticas para {} asesores", asesores.size());
-        
-        // Resumen general
-        StatisticsService.EmployeeSummary summary = statisticsService.createSummary(asesores);
+    private void reportStatistics(StatisticsService.EmployeeSummary summary,
+                                  Map<String, StatisticsService.DepartmentStats> deptStats) {
         logger.info("RESUMEN GENERAL:");
         logger.info("  Total asesores: {}", summary.getTotalAsesores());
         logger.info("  Especialidades: {}", summary.getEspecialidades());
 
         // Estadísticas por departamento
-        Map<String, StatisticsService.DepartmentStats> deptStats = 
-            statisticsService.calculateDepartmentStatistics(asesores);
-
         logger.info("ESTADÍSTICAS POR DEPARTAMENTO:");
         deptStats.forEach((dept, stats) -> {
             logger.info("  {} ({} asesores):", dept, stats.getAsesorCount());
@@ -205,23 +668,172 @@ private static final Logger logger = LoggerFactory.getLogger(AsesorProcessorApp.
         });
     }
     
+    /* Top-K y conteos de distintos, aproximados si la lista superó el umbral exacto */
+    private void reportSketches(StatisticsService.SketchAggregator sketches) {
+        String mode = sketches.isExact() ? "exacto" : "aproximado";
+        logger.info("ANÁLISIS RÁPIDO ({}):", mode);
+        logger.info("  Top especialidades: {}", sketches.topEspecialidades(MAX_REPORTED_TOP));
+        logger.info("  Top ubicaciones: {}", sketches.topUbicaciones(MAX_REPORTED_TOP));
+        logger.info("  Emails distintos: {}, teléfonos distintos: {}",
+                   sketches.countDistinctEmails(), sketches.countDistinctTelefonos());
+        if (!sketches.getFailuresByRule().isEmpty()) {
+            logger.info("  Inválidos por regla: {}", sketches.getFailuresByRule());
+        }
+    }
+    
+    /**
+     * Detecta asesores repetidos (mismo email o teléfono, o nombre muy parecido)
+     * y muestra los grupos más grandes
+     */
+    private long reportDuplicates(List<Asesor> asesores, Metrics runMetrics) {
+        logger.info("--- PASO 5: Detectando duplicados ---");
+        DuplicateDetector.Result duplicates = duplicateDetector.get().detect(asesores);
+        runMetrics.gauge("asesorame_duplicate_seconds", "Duración de la detección de duplicados")
+                .set(duplicates.getElapsedMillis() / 1000.0);
+        runMetrics.gauge("asesorame_duplicate_records", "Asesores repetidos detectados")
+                .set(duplicates.getDuplicateCount());
+        if (duplicates.getClusters().isEmpty()) {
+            logger.info("No se encontraron duplicados ({} ms)", duplicates.getElapsedMillis());
+            return 0;
+        }
+        logger.warn("Se encontraron {} grupos de duplicados ({} asesores repetidos) en {} ms",
+                   duplicates.getClusters().size(), duplicates.getDuplicateCount(), duplicates.getElapsedMillis());
+        logger.info("  Grupos por email: {}, por teléfono: {}, por nombre similar: {}",
+                   duplicates.countByReason(DuplicateDetector.Reason.EMAIL),
+                   duplicates.countByReason(DuplicateDetector.Reason.TELEFONO),
+                   duplicates.countByReason(DuplicateDetector.Reason.NOMBRE_SIMILAR));
+        for (DuplicateDetector.Cluster cluster : Iterables.limit(duplicates.getClusters(), MAX_REPORTED_CLUSTERS)) {
+            List<Long> ids = new ArrayList<>();
+            for (int row : Arrays.copyOf(cluster.getRows(), Math.min(cluster.size(), MAX_REPORTED_IDS))) {
+                ids.add(asesores.get(row).getId());
+            }
+            logger.info("  Grupo de {} asesores {}: ids {}{}", cluster.size(), cluster.getReasons(), ids,
+                       cluster.size() > MAX_REPORTED_IDS ? "..." : "");
+        }
+        return duplicates.getDuplicateCount();
+    }
+
     /**
      * Demuestra el uso de filtros avanzados con Guava
      */
-    private void demonstrateAdvancedFiltering(List<Asesor> asesores) {
+    private void demonstrateAdvancedFiltering(List<Asesor> asesores, StatisticsService.EmployeeSummary summary) {
+        // Dos filtros no amortizan construir un índice: el segundo recorre solo el resultado del primero
+        List<Asesor> itAsesores = statisticsService.get().filterAsesores(asesores, "Tecnología", null);
+        List<Asesor> itLima = statisticsService.get().filterAsesores(itAsesores, null, "Lima");
+        logFilterResults(itAsesores.size(), itLima.size(), summary);
+    }
+
+    /**
+     * Igual sobre asesores en columnas: se comparan códigos de diccionario sin
+     * materializar ningún Asesor.
+     */
+    private void demonstrateAdvancedFiltering(AsesorColumns asesores, StatisticsService.EmployeeSummary summary) {
+        logFilterResults(statisticsService.get().countAsesores(asesores, "Tecnología", null),
+                statisticsService.get().countAsesores(asesores, "Tecnología", "Lima"), summary);
+    }
+
+    private void logFilterResults(int tecnologia, int tecnologiaLima, StatisticsService.EmployeeSummary summary) {
         logger.info("Demostrando filtros avanzados:");
         
         // Filtro 1: Asesores de un departamento específico
-        List<Asesor> itAsesores = statisticsService.filterAsesores(asesores, "Tecnología", null);
-        logger.info("  Asesores del departamento Tecnología: {}", itAsesores.size());
+        logger.info("  Asesores del departamento Tecnología: {}", tecnologia);
+        
+        // Filtro 2: Combinación de especialidad y ubicación
+        logger.info("  Asesores de Tecnología en Lima: {}", tecnologiaLima);
         
-        // Agrupamiento avanzado
-        Multimap<String, Asesor> groupedByDept = statisticsService.groupByEspecialidad(asesores);
-        logger.info("  Agrupamiento por especialidad completado: {} grupos", groupedByDept.keySet().size());
+        // Agrupamiento por especialidad: los grupos ya los conoce el agregador del pipeline
+        logger.info("  Agrupamiento por especialidad completado: {} grupos", summary.getEspecialidades().size());
     }
     
+    /* Registro de métricas acumulado de todas las ejecuciones de esta instancia */
+    Metrics getMetrics() {
+        return metrics;
+    }
+
+    /* Resultado de procesar un archivo */
+    public static class ProcessingResult {
+
+        private final String inputFile;
+        private final String outputFile;
+        private String mode = "ninguno";
+        private long read;
+        private long valid;
+        private long duplicates;
+        private long elapsedMillis;
+        private String error;
+        private boolean success;
+
+        ProcessingResult(String inputFile, String outputFile) {
+            this.inputFile = inputFile;
+            this.outputFile = outputFile;
+        }
+
+        ProcessingResult succeeded() {
+            success = error == null;
+            return this;
+        }
+
+        public String getInputFile() {
+            return inputFile;
+        }
+
+        public String getOutputFile() {
+            return outputFile;
+        }
+
+        /* pipeline, incremental, snapshot o multi (varios archivos u hojas) */
+        public String getMode() {
+            return mode;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /* Filas leídas; 0 si se reutilizó el snapshot sin leer el archivo */
+        public long getRead() {
+            return read;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return Math.max(0, read - valid);
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /* Descripción del error, o null si terminó bien */
+        public String getError() {
+            return error;
+        }
+
+        public String toJson() {
+            return "{\"input\": " + Metrics.jsonString(inputFile)
+                    + ", \"output\": " + Metrics.jsonString(outputFile)
+                    + ", \"success\": " + success
+                    + ", \"mode\": " + Metrics.jsonString(mode)
+                    + ", \"read\": " + read
+                    + ", \"valid\": " + valid
+                    + ", \"invalid\": " + getInvalid()
+                    + ", \"duplicates\": " + duplicates
+                    + ", \"elapsedMillis\": " + elapsedMillis
+                    + ", \"error\": " + (error == null ? "null" : Metrics.jsonString(error)) + "}";
+        }
+    }
+
     /**
-     * Método main CORREGIDO
+     * Método main CORREGIDO. Con {@code --service} la aplicación queda residente
+     * procesando los archivos que llegan a la bandeja de entrada o por HTTP
+     * (ver {@link AsesorBatchService}).
      */
     public static void main(String[] args) {
         System.out.println("╔════════════════════════════════════╗");
@@ -233,11 +845,15 @@ private static final Logger logger = LoggerFactory.getLogger(AsesorProcessorApp.
         logger.info("User: {}", System.getProperty("user.name"));
         logger.info("Working Directory: {}", System.getProperty("user.dir"));
         
-        try {
-            AsesorProcessorApp app = new AsesorProcessorApp();
+        try (AsesorProcessorApp app = new AsesorProcessorApp()) {
+            if (args.length > 0 && args[0].equals("--service")) {
+                AsesorBatchService.fromSystemProperties(app).runUntilShutdown();
+                return;
+            }
             
-            // Archivos con nombres más simples
-            String inputFile = "data/asesores_input.xlsx";
+            // Archivos con nombres más simples; la entrada puede ser .xlsx, .csv o .tsv,
+            // un directorio o un patrón entre comillas ("data/regiones/*.xlsx")
+            String inputFile = args.length > 0 ? args[0] : "data/asesores_input.xlsx";
             String outputFile = "data/asesores_processed_" + 
                               LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + 
                               ".xlsx";
@@ -0,0 +1,26 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Lector fila a fila de asesores desde un archivo (XLSX, CSV o TSV).
+ * Se debe cerrar al terminar.
+ */
+public interface AsesorReader extends Iterator<Asesor>, Closeable {
+
+    long getRowsRead();
+
+    /**
+     * Siguiente fila como registro inmutable, construido con el builder que
+     * el llamador reutiliza para todas las filas. Los lectores lo rellenan
+     * directamente con las celdas leídas, sin crear un {@link Asesor} por fila.
+     */
+    default AsesorRecord nextRecord(AsesorRecord.Builder builder) {
+        return builder.from(next()).build();
+    }
+}
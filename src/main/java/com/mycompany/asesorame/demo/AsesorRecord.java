@@ -0,0 +1,158 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Objects;
+
+/**
+ * Versión inmutable de {@link Asesor}. Se puede compartir entre hilos sin
+ * bloqueos ni copias defensivas; normalizar devuelve un registro nuevo (ver
+ * {@link AsesorValidator#normalize(AsesorRecord)}).
+ *
+ * Especialidad y ubicación tienen pocos valores distintos: el constructor los
+ * interna, así que todos los registros con el mismo valor comparten la misma
+ * instancia. {@code equals}, {@code hashCode} y {@code toString} dan lo mismo
+ * que en {@link Asesor} con los mismos campos.
+ */
+public record AsesorRecord(Long id, String nombre, String apellido, String email, String telefono,
+                           String especialidad, String ubicacion) {
+
+    // Compartido por todos los hilos (y por TextNormalizer); las referencias débiles liberan los valores que dejan de usarse
+    static final Interner<String> FLYWEIGHTS = Interners.newWeakInterner();
+
+    public AsesorRecord {
+        especialidad = flyweight(especialidad);
+        ubicacion = flyweight(ubicacion);
+    }
+
+    static String flyweight(String value) {
+        return value == null ? null : FLYWEIGHTS.intern(value);
+    }
+
+    public static AsesorRecord from(Asesor asesor) {
+        return new AsesorRecord(asesor.getId(), asesor.getNombre(), asesor.getApellido(), asesor.getEmail(),
+                asesor.getTelefono(), asesor.getEspecialidad(), asesor.getUbicacion());
+    }
+
+    /**
+     * Copia mutable, para el código que todavía trabaja con {@link Asesor}.
+     */
+    public Asesor toAsesor() {
+        return new Asesor(id, nombre, apellido, email, telefono, especialidad, ubicacion);
+    }
+
+    public String getFullName() {
+        return Asesor.fullName(nombre, apellido);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /* Nombre, apellido, email y especialidad sustituidos; devuelve este mismo registro si no cambia ninguno */
+    AsesorRecord withNormalized(String nombre, String apellido, String email, String especialidad) {
+        if (Objects.equals(nombre, this.nombre) && Objects.equals(apellido, this.apellido)
+                && Objects.equals(email, this.email) && Objects.equals(especialidad, this.especialidad)) {
+            return this;
+        }
+        return new AsesorRecord(id, nombre, apellido, email, telefono, especialidad, ubicacion);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        h = 31 * h + (id == null ? 0 : id.hashCode());
+        h = 31 * h + (nombre == null ? 0 : nombre.hashCode());
+        h = 31 * h + (apellido == null ? 0 : apellido.hashCode());
+        h = 31 * h + (email == null ? 0 : email.hashCode());
+        h = 31 * h + (telefono == null ? 0 : telefono.hashCode());
+        h = 31 * h + (especialidad == null ? 0 : especialidad.hashCode());
+        h = 31 * h + (ubicacion == null ? 0 : ubicacion.hashCode());
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Asesor.toJson(id, getFullName(), email, telefono, especialidad, ubicacion);
+    }
+
+    /**
+     * Constructor reutilizable para la lectura: se rellena fila a fila y
+     * {@link #build()} lo deja vacío para la siguiente, sin crear un builder por fila.
+     * No es thread-safe.
+     */
+    public static final class Builder {
+
+        private Long id;
+        private String nombre;
+        private String apellido;
+        private String email;
+        private String telefono;
+        private String especialidad;
+        private String ubicacion;
+
+        public Builder id(Long id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder nombre(String nombre) {
+            this.nombre = nombre;
+            return this;
+        }
+
+        public Builder apellido(String apellido) {
+            this.apellido = apellido;
+            return this;
+        }
+
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+
+        public Builder telefono(String telefono) {
+            this.telefono = telefono;
+            return this;
+        }
+
+        public Builder especialidad(String especialidad) {
+            this.especialidad = especialidad;
+            return this;
+        }
+
+        public Builder ubicacion(String ubicacion) {
+            this.ubicacion = ubicacion;
+            return this;
+        }
+
+        /* Copia los campos de un asesor mutable */
+        public Builder from(Asesor asesor) {
+            return id(asesor.getId()).nombre(asesor.getNombre()).apellido(asesor.getApellido())
+                    .email(asesor.getEmail()).telefono(asesor.getTelefono())
+                    .especialidad(asesor.getEspecialidad()).ubicacion(asesor.getUbicacion());
+        }
+
+        public AsesorRecord build() {
+            AsesorRecord record = new AsesorRecord(id, nombre, apellido, email, telefono, especialidad, ubicacion);
+            reset();
+            return record;
+        }
+
+        public Builder reset() {
+            id = null;
+            nombre = null;
+            apellido = null;
+            email = null;
+            telefono = null;
+            especialidad = null;
+            ubicacion = null;
+            return this;
+        }
+    }
+}
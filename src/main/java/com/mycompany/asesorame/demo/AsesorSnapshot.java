@@ -0,0 +1,503 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Snapshot binario de un conjunto de asesores, pensado para recargarse sin
+ * volver a descomprimir ni parsear el XLSX.
+ *
+ * Formato (little-endian, secciones alineadas a 8 bytes):
+ * <pre>
+ *   cabecera   magic "ASNP", versión, nº de secciones, nº de filas,
+ *              huella del archivo origen (tamaño y fecha de modificación)
+ *   índice     (offset, longitud) de cada sección
+ *   secciones  ids long[], bitmap de ids nulos, códigos int[] de especialidad
+ *              y ubicación, sus dos diccionarios, para nombre, apellido,
+ *              email y teléfono un int[] de offsets finales más los bytes UTF-8,
+ *              y las filas leídas del origen con los inválidos por regla
+ * </pre>
+ * Los offsets usan la misma codificación que {@link PackedStrings} (negativo = null).
+ *
+ * Al abrir, cada sección se mapea con {@link FileChannel#map}; solo los
+ * diccionarios se copian al heap. Las filas se decodifican al pedirlas.
+ * La memoria mapeada la libera el GC cuando deja de haber referencias al snapshot.
+ */
+public final class AsesorSnapshot implements AsesorColumns, Closeable {
+
+    static final int MAGIC = 0x504E5341; // "ASNP" en little-endian
+    static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    // Orden de las secciones en el índice
+    private static final int IDS = 0;
+    private static final int NULL_IDS = 1;
+    private static final int ESPECIALIDADES = 2;
+    private static final int UBICACIONES = 3;
+    private static final int DICT_ESPECIALIDAD = 4;
+    private static final int DICT_UBICACION = 5;
+    private static final int STRINGS = 6; // 4 columnas x (ends, data)
+    private static final int SOURCE_STATS = STRINGS + 8;
+    private static final int SECTION_COUNT = SOURCE_STATS + 1;
+
+    private final Path path;
+    private final int size;
+    private final long sourceLength;
+    private final long sourceModified;
+    // Filas leídas del origen (-1 si no se conocen) e inválidos por ordinal de ValidationRule
+    private final long sourceRows;
+    private final long[] failuresByRule;
+    private final LongBuffer ids;
+    private final LongBuffer nullIds;
+    private final IntBuffer especialidades;
+    private final IntBuffer ubicaciones;
+    private final StringDictionary especialidadDictionary;
+    private final StringDictionary ubicacionDictionary;
+    private final MappedColumn nombres;
+    private final MappedColumn apellidos;
+    private final MappedColumn emails;
+    private final MappedColumn telefonos;
+    private volatile boolean closed;
+
+    private AsesorSnapshot(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            throw new IOException("Snapshot truncado: " + path);
+        }
+        ByteBuffer header = read(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("El archivo no es un snapshot de asesores: " + path);
+        }
+        int version = header.getShort();
+        int sections = header.getShort();
+        if (version != VERSION || sections != SECTION_COUNT) {
+            throw new IOException("Versión de snapshot no soportada (" + version + ") en " + path);
+        }
+        this.size = header.getInt();
+        header.getInt(); // reservado
+        this.sourceLength = header.getLong();
+        this.sourceModified = header.getLong();
+
+        ByteBuffer index = read(channel, HEADER_BYTES, SECTION_COUNT * 2 * Long.BYTES);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[SECTION_COUNT];
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            long offset = index.getLong();
+            long length = index.getLong();
+            if (offset < 0 || length < 0 || offset + length > fileSize || length > Integer.MAX_VALUE) {
+                throw new IOException("Índice de secciones corrupto en " + path);
+            }
+            mapped[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            mapped[s].order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        this.ids = mapped[IDS].asLongBuffer();
+        this.nullIds = mapped[NULL_IDS].asLongBuffer();
+        this.especialidades = mapped[ESPECIALIDADES].asIntBuffer();
+        this.ubicaciones = mapped[UBICACIONES].asIntBuffer();
+        if (ids.capacity() != size || especialidades.capacity() != size || ubicaciones.capacity() != size) {
+            throw new IOException("Columnas con longitud inconsistente en " + path);
+        }
+        this.especialidadDictionary = readDictionary(mapped[DICT_ESPECIALIDAD]);
+        this.ubicacionDictionary = readDictionary(mapped[DICT_UBICACION]);
+        this.nombres = new MappedColumn(mapped[STRINGS], mapped[STRINGS + 1]);
+        this.apellidos = new MappedColumn(mapped[STRINGS + 2], mapped[STRINGS + 3]);
+        this.emails = new MappedColumn(mapped[STRINGS + 4], mapped[STRINGS + 5]);
+        this.telefonos = new MappedColumn(mapped[STRINGS + 6], mapped[STRINGS + 7]);
+        LongBuffer stats = mapped[SOURCE_STATS].asLongBuffer();
+        if (stats.capacity() < 2 || stats.capacity() != 2 + stats.get(1)) {
+            throw new IOException("Sección de origen corrupta en " + path);
+        }
+        this.sourceRows = stats.get(0);
+        this.failuresByRule = new long[ValidationRule.all().length];
+        for (int rule = 0; rule < Math.min(failuresByRule.length, stats.get(1)); rule++) {
+            failuresByRule[rule] = stats.get(2 + rule);
+        }
+    }
+
+    /**
+     * Mapea el snapshot en memoria. Solo se leen la cabecera y los diccionarios,
+     * por lo que el coste no depende del número de filas.
+     */
+    public static AsesorSnapshot open(Path path) throws IOException {
+        // El mapeo sigue siendo válido después de cerrar el canal
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new AsesorSnapshot(path, channel);
+        }
+    }
+
+    /**
+     * Escribe la tabla como snapshot sin las filas leídas ni los inválidos del origen.
+     */
+    public static void write(AsesorTable table, Path path, long sourceLength, long sourceModified) throws IOException {
+        write(table, path, sourceLength, sourceModified, -1, new long[0]);
+    }
+
+    /**
+     * Escribe la tabla como snapshot. Se escribe en un archivo temporal y se
+     * renombra al final, para que un lector nunca vea un snapshot a medias.
+     *
+     * @param sourceLength   tamaño del archivo del que proceden los datos (o -1)
+     * @param sourceModified fecha de modificación de ese archivo en ms (o -1)
+     * @param sourceRows     filas leídas de ese archivo, válidas o no (o -1)
+     * @param failuresByRule inválidos por ordinal de {@link ValidationRule}
+     */
+    public static void write(AsesorTable table, Path path, long sourceLength, long sourceModified,
+                             long sourceRows, long[] failuresByRule) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SectionWriter out = new SectionWriter(channel, HEADER_BYTES + SECTION_COUNT * 2 * Long.BYTES);
+            int rows = table.size();
+
+            out.begin(IDS);
+            for (int row = 0; row < rows; row++) {
+                out.putLong(table.isNullId(row) ? 0 : table.rawId(row));
+            }
+            out.begin(NULL_IDS);
+            for (int word = 0; word < (rows + 63) >>> 6; word++) {
+                long bits = 0;
+                for (int bit = 0; bit < 64 && (word << 6) + bit < rows; bit++) {
+                    if (table.isNullId((word << 6) + bit)) {
+                        bits |= 1L << bit;
+                    }
+                }
+                out.putLong(bits);
+            }
+            out.begin(ESPECIALIDADES);
+            for (int row = 0; row < rows; row++) {
+                out.putInt(table.especialidadCode(row));
+            }
+            out.begin(UBICACIONES);
+            for (int row = 0; row < rows; row++) {
+                out.putInt(table.ubicacionCode(row));
+            }
+            out.begin(DICT_ESPECIALIDAD);
+            writeDictionary(out, table.getEspecialidadDictionary());
+            out.begin(DICT_UBICACION);
+            writeDictionary(out, table.getUbicacionDictionary());
+            PackedStrings[] columns = {table.nombres(), table.apellidos(), table.emails(), table.telefonos()};
+            for (int c = 0; c < columns.length; c++) {
+                out.begin(STRINGS + 2 * c);
+                for (int row = 0; row < rows; row++) {
+                    out.putInt(columns[c].rawEnd(row));
+                }
+                out.begin(STRINGS + 2 * c + 1);
+                out.putBytes(columns[c].rawData(), columns[c].byteLength());
+            }
+            out.begin(SOURCE_STATS);
+            out.putLong(sourceRows);
+            out.putLong(failuresByRule.length);
+            for (long failures : failuresByRule) {
+                out.putLong(failures);
+            }
+            out.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + SECTION_COUNT * 2 * Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort((short) VERSION).putShort((short) SECTION_COUNT)
+                    .putInt(rows).putInt(0).putLong(sourceLength).putLong(sourceModified);
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                header.putLong(out.offsets[s]).putLong(out.lengths[s]);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Asocia el snapshot a otra versión del archivo de origen con el mismo
+     * contenido (por ejemplo, guardado de nuevo sin cambios), reescribiendo solo
+     * el tamaño y la fecha de la cabecera.
+     */
+    public static void updateSource(Path path, long sourceLength, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Valida la cabecera antes de tocarla
+            new AsesorSnapshot(path, channel).close();
+            ByteBuffer source = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(sourceLength).putLong(sourceModified);
+            source.flip();
+            while (source.hasRemaining()) {
+                channel.write(source, HEADER_BYTES - 2 * Long.BYTES + source.position());
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Indica si el snapshot se generó a partir del archivo con ese tamaño y fecha.
+     */
+    public boolean isSnapshotOf(long length, long lastModified) {
+        return sourceLength == length && sourceModified == lastModified;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Filas leídas del archivo de origen, válidas o no; -1 si no se anotaron.
+     */
+    public long getSourceRows() {
+        return sourceRows;
+    }
+
+    /**
+     * Asesores del origen descartados por la regla (el mismo asesor cuenta en cada regla que incumple).
+     */
+    public long countByRule(ValidationRule rule) {
+        return failuresByRule[rule.ordinal()];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Acceso por columna
+
+    public Long getId(int row) {
+        checkRow(row);
+        return (nullIds.get(row >>> 6) & (1L << row)) != 0 ? null : ids.get(row);
+    }
+
+    public String getNombre(int row) {
+        checkRow(row);
+        return nombres.get(row);
+    }
+
+    public String getApellido(int row) {
+        checkRow(row);
+        return apellidos.get(row);
+    }
+
+    @Override
+    public String getEmail(int row) {
+        checkRow(row);
+        return emails.get(row);
+    }
+
+    @Override
+    public String getTelefono(int row) {
+        checkRow(row);
+        return telefonos.get(row);
+    }
+
+    public String getEspecialidad(int row) {
+        return especialidadDictionary.decode(especialidadCode(row));
+    }
+
+    public String getUbicacion(int row) {
+        return ubicacionDictionary.decode(ubicacionCode(row));
+    }
+
+    @Override
+    public int especialidadCode(int row) {
+        checkRow(row);
+        return especialidades.get(row);
+    }
+
+    @Override
+    public int ubicacionCode(int row) {
+        checkRow(row);
+        return ubicaciones.get(row);
+    }
+
+    @Override
+    public StringDictionary getEspecialidadDictionary() {
+        return especialidadDictionary;
+    }
+
+    @Override
+    public StringDictionary getUbicacionDictionary() {
+        return ubicacionDictionary;
+    }
+
+    /**
+     * Decodifica la fila desde la memoria mapeada en un Asesor nuevo.
+     */
+    @Override
+    public Asesor get(int row) {
+        return new Asesor(getId(row), nombres.get(row), apellidos.get(row), emails.get(row),
+                telefonos.get(row), getEspecialidad(row), getUbicacion(row));
+    }
+
+    /**
+     * Copia el snapshot a una tabla en heap (por ejemplo, para modificarla).
+     */
+    public AsesorTable toTable() {
+        AsesorTable table = new AsesorTable(size);
+        for (int row = 0; row < size; row++) {
+            table.add(get(row));
+        }
+        return table;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private void checkRow(int row) {
+        if (closed) {
+            throw new IllegalStateException("Snapshot cerrado: " + path);
+        }
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Fila " + row + " fuera de rango (tamaño " + size + ")");
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado en el snapshot");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static StringDictionary readDictionary(ByteBuffer section) {
+        StringDictionary dictionary = new StringDictionary();
+        int count = section.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[section.getInt()];
+            section.get(bytes);
+            dictionary.encode(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return dictionary;
+    }
+
+    private static void writeDictionary(SectionWriter out, StringDictionary dictionary) throws IOException {
+        out.putInt(dictionary.size());
+        for (String value : dictionary.values()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.putInt(bytes.length);
+            out.putBytes(bytes, bytes.length);
+        }
+    }
+
+    /* Columna de strings mapeada: offsets finales + bytes UTF-8 */
+    private static final class MappedColumn {
+
+        private final IntBuffer ends;
+        private final ByteBuffer data;
+
+        MappedColumn(ByteBuffer ends, ByteBuffer data) {
+            this.ends = ends.asIntBuffer();
+            this.data = data;
+        }
+
+        String get(int row) {
+            int end = ends.get(row);
+            if (end < 0) {
+                return null;
+            }
+            int start = row == 0 ? 0 : ends.get(row - 1);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            byte[] bytes = new byte[end - start];
+            data.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /* Escritura secuencial por secciones con un buffer intermedio */
+    private static final class SectionWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        final long[] offsets = new long[SECTION_COUNT];
+        final long[] lengths = new long[SECTION_COUNT];
+        private long position;
+        private int current = -1;
+
+        SectionWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.position = start;
+        }
+
+        void begin(int section) throws IOException {
+            endSection();
+            // Alineación a 8 bytes para poder ver las secciones como long[]/int[]
+            while ((position & 7) != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+            current = section;
+            offsets[section] = position;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putBytes(byte[] bytes, int length) throws IOException {
+            int offset = 0;
+            while (offset < length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                position += chunk;
+            }
+        }
+
+        void finish() throws IOException {
+            endSection();
+            flush();
+        }
+
+        private void endSection() {
+            if (current >= 0) {
+                lengths[current] = position - offsets[current];
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            long writeAt = position - buffer.remaining();
+            while (buffer.hasRemaining()) {
+                writeAt += channel.write(buffer, writeAt);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Almacén columnar de asesores. En lugar de un objeto Asesor con siete campos
+ * por fila guarda:
+ * <ul>
+ *   <li>ids en un long[] (con un BitSet para los ids nulos),</li>
+ *   <li>especialidad y ubicación como códigos int de un {@link StringDictionary},</li>
+ *   <li>nombre, apellido, email y teléfono empaquetados en UTF-8 por columna.</li>
+ * </ul>
+ * Los objetos Asesor solo se crean al pedirlos ({@link #get(int)}, {@link #asList()}),
+ * y las agregaciones y filtros trabajan directamente sobre las columnas.
+ *
+ * Se llena con {@link #add(Asesor)} y no es thread-safe mientras se escribe.
+ */
+public class AsesorTable implements AsesorColumns {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] ids;
+    private final BitSet nullIds = new BitSet();
+    private int[] especialidades;
+    private int[] ubicaciones;
+    private final PackedStrings nombres;
+    private final PackedStrings apellidos;
+    private final PackedStrings emails;
+    private final PackedStrings telefonos;
+    private final StringDictionary especialidadDictionary;
+    private final StringDictionary ubicacionDictionary;
+    private int size;
+
+    public AsesorTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AsesorTable(int expectedRows) {
+        this(expectedRows, new StringDictionary(), new StringDictionary());
+    }
+
+    /**
+     * Permite compartir diccionarios entre tablas (mismos códigos en todas).
+     */
+    AsesorTable(int expectedRows, StringDictionary especialidadDictionary, StringDictionary ubicacionDictionary) {
+        int capacity = Math.max(16, expectedRows);
+        this.ids = new long[capacity];
+        this.especialidades = new int[capacity];
+        this.ubicaciones = new int[capacity];
+        this.nombres = new PackedStrings(capacity, 8);
+        this.apellidos = new PackedStrings(capacity, 8);
+        this.emails = new PackedStrings(capacity, 28);
+        this.telefonos = new PackedStrings(capacity, 9);
+        this.especialidadDictionary = especialidadDictionary;
+        this.ubicacionDictionary = ubicacionDictionary;
+    }
+
+    public static AsesorTable from(Iterable<Asesor> asesores) {
+        AsesorTable table = new AsesorTable();
+        for (Asesor asesor : asesores) {
+            table.add(asesor);
+        }
+        return table;
+    }
+
+    public void add(Asesor asesor) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 16;
+            ids = Arrays.copyOf(ids, capacity);
+            especialidades = Arrays.copyOf(especialidades, capacity);
+            ubicaciones = Arrays.copyOf(ubicaciones, capacity);
+        }
+        if (asesor.getId() == null) {
+            nullIds.set(size);
+        } else {
+            ids[size] = asesor.getId();
+        }
+        especialidades[size] = especialidadDictionary.encode(asesor.getEspecialidad());
+        ubicaciones[size] = ubicacionDictionary.encode(asesor.getUbicacion());
+        nombres.add(asesor.getNombre());
+        apellidos.add(asesor.getApellido());
+        emails.add(asesor.getEmail());
+        telefonos.add(asesor.getTelefono());
+        size++;
+    }
+
+    /**
+     * Libera la capacidad sobrante de las columnas tras la carga.
+     */
+    public void trimToSize() {
+        ids = Arrays.copyOf(ids, size);
+        especialidades = Arrays.copyOf(especialidades, size);
+        ubicaciones = Arrays.copyOf(ubicaciones, size);
+        nombres.trim();
+        apellidos.trim();
+        emails.trim();
+        telefonos.trim();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Acceso por columna
+
+    public Long getId(int row) {
+        checkRow(row);
+        return nullIds.get(row) ? null : ids[row];
+    }
+
+    public String getNombre(int row) {
+        checkRow(row);
+        return nombres.get(row);
+    }
+
+    public String getApellido(int row) {
+        checkRow(row);
+        return apellidos.get(row);
+    }
+
+    @Override
+    public String getEmail(int row) {
+        checkRow(row);
+        return emails.get(row);
+    }
+
+    @Override
+    public String getTelefono(int row) {
+        checkRow(row);
+        return telefonos.get(row);
+    }
+
+    public String getEspecialidad(int row) {
+        checkRow(row);
+        return especialidadDictionary.decode(especialidades[row]);
+    }
+
+    public String getUbicacion(int row) {
+        checkRow(row);
+        return ubicacionDictionary.decode(ubicaciones[row]);
+    }
+
+    @Override
+    public int especialidadCode(int row) {
+        checkRow(row);
+        return especialidades[row];
+    }
+
+    @Override
+    public int ubicacionCode(int row) {
+        checkRow(row);
+        return ubicaciones[row];
+    }
+
+    @Override
+    public StringDictionary getEspecialidadDictionary() {
+        return especialidadDictionary;
+    }
+
+    @Override
+    public StringDictionary getUbicacionDictionary() {
+        return ubicacionDictionary;
+    }
+
+    /**
+     * Materializa la fila como un Asesor nuevo (copia independiente).
+     */
+    @Override
+    public Asesor get(int row) {
+        checkRow(row);
+        return new Asesor(
+                getId(row),
+                nombres.get(row),
+                apellidos.get(row),
+                emails.get(row),
+                telefonos.get(row),
+                especialidadDictionary.decode(especialidades[row]),
+                ubicacionDictionary.decode(ubicaciones[row]));
+    }
+
+    /**
+     * Vista perezosa de un subconjunto de filas (por ejemplo, el resultado de un filtro).
+     */
+    public List<Asesor> view(int[] rows) {
+        return new RowView(rows);
+    }
+
+    // Operaciones sobre columnas
+
+    /**
+     * Conteos por código en una sola pasada directamente sobre los int[].
+     */
+    @Override
+    public long[][] countByUbicacionAndEspecialidad() {
+        long[][] counts = new long[ubicacionDictionary.size() + 1][especialidadDictionary.size() + 1];
+        for (int row = 0; row < size; row++) {
+            // +1 para que el código null (-1) ocupe la posición 0
+            counts[ubicaciones[row] + 1][especialidades[row] + 1]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Filas que cumplen los criterios (null = no filtrar), comparando códigos int.
+     */
+    public int[] filter(String especialidad, String ubicacion) {
+        int especialidadCode = especialidad == null ? 0 : especialidadDictionary.lookup(especialidad);
+        int ubicacionCode = ubicacion == null ? 0 : ubicacionDictionary.lookup(ubicacion);
+        if ((especialidad != null && especialidadCode == StringDictionary.NULL_CODE)
+                || (ubicacion != null && ubicacionCode == StringDictionary.NULL_CODE)) {
+            return new int[0];
+        }
+        int[] matches = new int[64];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if ((especialidad == null || especialidades[row] == especialidadCode)
+                    && (ubicacion == null || ubicaciones[row] == ubicacionCode)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Filas cuyo email empieza por el prefijo, sin decodificar los emails.
+     */
+    public int[] filterByEmailPrefix(String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        int[] matches = new int[64];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (emails.startsWith(row, bytes)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Estimación del heap ocupado por las columnas (sin cabeceras de objetos).
+     */
+    public long estimatedBytes() {
+        return (long) ids.length * Long.BYTES
+                + (long) especialidades.length * Integer.BYTES
+                + (long) ubicaciones.length * Integer.BYTES
+                + nombres.rawData().length + apellidos.rawData().length
+                + emails.rawData().length + telefonos.rawData().length
+                + 4L * (long) size * Integer.BYTES;
+    }
+
+    PackedStrings nombres() {
+        return nombres;
+    }
+
+    PackedStrings apellidos() {
+        return apellidos;
+    }
+
+    PackedStrings emails() {
+        return emails;
+    }
+
+    PackedStrings telefonos() {
+        return telefonos;
+    }
+
+    boolean isNullId(int row) {
+        return nullIds.get(row);
+    }
+
+    long rawId(int row) {
+        return ids[row];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Fila " + row + " fuera de rango (tamaño " + size + ")");
+        }
+    }
+
+    private final class RowView extends AbstractList<Asesor> implements RandomAccess {
+
+        private final int[] rows;
+
+        RowView(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Asesor get(int index) {
+            return AsesorTable.this.get(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+}
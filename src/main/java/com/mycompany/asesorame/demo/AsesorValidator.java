@@ -10,84 +10,202 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 
-public class AsesorValidator {
+public class AsesorValidator implements AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(AsesorValidator.class);
+
+    // Por debajo de este tamaño no compensa repartir el lote entre hilos
+    static final int MIN_PARALLEL_SIZE = 512;
+    static final int MIN_CHUNK_SIZE = 128;
+
+    // validate() se llama por asesor: sus avisos se limitan a unos pocos por segundo
+    private static final LogRateLimiter FAILURE_LOG = new LogRateLimiter(10, 1, TimeUnit.SECONDS);
+
     private final EmailValidator emailValidator;
+    // Caché de normalización por hilo; los hilos del pool la conservan entre lotes
+    private final ThreadLocal<TextNormalizer> normalizers;
+    private final int parallelism;
+    private volatile ForkJoinPool pool;
+    private boolean closed;
+    // Validador dueño del pool y las cachés: this, o el original en withMetrics()
+    private final AsesorValidator owner;
+
+    // Métricas opcionales; null si no se registran
+    private final Metrics.Histogram normalizeLatency;
+    private final Metrics.Histogram checkLatency;
+    private final Metrics.Counter validatedRecords;
+    private final Metrics.Counter invalidRecords;
+    private final Metrics.Counter[] ruleFailures;
+    private final Metrics.Counter allocatedBytes;
 
     public AsesorValidator() {
+        this(1);
+    }
+
+    /**
+     * @param parallelism número de hilos para {@link #normalizeAndValidate(List)}; 1 = secuencial
+     */
+    public AsesorValidator(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * @param metrics si no es null, {@link #normalizeAndValidate(List)} registra la
+     *                latencia por asesor de normalización y validación, los
+     *                fallos por regla y la memoria reservada
+     */
+    public AsesorValidator(int parallelism, Metrics metrics) {
+        this(parallelism, metrics, null);
+    }
+
+    private AsesorValidator(int parallelism, Metrics metrics, AsesorValidator owner) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+        }
         this.emailValidator = EmailValidator.getInstance();
-        logger.debug("AsesorValidator initialized");
+        this.parallelism = parallelism;
+        this.owner = owner == null ? this : owner;
+        this.normalizers = owner == null ? ThreadLocal.withInitial(TextNormalizer::new) : owner.normalizers;
+        if (metrics == null) {
+            normalizeLatency = null;
+            checkLatency = null;
+            validatedRecords = null;
+            invalidRecords = null;
+            ruleFailures = null;
+            allocatedBytes = null;
+        } else {
+            normalizeLatency = metrics.histogram("asesorame_normalize_seconds", "Normalización por asesor");
+            checkLatency = metrics.histogram("asesorame_validate_seconds", "Validación por asesor");
+            validatedRecords = metrics.counter("asesorame_validated_records_total", "Asesores validados");
+            invalidRecords = metrics.counter("asesorame_invalid_records_total", "Asesores inválidos");
+            ruleFailures = new Metrics.Counter[ValidationRule.all().length];
+            for (ValidationRule rule : ValidationRule.all()) {
+                ruleFailures[rule.ordinal()] = metrics.counter("asesorame_rule_failures_total",
+                        "Asesores que incumplen cada regla", "rule", rule.name());
+            }
+            allocatedBytes = metrics.counter("asesorame_validation_allocated_bytes_total",
+                    "Memoria reservada normalizando y validando lotes (todos los hilos)");
+        }
+        logger.debug("AsesorValidator initialized (parallelism={})", parallelism);
+    }
+
+    /**
+     * Validador que comparte el pool y las cachés de normalización de este pero
+     * registra en otro registro de métricas; sirve para que cada ejecución de un
+     * servicio residente tenga sus propias métricas sin crear otro pool.
+     */
+    public AsesorValidator withMetrics(Metrics metrics) {
+        return new AsesorValidator(parallelism, metrics, owner);
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Valida un asesor y devuelve los mensajes de error (vacía si es válido).
+     * Los fallos se registran en el log con frecuencia limitada; para lotes
+     * grandes es preferible {@link #normalizeAndValidate(List)} con un
+     * {@link ValidationErrorReport}.
+     */
     public List<String> validate(Asesor asesor) {
-        logger.debug("Iniciando Validación: {}",
-                asesor != null ? asesor.getId() : "Asesor nulo");
+        int failures = check(asesor);
 
-        List<String> errors = new ArrayList<>();
+        // Camino rápido: un asesor válido no reserva ninguna lista ni mensaje
+        if (failures == 0) {
+            return Collections.emptyList();
+        }
 
-        if (asesor == null) {
-            errors.add("El asesor no puede ser nulo.");
-            logger.warn("Validación fallida: Asesor nulo");
-            return errors;
+        List<String> errors = describe(asesor, failures);
+        if (FAILURE_LOG.tryAcquire()) {
+            logger.warn("Validación fallida para el asesor {}: {} ({} avisos anteriores omitidos)",
+                    asesor != null ? asesor.getId() : "nulo", errors, FAILURE_LOG.drainSuppressed());
         }
+        return errors;
+    }
 
-        // Validación de campos obligatorios
-        // Validación por Id
-        if (asesor.getId() == null || asesor.getId() <= 0) {
-            errors.add("El ID del asesor es obligatorio y debe ser un número positivo.");
-            logger.warn("Validación fallida: ID inválido para asesor");
+    /**
+     * Evalúa todas las reglas y devuelve una máscara de bits con las que fallaron
+     * (ver {@link ValidationRule}); 0 significa válido. No construye mensajes.
+     */
+    public int check(Asesor asesor) {
+        if (asesor == null) {
+            return ValidationRule.ASESOR_NULO.mask();
         }
+        return check(asesor.getId(), asesor.getNombre(), asesor.getApellido(), asesor.getEmail(),
+                asesor.getTelefono(), asesor.getEspecialidad(), asesor.getUbicacion());
+    }
 
-        // Validacion de nombres
-        if (StringUtils.isBlank(asesor.getNombre())) {
-            errors.add("El nombre del asesor es obligatorio.");
-        } else if (asesor.getNombre().length() < 2) {
-            errors.add("El nombre del asesor debe tener al menos 2 caracteres.");
-        } else if (asesor.getNombre().length() > 50) {
-            errors.add("El nombre del asesor no puede exceder los 50 caracteres.");
+    /**
+     * Igual que {@link #check(Asesor)} para un registro inmutable.
+     */
+    public int check(AsesorRecord asesor) {
+        if (asesor == null) {
+            return ValidationRule.ASESOR_NULO.mask();
         }
+        return check(asesor.id(), asesor.nombre(), asesor.apellido(), asesor.email(),
+                asesor.telefono(), asesor.especialidad(), asesor.ubicacion());
+    }
+
+    private int check(Long id, String nombre, String apellido, String email, String telefono,
+                      String especialidad, String ubicacion) {
+        int failures = 0;
 
-        // Validacion de apellidos
-        if (StringUtils.isBlank(asesor.getApellido())) {
-            errors.add("El apellido del asesor es obligatorio.");
-        } else if (asesor.getApellido().length() < 2) {
-            errors.add("El apellido del asesor debe tener al menos 2 caracteres.");
-        } else if (asesor.getApellido().length() > 50) {
-            errors.add("El apellido del asesor no puede exceder los 50 caracteres.");
+        // Validación por Id
+        if (id == null || id <= 0) {
+            failures |= ValidationRule.ID_INVALIDO.mask();
         }
 
+        // Validacion de nombres y apellidos
+        failures |= checkLength(nombre, ValidationRule.NOMBRE_OBLIGATORIO,
+                ValidationRule.NOMBRE_CORTO, ValidationRule.NOMBRE_LARGO);
+        failures |= checkLength(apellido, ValidationRule.APELLIDO_OBLIGATORIO,
+                ValidationRule.APELLIDO_CORTO, ValidationRule.APELLIDO_LARGO);
+
         // Validacion de email usando Apache Commons Validator
-        if (StringUtils.isBlank(asesor.getEmail())) {
-            errors.add("El email es obligatorio");
-        } else if (!emailValidator.isValid(asesor.getEmail())) {
-            errors.add("El formato del email es inválido: " + asesor.getEmail());
-            logger.warn("Email inválido detectado: {}", asesor.getEmail());
+        if (StringUtils.isBlank(email)) {
+            failures |= ValidationRule.EMAIL_OBLIGATORIO.mask();
+        } else if (!emailValidator.isValid(email)) {
+            failures |= ValidationRule.EMAIL_FORMATO.mask();
         }
 
         // Validación de teléfono
-        if (StringUtils.isBlank(asesor.getTelefono())) {
-            errors.add("El teléfono del asesor es obligatorio.");
-        } else if (!asesor.getTelefono().matches("^\\d{9}$")) {
-            errors.add("El teléfono debe contener exactamente 9 dígitos.");
+        if (StringUtils.isBlank(telefono)) {
+            failures |= ValidationRule.TELEFONO_OBLIGATORIO.mask();
+        } else if (!isNineDigits(telefono)) {
+            failures |= ValidationRule.TELEFONO_FORMATO.mask();
         }
 
-        if (StringUtils.isBlank(asesor.getEspecialidad())) {
-            errors.add("La especialidad del asesor es obligatoria.");
+        if (StringUtils.isBlank(especialidad)) {
+            failures |= ValidationRule.ESPECIALIDAD_OBLIGATORIA.mask();
         }
-        if (StringUtils.isBlank(asesor.getUbicacion())) {
-            errors.add("La ubicación del asesor es obligatoria.");
+        if (StringUtils.isBlank(ubicacion)) {
+            failures |= ValidationRule.UBICACION_OBLIGATORIA.mask();
         }
 
-        if (errors.isEmpty()) {
-            logger.debug("Validación exitosa para el asesor con ID: {}", asesor.getId());
-        } else {
-            logger.info("Asesor con ID {} tiene errores de validación: {}",
-                    asesor.getId(), errors.size());
-        }
+        return failures;
+    }
+
+    /**
+     * Construye los mensajes de error de las reglas presentes en la máscara.
+     */
+    public List<String> describe(Asesor asesor, int failures) {
+        return messages(asesor, failures);
+    }
 
+    static List<String> messages(Asesor asesor, int failures) {
+        List<String> errors = new ArrayList<>(Integer.bitCount(failures));
+        for (ValidationRule rule : ValidationRule.all()) {
+            if (rule.isSet(failures)) {
+                errors.add(rule.message(asesor));
+            }
+        }
         return errors;
     }
 
@@ -95,36 +213,265 @@ public class AsesorValidator {
     // Este método es útil para verificar rápidamente si un asesor cumple con las
     // reglas de validación
     public boolean isValid(Asesor asesor) {
-        return validate(asesor).isEmpty();
+        return check(asesor) == 0;
+    }
+
+    public boolean isValid(AsesorRecord asesor) {
+        return check(asesor) == 0;
+    }
+
+    private static int checkLength(String value, ValidationRule blank, ValidationRule tooShort, ValidationRule tooLong) {
+        if (StringUtils.isBlank(value)) {
+            return blank.mask();
+        } else if (value.length() < 2) {
+            return tooShort.mask();
+        } else if (value.length() > 50) {
+            return tooLong.mask();
+        }
+        return 0;
+    }
+
+    // Equivalente a matches("^\\d{9}$") sin compilar una expresión regular en cada llamada
+    static boolean isNineDigits(String value) {
+        if (value.length() != 9) {
+            return false;
+        }
+        for (int i = 0; i < 9; i++) {
+            char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * Normaliza nombre, apellido y especialidad (minúsculas con la primera en
+     * mayúscula) y email (minúsculas), sin espacios en los extremos. Las
+     * minúsculas no dependen del locale del sistema. Los valores repetidos o ya
+     * normalizados no crean Strings nuevos (ver {@link TextNormalizer}).
+     */
     public void normalizeAsesor(Asesor asesor) {
         if (asesor == null)
             return;
 
-        logger.debug("Normalizando datos del asesor {}", asesor.getId());
+        TextNormalizer normalizer = normalizers.get();
 
         // Normalizar nombres (capitalizar primera letra)
         if (StringUtils.isNotBlank(asesor.getNombre())) {
-            asesor.setNombre(StringUtils.capitalize(asesor.getNombre().toLowerCase().trim()));
+            asesor.setNombre(normalizer.nombre(asesor.getNombre()));
         }
 
         if (StringUtils.isNotBlank(asesor.getApellido())) {
-            asesor.setApellido(StringUtils.capitalize(asesor.getApellido().toLowerCase().trim()));
+            asesor.setApellido(normalizer.apellido(asesor.getApellido()));
         }
 
         // Normalizar email (convertir a minúsculas)
         if (StringUtils.isNotBlank(asesor.getEmail())) {
-            asesor.setEmail(asesor.getEmail().toLowerCase().trim());
+            asesor.setEmail(normalizer.email(asesor.getEmail()));
         }
 
-        // Normalizar departamento
+        // Normalizar departamento; se comparte una instancia por especialidad
         if (StringUtils.isNotBlank(asesor.getEspecialidad())) {
-            asesor.setEspecialidad(StringUtils.capitalize(asesor.getEspecialidad().toLowerCase().trim()));
+            asesor.setEspecialidad(normalizer.especialidad(asesor.getEspecialidad()));
         }
+    }
 
-        logger.debug("Asesor {} normalizado", asesor.getId());
+    /**
+     * Versión inmutable de {@link #normalizeAsesor(Asesor)}: devuelve un registro
+     * normalizado, o el mismo si ya lo estaba. Se puede llamar desde varios
+     * hilos sobre los mismos registros sin sincronizar.
+     */
+    public AsesorRecord normalize(AsesorRecord asesor) {
+        if (asesor == null) {
+            return null;
+        }
+        TextNormalizer normalizer = normalizers.get();
+        return asesor.withNormalized(
+                StringUtils.isNotBlank(asesor.nombre()) ? normalizer.nombre(asesor.nombre()) : asesor.nombre(),
+                StringUtils.isNotBlank(asesor.apellido()) ? normalizer.apellido(asesor.apellido()) : asesor.apellido(),
+                StringUtils.isNotBlank(asesor.email()) ? normalizer.email(asesor.email()) : asesor.email(),
+                StringUtils.isNotBlank(asesor.especialidad())
+                        ? normalizer.especialidad(asesor.especialidad()) : asesor.especialidad());
     }
 
-}
+    /**
+     * Normaliza y valida una lista de asesores. Con paralelismo > 1 la lista se
+     * reparte en trozos contiguos que se procesan en un ForkJoinPool; los
+     * resultados se concatenan en el orden original, así que válidos e inválidos
+     * salen exactamente en el mismo orden que en el camino secuencial.
+     */
+    public BatchResult normalizeAndValidate(List<Asesor> asesores) {
+        int size = asesores.size();
+        if (parallelism == 1 || size < MIN_PARALLEL_SIZE) {
+            return normalizeAndValidateChunk(asesores);
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (size + parallelism * 4 - 1) / (parallelism * 4));
+        ForkJoinPool executor = pool();
+        List<ForkJoinTask<BatchResult>> chunks = new ArrayList<>((size + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < size; from += chunkSize) {
+            List<Asesor> chunk = asesores.subList(from, Math.min(size, from + chunkSize));
+            chunks.add(executor.submit(() -> normalizeAndValidateChunk(chunk)));
+        }
+
+        BatchResult result = new BatchResult(size);
+        for (ForkJoinTask<BatchResult> chunk : chunks) {
+            result.append(chunk.join());
+        }
+        return result;
+    }
+
+    // Cada asesor lo modifica un único hilo: normalizar in situ es seguro
+    private BatchResult normalizeAndValidateChunk(List<Asesor> asesores) {
+        if (normalizeLatency != null) {
+            return normalizeAndValidateChunkMetered(asesores);
+        }
+        BatchResult result = new BatchResult(asesores.size());
+        for (Asesor asesor : asesores) {
+            normalizeAsesor(asesor);
+            int failures = check(asesor);
+            if (failures == 0) {
+                result.valid.add(asesor);
+            } else {
+                result.invalid.add(new InvalidAsesor(asesor, failures));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Igual que el anterior midiendo cada asesor. Las latencias van al
+     * histograma del hilo y los fallos por regla a un array local que se suma
+     * a los contadores compartidos una sola vez por trozo.
+     */
+    private BatchResult normalizeAndValidateChunkMetered(List<Asesor> asesores) {
+        long allocatedAtStart = Metrics.currentThreadAllocatedBytes();
+        int[] failuresByRule = new int[ruleFailures.length];
+        BatchResult result = new BatchResult(asesores.size());
+        for (Asesor asesor : asesores) {
+            long start = System.nanoTime();
+            normalizeAsesor(asesor);
+            long normalized = System.nanoTime();
+            int failures = check(asesor);
+            checkLatency.record(System.nanoTime() - normalized);
+            normalizeLatency.record(normalized - start);
+            if (failures == 0) {
+                result.valid.add(asesor);
+            } else {
+                result.invalid.add(new InvalidAsesor(asesor, failures));
+                for (int bits = failures; bits != 0; bits &= bits - 1) {
+                    failuresByRule[Integer.numberOfTrailingZeros(bits)]++;
+                }
+            }
+        }
+        validatedRecords.add(asesores.size());
+        invalidRecords.add(result.invalid.size());
+        for (int i = 0; i < failuresByRule.length; i++) {
+            if (failuresByRule[i] > 0) {
+                ruleFailures[i].add(failuresByRule[i]);
+            }
+        }
+        long allocatedAtEnd = Metrics.currentThreadAllocatedBytes();
+        if (allocatedAtStart >= 0 && allocatedAtEnd >= 0) {
+            allocatedBytes.add(allocatedAtEnd - allocatedAtStart);
+        }
+        return result;
+    }
+
+    private ForkJoinPool pool() {
+        if (owner != this) {
+            return owner.pool();
+        }
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("El validador está cerrado");
+                }
+                current = pool;
+                if (current == null) {
+                    current = new ForkJoinPool(parallelism);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Detiene el pool de validación en paralelo, si llegó a crearse; los lotes
+     * en curso terminan. Después los lotes que se repartirían entre hilos
+     * lanzan IllegalStateException.
+     * En los validadores de {@link #withMetrics(Metrics)} no hace nada: el pool
+     * es del original.
+     */
+    @Override
+    public void close() {
+        if (owner != this) {
+            return;
+        }
+        ForkJoinPool current;
+        synchronized (this) {
+            closed = true;
+            current = pool;
+            pool = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /* Resultado de validar un lote: válidos e inválidos en el orden de entrada */
+    public static class BatchResult {
+
+        private final List<Asesor> valid;
+        private final List<InvalidAsesor> invalid = new ArrayList<>();
+
+        BatchResult(int expectedSize) {
+            this.valid = new ArrayList<>(expectedSize);
+        }
+
+        void append(BatchResult other) {
+            valid.addAll(other.valid);
+            invalid.addAll(other.invalid);
+        }
+
+        public List<Asesor> getValid() {
+            return valid;
+        }
+
+        public List<InvalidAsesor> getInvalid() {
+            return Collections.unmodifiableList(invalid);
+        }
+    }
 
+    /**
+     * Asesor descartado junto con las reglas que incumple. Los mensajes se
+     * construyen solo si se piden, fuera del camino de validación.
+     */
+    public static class InvalidAsesor {
+
+        private final Asesor asesor;
+        private final int failures;
+
+        InvalidAsesor(Asesor asesor, int failures) {
+            this.asesor = asesor;
+            this.failures = failures;
+        }
+
+        public Asesor getAsesor() {
+            return asesor;
+        }
+
+        /* Máscara de reglas fallidas (ver ValidationRule) */
+        public int getFailures() {
+            return failures;
+        }
+
+        public List<String> getErrors() {
+            return messages(asesor, failures);
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Frecuencia aproximada de cada valor (Count-Min) con memoria fija: una tabla
+ * de {@code depth} filas de {@code width} contadores. La estimación nunca es
+ * menor que la frecuencia real y la supera como mucho en
+ * {@link #getErrorBound()} con probabilidad {@link #getConfidence()}.
+ *
+ * Mientras hay pocos valores distintos (hasta {@code exactThreshold}) los
+ * cuenta en un mapa y las frecuencias son exactas; al superarlo los vuelca a
+ * la tabla. Dos sketches de las mismas dimensiones se combinan con
+ * {@link #merge(CountMinSketch)}. No es thread-safe.
+ */
+public final class CountMinSketch {
+
+    public static final int DEFAULT_WIDTH = 2048;
+    public static final int DEFAULT_DEPTH = 5;
+    public static final int DEFAULT_EXACT_THRESHOLD = 1024;
+
+    private final int width;
+    private final int depth;
+    private final int exactThreshold;
+
+    // Conteos exactos; null en modo aproximado
+    private Map<String, Long> exact;
+    private long[] table;
+    private long total;
+
+    public CountMinSketch() {
+        this(DEFAULT_WIDTH, DEFAULT_DEPTH, DEFAULT_EXACT_THRESHOLD);
+    }
+
+    /**
+     * @param width          contadores por fila; se redondea a potencia de dos
+     * @param depth          filas (funciones hash independientes)
+     * @param exactThreshold valores distintos que se cuentan de forma exacta; 0 empieza ya en modo aproximado
+     */
+    public CountMinSketch(int width, int depth, int exactThreshold) {
+        if (width < 2 || depth < 1 || exactThreshold < 0) {
+            throw new IllegalArgumentException("Dimensiones o umbral inválidos: " + width + "x" + depth
+                    + ", " + exactThreshold);
+        }
+        this.width = Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.exactThreshold = exactThreshold;
+        if (exactThreshold > 0) {
+            exact = new HashMap<>();
+        } else {
+            table = new long[this.width * depth];
+        }
+    }
+
+    public void add(String value) {
+        add(value, 1);
+    }
+
+    public void add(String value, long count) {
+        if (value != null) {
+            add(value, HyperLogLog.hash(value), count);
+        }
+    }
+
+    /* Con el hash ya calculado (HyperLogLog#hash), para no repetirlo si el valor va a varios sketches */
+    void add(String value, long hash, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("El conteo no puede ser negativo: " + count);
+        }
+        total += count;
+        if (exact == null) {
+            addToTable(hash, count);
+            return;
+        }
+        exact.merge(value, count, Long::sum);
+        if (exact.size() > exactThreshold) {
+            toTable();
+        }
+    }
+
+    /**
+     * Frecuencia estimada del valor; nunca menor que la real.
+     */
+    public long estimate(String value) {
+        if (value == null) {
+            return 0;
+        }
+        if (exact != null) {
+            return exact.getOrDefault(value, 0L);
+        }
+        long hash = HyperLogLog.hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + ((h1 + row * h2) & (width - 1))]);
+        }
+        return min;
+    }
+
+    /**
+     * Suma los conteos de otro sketch de las mismas dimensiones.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Dimensiones distintas: " + width + "x" + depth
+                    + " y " + other.width + "x" + other.depth);
+        }
+        if (other.exact != null) {
+            other.exact.forEach(this::add);
+            return;
+        }
+        if (exact != null) {
+            toTable();
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        total += other.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /* Exceso máximo de una estimación (e / width * total); 0 en modo exacto */
+    public long getErrorBound() {
+        return exact != null ? 0 : (long) Math.ceil(Math.E / width * total);
+    }
+
+    /* Probabilidad de que una estimación no supere la cota de error */
+    public double getConfidence() {
+        return exact != null ? 1 : 1 - Math.exp(-depth);
+    }
+
+    private void addToTable(long hash, long count) {
+        // Las depth posiciones salen de dos hashes de 32 bits (Kirsch-Mitzenmacher)
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            table[row * width + ((h1 + row * h2) & (width - 1))] += count;
+        }
+    }
+
+    private void toTable() {
+        table = new long[width * depth];
+        exact.forEach((value, count) -> addToTable(HyperLogLog.hash(value), count));
+        exact = null;
+    }
+}
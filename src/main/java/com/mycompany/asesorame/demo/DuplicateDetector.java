@@ -0,0 +1,640 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Detección de asesores duplicados sobre datos ya normalizados:
+ * <ul>
+ *   <li>exactos: mismo email (sin mayúsculas ni espacios) o mismo teléfono (solo dígitos),</li>
+ *   <li>aproximados: nombre completo parecido (similitud de Jaccard de trigramas)
+ *       y además otro dato que lo corrobore: la misma parte local del email o un
+ *       teléfono que solo difiere en un dígito o en dos dígitos contiguos
+ *       intercambiados. Un nombre parecido por sí solo no basta: con pocos nombres
+ *       distintos uniría a miles de asesores diferentes.</li>
+ * </ul>
+ * Los candidatos aproximados salen de MinHash + LSH sobre el nombre, combinado
+ * con la parte local del email o con cada mitad del teléfono (un error en un
+ * dígito deja intacta la otra mitad; un intercambio justo entre las dos
+ * mitades no se detecta).
+ *
+ * No usa mapas de objetos: cada clave se reduce a un hash de 64 bits, se
+ * empaqueta con el número de fila en un long[] y se ordena; las filas con la
+ * misma clave quedan contiguas y se confirman con el hash completo.
+ * Los pares confirmados se unen con union-find y el resultado son los grupos
+ * de filas (posiciones en la lista) con los motivos que los unen.
+ */
+public class DuplicateDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    public static final double DEFAULT_NAME_SIMILARITY = 0.8;
+
+    // 4 bandas x 4 minhashes: los pares con similitud >= ~0.7 caen juntos en alguna banda
+    static final int BANDS = 4;
+    static final int ROWS_PER_BAND = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS_PER_BAND;
+    private static final int SHINGLE = 3;
+    private static final int CHUNK_SIZE = 1 << 14;
+    // Datos que corroboran un nombre parecido: parte local del email y las dos mitades del teléfono
+    private static final int CORROBORATING_KEYS = 3;
+    private static final int MIN_PHONE_DIGITS = 6;
+    private static final int MAX_PHONE_DIGITS = 18;
+    // Filas de un grupo de candidatos que se comparan todas con todas
+    static final int MAX_BUCKET = 64;
+
+    // U+00C0..U+00FF sin tilde; \0 = sin equivalente directo (se usa stripAccents)
+    private static final String LATIN1_FOLD =
+            "AAAAAA\0CEEEEIIII\0NOOOOO\0\0UUUUY\0\0aaaaaa\0ceeeeiiii\0nooooo\0\0uuuuy\0y";
+
+    private static final HashFunction KEY_HASH = Hashing.farmHashFingerprint64();
+    // Permutaciones h(x) = a*x + b (mod 2^32) de la familia MinHash
+    private static final int[] MULTIPLIERS = new int[SIGNATURE_SIZE];
+    private static final int[] OFFSETS = new int[SIGNATURE_SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            MULTIPLIERS[i] = random.nextInt() | 1;
+            OFFSETS[i] = random.nextInt();
+        }
+    }
+
+    public enum Reason {
+        EMAIL, TELEFONO, NOMBRE_SIMILAR
+    }
+
+    private final double nameSimilarity;
+
+    public DuplicateDetector() {
+        this(DEFAULT_NAME_SIMILARITY);
+    }
+
+    /**
+     * @param nameSimilarity similitud de Jaccard mínima (0-1) entre nombres completos
+     */
+    public DuplicateDetector(double nameSimilarity) {
+        if (nameSimilarity <= 0 || nameSimilarity > 1) {
+            throw new IllegalArgumentException("La similitud debe estar en (0, 1]: " + nameSimilarity);
+        }
+        this.nameSimilarity = nameSimilarity;
+    }
+
+    /**
+     * Busca duplicados en la lista (debe tener acceso aleatorio eficiente).
+     * Cada asesor se lee una sola vez para calcular sus claves; solo los
+     * candidatos por nombre con nombres distintos se vuelven a consultar.
+     */
+    public Result detect(List<Asesor> asesores) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        int size = asesores.size();
+        long[] emailHashes = new long[size];
+        long[] phoneHashes = new long[size];
+        long[] nameHashes = new long[size];
+        int[][] bandHashes = new int[BANDS][size];
+        int[][] corroborating = new int[CORROBORATING_KEYS][size];
+        // Dígitos del teléfono como número y su longitud (0 = sin teléfono comparable)
+        long[] phoneDigits = new long[size];
+        byte[] phoneLengths = new byte[size];
+
+        // Claves y firmas en paralelo por trozos contiguos
+        IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+            int[] signature = new int[SIGNATURE_SIZE];
+            for (int row = chunk * CHUNK_SIZE; row < Math.min(size, (chunk + 1) * CHUNK_SIZE); row++) {
+                Asesor asesor = asesores.get(row);
+                String email = emailKey(asesor.getEmail());
+                String phone = phoneKey(asesor.getTelefono());
+                emailHashes[row] = keyHash(email);
+                phoneHashes[row] = keyHash(phone);
+                corroborating[0][row] = blockHash(emailLocalPart(email), 0);
+                if (phone != null && phone.length() >= MIN_PHONE_DIGITS && phone.length() <= MAX_PHONE_DIGITS) {
+                    // La longitud entra en el hash: solo se comparan teléfonos de la misma longitud
+                    int half = phone.length() / 2;
+                    corroborating[1][row] = blockHash(phone.substring(0, half), phone.length());
+                    corroborating[2][row] = blockHash(phone.substring(half), -phone.length());
+                    phoneDigits[row] = Long.parseLong(phone);
+                    phoneLengths[row] = (byte) phone.length();
+                }
+                String name = nameKey(asesor);
+                nameHashes[row] = keyHash(name);
+                if (minHash(name, signature)) {
+                    for (int band = 0; band < BANDS; band++) {
+                        int h = band;
+                        for (int i = 0; i < ROWS_PER_BAND; i++) {
+                            h = h * 0x9E3779B1 + signature[band * ROWS_PER_BAND + i];
+                        }
+                        bandHashes[band][row] = h == 0 ? 1 : h;
+                    }
+                }
+            }
+        });
+
+        UnionFind clusters = new UnionFind(size);
+        int rowBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(size - 1));
+        long[] packed = new long[size];
+
+        // Claves exactas: se confirman con el hash completo de 64 bits
+        // (probabilidad de colisión ~n²/2^65, despreciable incluso con 10M filas)
+        int count = pack(emailHashes, packed, rowBits);
+        link(packed, count, rowBits, clusters, Reason.EMAIL, (a, b) -> emailHashes[a] == emailHashes[b], true);
+
+        count = pack(phoneHashes, packed, rowBits);
+        link(packed, count, rowBits, clusters, Reason.TELEFONO, (a, b) -> phoneHashes[a] == phoneHashes[b], true);
+
+        // Candidatos por nombre: la similitud de cada par de nombres distintos se calcula una vez
+        LongIntHashMap verdicts = new LongIntHashMap(1024);
+        PairCheck similar = (a, b) -> {
+            if (nameHashes[a] == nameHashes[b]) {
+                return true;
+            }
+            long pair = Math.min(nameHashes[a], nameHashes[b]) * 0x9E3779B97F4A7C15L
+                    + Math.max(nameHashes[a], nameHashes[b]);
+            int verdict = verdicts.get(pair);
+            if (verdict == LongIntHashMap.MISSING) {
+                verdict = similarKeys(nameKey(asesores.get(a)), nameKey(asesores.get(b))) ? 1 : 0;
+                verdicts.putIfAbsent(pair, verdict);
+            }
+            return verdict == 1;
+        };
+        // Dato corroborante: primero lo barato (hashes y dígitos ya calculados), luego el nombre
+        PairCheck corroborated = (a, b) -> {
+            if (phoneLengths[a] != 0 && phoneLengths[a] == phoneLengths[b]
+                    && similarPhones(phoneDigits[a], phoneDigits[b], phoneLengths[a])) {
+                return true;
+            }
+            return corroborating[0][a] != 0 && corroborating[0][a] == corroborating[0][b]
+                    && emailLocalPart(emailKey(asesores.get(a).getEmail()))
+                            .equals(emailLocalPart(emailKey(asesores.get(b).getEmail())));
+        };
+        // Los hashes de email ya están enlazados: su array se reutiliza para las claves de candidatos
+        long[] keys = emailHashes;
+        int truncated = 0;
+        for (int band = 0; band < BANDS; band++) {
+            int current = band;
+            // Un par que ya coincidió en una banda anterior ya se comparó con la misma clave corroborante
+            PairCheck check = (a, b) -> !sameEarlierBand(bandHashes, current, a, b)
+                    && corroborated.matches(a, b) && similar.matches(a, b);
+            for (int k = 0; k < CORROBORATING_KEYS; k++) {
+                for (int row = 0; row < size; row++) {
+                    keys[row] = candidateKey(bandHashes[band][row], corroborating[k][row]);
+                }
+                count = pack(keys, packed, rowBits);
+                truncated += link(packed, count, rowBits, clusters, Reason.NOMBRE_SIMILAR, check, false);
+            }
+        }
+
+        Result result = new Result(clusters.clusters(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        logger.debug("Detección de duplicados sobre {} asesores en {} ms: {} grupos ({} grupos de candidatos recortados a {} filas)",
+                size, result.getElapsedMillis(), result.getClusters().size(), truncated, MAX_BUCKET);
+        return result;
+    }
+
+    // Claves normalizadas
+
+    static String emailKey(String email) {
+        return StringUtils.isBlank(email) ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String phoneKey(String telefono) {
+        String digits = StringUtils.getDigits(telefono);
+        return StringUtils.isEmpty(digits) ? null : digits;
+    }
+
+    static String emailLocalPart(String emailKey) {
+        int at = emailKey == null ? -1 : emailKey.lastIndexOf('@');
+        return at > 0 ? emailKey.substring(0, at) : null;
+    }
+
+    /**
+     * Teléfonos de {@code length} dígitos que solo difieren en un dígito o en
+     * dos dígitos contiguos intercambiados.
+     */
+    static boolean similarPhones(long a, long b, int length) {
+        int differences = 0;
+        int position = -1;
+        int firstA = 0;
+        int firstB = 0;
+        for (int i = 0; i < length; i++, a /= 10, b /= 10) {
+            int digitA = (int) (a % 10);
+            int digitB = (int) (b % 10);
+            if (digitA == digitB) {
+                continue;
+            }
+            if (++differences == 1) {
+                position = i;
+                firstA = digitA;
+                firstB = digitB;
+            } else if (differences > 2 || i != position + 1 || digitA != firstB || digitB != firstA) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameEarlierBand(int[][] bandHashes, int band, int a, int b) {
+        for (int earlier = 0; earlier < band; earlier++) {
+            if (bandHashes[earlier][a] != 0 && bandHashes[earlier][a] == bandHashes[earlier][b]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clave del nombre completo: sin tildes, en minúsculas y con un solo espacio
+     * entre palabras. Equivale a normalizar {@link Asesor#getFullName()}.
+     */
+    static String nameKey(Asesor asesor) {
+        StringBuilder key = new StringBuilder(32);
+        if (!appendFolded(key, asesor.getNombre()) || !appendFolded(key, asesor.getApellido())) {
+            return nameKey(asesor.getFullName());
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    static String nameKey(String fullName) {
+        if (StringUtils.isBlank(fullName)) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(fullName.length());
+        if (appendFolded(key, fullName)) {
+            return key.toString();
+        }
+        return StringUtils.normalizeSpace(StringUtils.stripAccents(fullName)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Añade el texto plegado (minúsculas, tildes latinas quitadas, espacios
+     * colapsados); false si contiene caracteres que requieren stripAccents.
+     */
+    private static boolean appendFolded(StringBuilder key, String text) {
+        if (text == null) {
+            return true;
+        }
+        boolean space = key.length() > 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= 0x80) {
+                ch = ch >= 0xC0 && ch <= 0xFF ? LATIN1_FOLD.charAt(ch - 0xC0) : 0;
+                if (ch == 0) {
+                    return false;
+                }
+            }
+            if (Character.isWhitespace(ch)) {
+                space = key.length() > 0;
+            } else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch);
+            }
+        }
+        return true;
+    }
+
+    private static long keyHash(String key) {
+        // 0 queda reservado para "sin clave"
+        if (key == null) {
+            return 0;
+        }
+        long hash = KEY_HASH.hashString(key, StandardCharsets.UTF_8).asLong();
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static int blockHash(String block, int salt) {
+        if (block == null) {
+            return 0;
+        }
+        int hash = block.hashCode() * 0x9E3779B1 + salt;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /* Clave de candidato: banda LSH del nombre y dato corroborante; 0 si falta alguno */
+    private static long candidateKey(int bandHash, int corroboratingHash) {
+        if (bandHash == 0 || corroboratingHash == 0) {
+            return 0;
+        }
+        long key = (((long) bandHash << 32) | (corroboratingHash & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        key ^= key >>> 29;
+        return key == 0 ? 1 : key;
+    }
+
+    /**
+     * Firma MinHash de los trigramas del nombre; false si el nombre está vacío.
+     */
+    private static boolean minHash(String name, int[] signature) {
+        if (name == null) {
+            return false;
+        }
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        String padded = " " + name + " ";
+        for (int i = 0; i + SHINGLE <= padded.length(); i++) {
+            long shingle = shingle(padded, i) * 0x9E3779B97F4A7C15L;
+            int x = (int) (shingle ^ (shingle >>> 32));
+            for (int h = 0; h < SIGNATURE_SIZE; h++) {
+                // >>> 1 deja valores no negativos para compararlos con signo
+                signature[h] = Math.min(signature[h], (x * MULTIPLIERS[h] + OFFSETS[h]) >>> 1);
+            }
+        }
+        return true;
+    }
+
+    private static long shingle(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Similitud de Jaccard exacta entre los conjuntos de trigramas de los dos nombres.
+     */
+    boolean similarNames(String first, String second) {
+        return similarKeys(nameKey(first), nameKey(second));
+    }
+
+    private boolean similarKeys(String a, String b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a.equals(b)) {
+            return true;
+        }
+        long[] sa = shingles(a);
+        long[] sb = shingles(b);
+        int common = 0;
+        for (int i = 0, j = 0; i < sa.length && j < sb.length; ) {
+            if (sa[i] == sb[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (sa[i] < sb[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return common >= nameSimilarity * (sa.length + sb.length - common);
+    }
+
+    private static long[] shingles(String name) {
+        String padded = " " + name + " ";
+        long[] shingles = new long[padded.length() - SHINGLE + 1];
+        for (int i = 0; i < shingles.length; i++) {
+            shingles[i] = shingle(padded, i);
+        }
+        Arrays.sort(shingles);
+        int distinct = 0;
+        for (int i = 0; i < shingles.length; i++) {
+            if (i == 0 || shingles[i] != shingles[i - 1]) {
+                shingles[distinct++] = shingles[i];
+            }
+        }
+        return Arrays.copyOf(shingles, distinct);
+    }
+
+    // Agrupación por ordenación
+
+    /* Empaqueta (bits altos del hash | fila) para las filas con clave y ordena */
+    private static int pack(long[] hashes, long[] packed, int rowBits) {
+        int count = 0;
+        for (int row = 0; row < hashes.length; row++) {
+            if (hashes[row] != 0) {
+                packed[count++] = (hashes[row] >>> rowBits << rowBits) | row;
+            }
+        }
+        Arrays.parallelSort(packed, 0, count);
+        return count;
+    }
+
+    private static int pack(int[] hashes, long[] packed, int rowBits) {
+        int count = 0;
+        for (int row = 0; row < hashes.length; row++) {
+            if (hashes[row] != 0) {
+                packed[count++] = ((hashes[row] & 0xFFFFFFFFL) << rowBits) | row;
+            }
+        }
+        Arrays.parallelSort(packed, 0, count);
+        return count;
+    }
+
+    /**
+     * Recorre los grupos de claves iguales y une las filas confirmadas. Si la
+     * comprobación es transitiva (igualdad de clave) basta comparar cada fila
+     * con la anterior. Si no lo es (nombres parecidos), A~B y A~C no implican
+     * B~C, así que se comparan todos los pares del grupo; en grupos de más de
+     * {@link #MAX_BUCKET} filas cada fila solo se compara con las
+     * MAX_BUCKET - 1 siguientes, para acotar el coste.
+     *
+     * @return número de grupos recortados
+     */
+    private static int link(long[] packed, int count, int rowBits, UnionFind clusters, Reason reason,
+                            PairCheck check, boolean transitive) {
+        long rowMask = (1L << rowBits) - 1;
+        int truncated = 0;
+        int start = 0;
+        while (start < count) {
+            long key = packed[start] >>> rowBits;
+            int end = start + 1;
+            while (end < count && packed[end] >>> rowBits == key) {
+                end++;
+            }
+            if (transitive) {
+                for (int i = start + 1; i < end; i++) {
+                    linkPair((int) (packed[i - 1] & rowMask), (int) (packed[i] & rowMask), clusters, reason, check);
+                }
+            } else {
+                if (end - start > MAX_BUCKET) {
+                    truncated++;
+                }
+                for (int i = start; i < end - 1; i++) {
+                    int row = (int) (packed[i] & rowMask);
+                    for (int j = i + 1; j < Math.min(end, i + MAX_BUCKET); j++) {
+                        linkPair(row, (int) (packed[j] & rowMask), clusters, reason, check);
+                    }
+                }
+            }
+            start = end;
+        }
+        return truncated;
+    }
+
+    private static void linkPair(int a, int b, UnionFind clusters, Reason reason, PairCheck check) {
+        if (clusters.connected(a, b) && clusters.hasReason(a, reason)) {
+            return;
+        }
+        if (check.matches(a, b)) {
+            clusters.union(a, b, reason);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PairCheck {
+        boolean matches(int first, int second);
+    }
+
+    /* Union-find con compresión de caminos y unión por tamaño */
+    private static final class UnionFind {
+
+        private final int[] parent;
+        private final int[] size;
+        private final byte[] reasons;
+
+        UnionFind(int count) {
+            parent = new int[count];
+            size = new int[count];
+            reasons = new byte[count];
+            for (int i = 0; i < count; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int row) {
+            while (parent[row] != row) {
+                parent[row] = parent[parent[row]];
+                row = parent[row];
+            }
+            return row;
+        }
+
+        boolean connected(int a, int b) {
+            return find(a) == find(b);
+        }
+
+        boolean hasReason(int row, Reason reason) {
+            return (reasons[find(row)] & (1 << reason.ordinal())) != 0;
+        }
+
+        void union(int a, int b, Reason reason) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra != rb) {
+                if (size[ra] < size[rb]) {
+                    int tmp = ra;
+                    ra = rb;
+                    rb = tmp;
+                }
+                parent[rb] = ra;
+                size[ra] += size[rb];
+                reasons[ra] |= reasons[rb];
+            }
+            reasons[ra] |= (byte) (1 << reason.ordinal());
+        }
+
+        /* Grupos de más de una fila, de mayor a menor */
+        List<Cluster> clusters() {
+            int count = parent.length;
+            int[] clusterOf = new int[count];
+            Arrays.fill(clusterOf, -1);
+            List<int[]> rows = new ArrayList<>();
+            List<Integer> roots = new ArrayList<>();
+            int[] filled = new int[0];
+            for (int row = 0; row < count; row++) {
+                int root = find(row);
+                if (size[root] < 2) {
+                    continue;
+                }
+                if (clusterOf[root] < 0) {
+                    clusterOf[root] = rows.size();
+                    rows.add(new int[size[root]]);
+                    roots.add(root);
+                    if (filled.length < rows.size()) {
+                        filled = Arrays.copyOf(filled, rows.size() * 2);
+                    }
+                }
+                int cluster = clusterOf[root];
+                rows.get(cluster)[filled[cluster]++] = row;
+            }
+            List<Cluster> clusters = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                EnumSet<Reason> clusterReasons = EnumSet.noneOf(Reason.class);
+                for (Reason reason : Reason.values()) {
+                    if ((reasons[roots.get(i)] & (1 << reason.ordinal())) != 0) {
+                        clusterReasons.add(reason);
+                    }
+                }
+                clusters.add(new Cluster(rows.get(i), clusterReasons));
+            }
+            clusters.sort((a, b) -> Integer.compare(b.size(), a.size()));
+            return clusters;
+        }
+    }
+
+    /* Grupo de filas que representan al mismo asesor */
+    public static class Cluster {
+
+        private final int[] rows;
+        private final Set<Reason> reasons;
+
+        Cluster(int[] rows, Set<Reason> reasons) {
+            this.rows = rows;
+            this.reasons = Collections.unmodifiableSet(reasons);
+        }
+
+        /* Posiciones en la lista analizada, en orden creciente */
+        public int[] getRows() {
+            return rows.clone();
+        }
+
+        public Set<Reason> getReasons() {
+            return reasons;
+        }
+
+        public int size() {
+            return rows.length;
+        }
+    }
+
+    /* Resultado de la detección */
+    public static class Result {
+
+        private final List<Cluster> clusters;
+        private final long elapsedMillis;
+
+        Result(List<Cluster> clusters, long elapsedMillis) {
+            this.clusters = Collections.unmodifiableList(clusters);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /* Grupos de duplicados, de mayor a menor */
+        public List<Cluster> getClusters() {
+            return clusters;
+        }
+
+        /* Filas sobrantes: todas las de cada grupo menos una */
+        public long getDuplicateCount() {
+            long duplicates = 0;
+            for (Cluster cluster : clusters) {
+                duplicates += cluster.size() - 1;
+            }
+            return duplicates;
+        }
+
+        public long countByReason(Reason reason) {
+            return clusters.stream().filter(c -> c.getReasons().contains(reason)).count();
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -4,10 +4,491 @@
  */
 package com.mycompany.asesorame.demo;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipFile;
+
 /**
  *
  * @author jeanc
  */
 public class ExcelService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelService.class);
+
+    // Nombre del libro para los asesores sin especialidad al dividir por especialidad
+    static final String SIN_ESPECIALIDAD = "sin_especialidad";
+
+    // Partes que generan writeAsesoresSplit y fileSuffix, para reconocer las de ejecuciones anteriores
+    private static final Pattern SPLIT_PART = Pattern.compile("part\\d{3,}");
+    private static final Pattern ESPECIALIDAD_PART = Pattern.compile("[a-z0-9]+(_[a-z0-9]+)*");
+
+    private final int outputThreads;
+
+    public ExcelService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param outputThreads hilos para comprimir los libros que se escriben; con 1
+     *                      se escriben en un solo hilo, como un ZipOutputStream normal
+     */
+    public ExcelService(int outputThreads) {
+        if (outputThreads < 1) {
+            throw new IllegalArgumentException("El número de hilos de salida debe ser positivo: " + outputThreads);
+        }
+        this.outputThreads = outputThreads;
+    }
+
+    /**
+     * Lee todos los asesores del archivo en una lista.
+     * Para archivos grandes es preferible {@link #streamAsesoresFromExcel(String)}.
+     */
+    public List<Asesor> readAsesoresFromExcel(String filePath) throws IOException {
+        List<Asesor> asesores = new ArrayList<>();
+        try (XlsxAsesorReader reader = openReader(filePath)) {
+            reader.forEachRemaining(asesores::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("{} asesores leídos de {}", asesores.size(), filePath);
+        return asesores;
+    }
+
+    /**
+     * Abre un lector fila a fila sobre la primera hoja del archivo.
+     * El llamador es responsable de cerrarlo.
+     */
+    public XlsxAsesorReader openReader(String filePath) throws IOException {
+        logger.debug("Abriendo lector streaming para {}", filePath);
+        return new XlsxAsesorReader(filePath);
+    }
+
+    /**
+     * Abre un lector fila a fila sobre la hoja indicada (o la primera si es null).
+     */
+    public XlsxAsesorReader openReader(String filePath, String sheetName) throws IOException {
+        logger.debug("Abriendo lector streaming para {} (hoja {})", filePath, sheetName);
+        return new XlsxAsesorReader(filePath, sheetName);
+    }
+
+    /**
+     * Abre un libro para leer varias de sus hojas compartiendo el zip y los
+     * strings compartidos. El llamador es responsable de cerrarlo.
+     */
+    XlsxAsesorReader.Workbook openWorkbook(String filePath) throws IOException {
+        logger.debug("Abriendo libro {}", filePath);
+        return new XlsxAsesorReader.Workbook(filePath);
+    }
+
+    /**
+     * Nombres de las hojas del libro, en el orden en que aparecen.
+     */
+    public List<String> listSheets(String filePath) throws IOException {
+        try (ZipFile zipFile = new ZipFile(filePath)) {
+            return new ArrayList<>(XlsxAsesorReader.listSheets(zipFile).keySet());
+        }
+    }
+
+    /**
+     * Abre un lector CSV (o TSV si la extensión es .tsv) con las mismas columnas
+     * que el Excel. El llamador es responsable de cerrarlo.
+     */
+    public CsvAsesorReader openCsvReader(String filePath) throws IOException {
+        logger.debug("Abriendo lector CSV para {}", filePath);
+        return new CsvAsesorReader(filePath);
+    }
+
+    /**
+     * Igual que {@link #openCsvReader(String)} limitando los hilos de lectura,
+     * para cuando se leen varios archivos a la vez.
+     */
+    public CsvAsesorReader openCsvReader(String filePath, int parallelism) throws IOException {
+        logger.debug("Abriendo lector CSV para {} ({} hilos)", filePath, parallelism);
+        return new CsvAsesorReader(filePath, CsvAsesorReader.delimiterFor(filePath), parallelism,
+                CsvAsesorReader.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Abre el lector adecuado según la extensión: .csv y .tsv usan
+     * {@link CsvAsesorReader}, cualquier otra se trata como XLSX.
+     */
+    public AsesorReader openAsesorReader(String filePath) throws IOException {
+        if (isDelimitedFile(filePath)) {
+            return openCsvReader(filePath);
+        }
+        return openReader(filePath);
+    }
+
+    public static boolean isDelimitedFile(String filePath) {
+        String lower = filePath.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".csv") || lower.endsWith(".tsv");
+    }
+
+    /**
+     * Devuelve los asesores del archivo como un Stream perezoso; la memoria usada
+     * no depende del número de filas. Debe cerrarse (try-with-resources).
+     */
+    public Stream<Asesor> streamAsesoresFromExcel(String filePath) throws IOException {
+        XlsxAsesorReader reader = openReader(filePath);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Entrega cada asesor del archivo (XLSX, CSV o TSV) como registro
+     * inmutable, fila a fila y sin acumularlos: la memoria no depende del
+     * número de filas. Devuelve cuántos se leyeron.
+     */
+    public long readRecords(String filePath, Consumer<? super AsesorRecord> action) throws IOException {
+        AsesorRecord.Builder builder = AsesorRecord.builder();
+        try (AsesorReader reader = openAsesorReader(filePath)) {
+            while (reader.hasNext()) {
+                action.accept(reader.nextRecord(builder));
+            }
+            logger.info("{} asesores leídos de {}", reader.getRowsRead(), filePath);
+            return reader.getRowsRead();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Como {@link #streamAsesoresFromExcel(String)} pero con registros
+     * inmutables (de cualquier formato), que se pueden repartir entre hilos
+     * sin copiarlos. Un único builder construye todas las filas.
+     */
+    public Stream<AsesorRecord> streamRecords(String filePath) throws IOException {
+        AsesorReader reader = openAsesorReader(filePath);
+        AsesorRecord.Builder builder = AsesorRecord.builder();
+        Spliterator<AsesorRecord> records = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super AsesorRecord> action) {
+                if (!reader.hasNext()) {
+                    return false;
+                }
+                action.accept(reader.nextRecord(builder));
+                return true;
+            }
+        };
+        return StreamSupport.stream(records, false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Escribe registros inmutables sin convertirlos a {@link Asesor}.
+     */
+    public long writeRecordsToExcel(Iterable<AsesorRecord> asesores, String filePath) throws IOException {
+        logger.debug("Escribiendo asesores en {}", filePath);
+        try (XlsxAsesorWriter writer = openWriter(filePath)) {
+            for (AsesorRecord asesor : asesores) {
+                writer.write(asesor);
+            }
+            logger.info("{} asesores escritos en {}", writer.getRowsWritten(), filePath);
+            return writer.getRowsWritten();
+        }
+    }
+
+    /**
+     * Escribe la lista de asesores en un archivo Excel.
+     */
+    public long writeAsesoresToExcel(List<Asesor> asesores, String filePath) throws IOException {
+        return writeAsesoresToExcel(asesores.iterator(), filePath);
+    }
+
+    /**
+     * Escribe los asesores del Stream sin acumularlos en una lista.
+     */
+    public long writeAsesoresToExcel(Stream<Asesor> asesores, String filePath) throws IOException {
+        try (asesores) {
+            return writeAsesoresToExcel(asesores.iterator(), filePath);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escribe los asesores a medida que el iterador los produce, usando una
+     * ventana deslizante de filas; la memoria no depende del tamaño del archivo.
+     */
+    public long writeAsesoresToExcel(Iterator<Asesor> asesores, String filePath) throws IOException {
+        logger.debug("Escribiendo asesores en {}", filePath);
+        try (XlsxAsesorWriter writer = openWriter(filePath)) {
+            while (asesores.hasNext()) {
+                writer.write(asesores.next());
+            }
+            logger.info("{} asesores escritos en {}", writer.getRowsWritten(), filePath);
+            return writer.getRowsWritten();
+        }
+    }
+
+    /**
+     * Abre un escritor streaming sobre el archivo indicado. El llamador debe cerrarlo.
+     */
+    public XlsxAsesorWriter openWriter(String filePath) throws IOException {
+        return XlsxAsesorWriter.open(filePath, outputThreads);
+    }
+
+    /**
+     * Escribe los asesores en varios libros de como mucho {@code maxRows} filas
+     * cada uno ({@code base_part001.xlsx}, {@code base_part002.xlsx}...), junto
+     * al archivo indicado. Los libros se escriben a la vez.
+     */
+    public List<Path> writeAsesoresSplit(List<Asesor> asesores, String filePath, int maxRows) throws IOException {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("El máximo de filas por libro debe ser positivo: " + maxRows);
+        }
+        List<List<Asesor>> partitions = Lists.partition(asesores, maxRows);
+        Map<String, List<Asesor>> parts = new LinkedHashMap<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            parts.put(String.format(Locale.ROOT, "part%03d", i + 1), partitions.get(i));
+        }
+        return writeParts(parts, filePath, suffix -> SPLIT_PART.matcher(suffix).matches());
+    }
+
+    /**
+     * Escribe un libro por especialidad ({@code base_<especialidad>.xlsx}) junto
+     * al archivo indicado, conservando el orden de los asesores dentro de cada
+     * uno. Los libros se escriben a la vez.
+     */
+    public List<Path> writeAsesoresByEspecialidad(List<Asesor> asesores, String filePath) throws IOException {
+        Map<String, List<Asesor>> parts = new TreeMap<>();
+        for (Asesor asesor : asesores) {
+            parts.computeIfAbsent(fileSuffix(asesor.getEspecialidad()), k -> new ArrayList<>()).add(asesor);
+        }
+        return writeParts(parts, filePath, suffix -> ESPECIALIDAD_PART.matcher(suffix).matches()
+                && !SPLIT_PART.matcher(suffix).matches());
+    }
+
+    /*
+     * Un libro por parte, en un pool de como mucho outputThreads hilos; los
+     * hilos que sobran se reparten para comprimir cada libro en paralelo. Si
+     * alguno falla se borran todos los de esta llamada; si terminan todos, se
+     * borran los de ejecuciones anteriores con el mismo nombre base cuya parte
+     * cumple previousPart y que esta vez no se escribieron.
+     */
+    private List<Path> writeParts(Map<String, List<Asesor>> parts, String filePath, Predicate<String> previousPart)
+            throws IOException {
+        Path target = Paths.get(filePath);
+        String base = StringUtils.removeEndIgnoreCase(target.getFileName().toString(), ".xlsx");
+        if (parts.isEmpty()) {
+            deleteStaleParts(target, base, List.of(), previousPart);
+            return List.of();
+        }
+        int writers = Math.min(parts.size(), outputThreads);
+        int compressionThreads = Math.max(1, outputThreads / writers);
+        logger.debug("Escribiendo {} libros con {} escritores y {} hilos de compresión cada uno",
+                parts.size(), writers, compressionThreads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers,
+                new ThreadFactoryBuilder().setNameFormat("xlsx-writer-%d").setDaemon(true).build());
+        List<Path> submitted = new ArrayList<>(parts.size());
+        boolean written = false;
+        try {
+            List<Future<Path>> futures = new ArrayList<>(parts.size());
+            for (Map.Entry<String, List<Asesor>> part : parts.entrySet()) {
+                Path path = target.resolveSibling(base + "_" + part.getKey() + ".xlsx");
+                submitted.add(path);
+                List<Asesor> rows = part.getValue();
+                futures.add(executor.submit(() -> {
+                    try (XlsxAsesorWriter writer = XlsxAsesorWriter.open(path.toString(), compressionThreads)) {
+                        for (Asesor asesor : rows) {
+                            writer.write(asesor);
+                        }
+                    }
+                    return path;
+                }));
+            }
+            List<Path> paths = new ArrayList<>(futures.size());
+            for (Future<Path> future : futures) {
+                paths.add(future.get());
+            }
+            written = true;
+            logger.info("{} libros escritos junto a {}", paths.size(), filePath);
+            deleteStaleParts(target, base, paths, previousPart);
+            return paths;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Escritura de libros interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Error escribiendo libros: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (!written) {
+                // Los escritores pendientes se cancelan; hay que esperarlos antes de borrar
+                Uninterruptibles.awaitTerminationUninterruptibly(executor, Duration.ofSeconds(30));
+                for (Path path : submitted) {
+                    deleteQuietly(path);
+                }
+            }
+        }
+    }
+
+    /* Libros base_<parte>.xlsx de ejecuciones anteriores que no están en current */
+    private static void deleteStaleParts(Path target, String base, List<Path> current, Predicate<String> previousPart)
+            throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        String prefix = base + "_";
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*.xlsx")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String part = name.substring(prefix.length(), name.length() - ".xlsx".length());
+                if (previousPart.test(part) && !current.contains(target.resolveSibling(name))) {
+                    stale.add(file);
+                }
+            }
+        }
+        for (Path file : stale) {
+            Files.deleteIfExists(file);
+        }
+        if (!stale.isEmpty()) {
+            logger.info("{} libros de una ejecución anterior eliminados junto a {}", stale.size(), target);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el libro incompleto {}: {}", path, e.getMessage());
+        }
+    }
+
+    /* Parte del nombre de archivo para una especialidad: sin tildes, en minúsculas y con '_' */
+    static String fileSuffix(String especialidad) {
+        if (StringUtils.isBlank(especialidad)) {
+            return SIN_ESPECIALIDAD;
+        }
+        String suffix = StringUtils.stripAccents(especialidad).toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "_");
+        suffix = StringUtils.strip(suffix, "_");
+        return suffix.isEmpty() ? SIN_ESPECIALIDAD : suffix;
+    }
+
+    /**
+     * Guarda los asesores como snapshot binario, anotando la huella (tamaño y
+     * fecha) del archivo de origen para detectar después si sigue vigente.
+     */
+    public void exportSnapshot(Iterable<Asesor> asesores, String snapshotPath, String sourceFilePath) throws IOException {
+        exportSnapshot(AsesorTable.from(asesores), snapshotPath, sourceFilePath);
+    }
+
+    public void exportSnapshot(AsesorTable table, String snapshotPath, String sourceFilePath) throws IOException {
+        exportSnapshot(table, snapshotPath, sourceFilePath, -1, new long[0]);
+    }
+
+    /**
+     * Como {@link #exportSnapshot(AsesorTable, String, String)}, anotando también
+     * las filas leídas del origen y sus inválidos por regla, para que una
+     * ejecución desde el snapshot informe lo mismo sin volver a validar.
+     */
+    public void exportSnapshot(AsesorTable table, String snapshotPath, String sourceFilePath, long sourceRows,
+                               long[] failuresByRule) throws IOException {
+        Path source = Paths.get(sourceFilePath);
+        long length = -1;
+        long modified = -1;
+        if (Files.exists(source)) {
+            length = Files.size(source);
+            modified = Files.getLastModifiedTime(source).toMillis();
+        }
+        AsesorSnapshot.write(table, Paths.get(snapshotPath), length, modified, sourceRows, failuresByRule);
+        logger.info("Snapshot de {} asesores guardado en {}", table.size(), snapshotPath);
+    }
+
+    /**
+     * Marca el snapshot como vigente para la versión actual del archivo de
+     * origen, cuyo contenido no cambió respecto al que lo generó.
+     */
+    public void refreshSnapshotSource(String snapshotPath, String sourceFilePath) throws IOException {
+        Path source = Paths.get(sourceFilePath);
+        AsesorSnapshot.updateSource(Paths.get(snapshotPath), Files.size(source),
+                Files.getLastModifiedTime(source).toMillis());
+        logger.info("Snapshot {} asociado a la versión actual de {}", snapshotPath, sourceFilePath);
+    }
+
+    /**
+     * Abre el snapshot mapeándolo en memoria; las filas se leen bajo demanda.
+     */
+    public AsesorSnapshot openSnapshot(String snapshotPath) throws IOException {
+        AsesorSnapshot snapshot = AsesorSnapshot.open(Paths.get(snapshotPath));
+        logger.debug("Snapshot {} abierto ({} asesores)", snapshotPath, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * Abre el snapshot solo si existe y se generó a partir de la versión actual
+     * del archivo de origen; en otro caso devuelve vacío.
+     */
+    public Optional<AsesorSnapshot> openSnapshotIfCurrent(String snapshotPath, String sourceFilePath) {
+        Path path = Paths.get(snapshotPath);
+        Path source = Paths.get(sourceFilePath);
+        if (!Files.exists(path) || !Files.exists(source)) {
+            return Optional.empty();
+        }
+        try {
+            AsesorSnapshot snapshot = AsesorSnapshot.open(path);
+            if (snapshot.isSnapshotOf(Files.size(source), Files.getLastModifiedTime(source).toMillis())) {
+                return Optional.of(snapshot);
+            }
+            logger.info("El snapshot {} no corresponde a la versión actual de {}", snapshotPath, sourceFilePath);
+            snapshot.close();
+        } catch (IOException e) {
+            logger.warn("No se pudo usar el snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
 }
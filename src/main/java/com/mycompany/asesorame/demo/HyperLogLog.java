@@ -0,0 +1,245 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+/**
+ * Conteo aproximado de valores distintos (HyperLogLog) con memoria fija: con
+ * la precisión por defecto, 16 KB de registros y un error estándar del 0,8 %
+ * para cualquier cardinalidad.
+ *
+ * Mientras hay pocos valores distintos (hasta {@code exactThreshold}) guarda
+ * sus hashes de 64 bits y el conteo es exacto; al superarlo pasa a los
+ * registros. Dos instancias con la misma precisión se combinan con
+ * {@link #merge(HyperLogLog)} como si hubieran visto ambos flujos. No es
+ * thread-safe: cada hilo usa la suya y al final se combinan.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+    public static final int DEFAULT_EXACT_THRESHOLD = 1024;
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final int exactThreshold;
+
+    // Conjunto de hashes en modo exacto (direccionamiento abierto, 0 = libre); null en modo aproximado
+    private long[] exact;
+    private boolean exactZero;
+    private int exactSize;
+    private byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION, DEFAULT_EXACT_THRESHOLD);
+    }
+
+    /**
+     * @param precision      log2 del número de registros, entre 4 y 18
+     * @param exactThreshold valores distintos que se cuentan de forma exacta; 0 empieza ya en modo aproximado
+     */
+    public HyperLogLog(int precision, int exactThreshold) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION || exactThreshold < 0) {
+            throw new IllegalArgumentException("Precisión o umbral inválidos: " + precision + ", " + exactThreshold);
+        }
+        this.precision = precision;
+        this.exactThreshold = exactThreshold;
+        if (exactThreshold > 0) {
+            exact = new long[16];
+        } else {
+            registers = new byte[1 << precision];
+        }
+    }
+
+    public void add(String value) {
+        if (value != null) {
+            addHash(hash(value));
+        }
+    }
+
+    void addHash(long hash) {
+        if (exact == null) {
+            addToRegisters(hash);
+        } else if (addExact(hash) && exactSize > exactThreshold) {
+            toRegisters();
+        }
+    }
+
+    /**
+     * Suma los valores vistos por otra instancia de la misma precisión.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Precisiones distintas: " + precision + " y " + other.precision);
+        }
+        if (other.exact != null) {
+            if (other.exactZero) {
+                addHash(0);
+            }
+            for (long hash : other.exact) {
+                if (hash != 0) {
+                    addHash(hash);
+                }
+            }
+            return;
+        }
+        if (exact != null) {
+            toRegisters();
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Número estimado de valores distintos (exacto mientras {@link #isExact()}).
+     */
+    public long estimate() {
+        if (exact != null) {
+            return exactSize;
+        }
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52); // 2^-register
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        // Rango bajo: con registros vacíos el conteo lineal es más preciso
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /* Error estándar relativo de la estimación en modo aproximado */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private void addToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Posición del primer 1 en los bits restantes; el bit centinela acota el máximo
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private boolean addExact(long hash) {
+        if (hash == 0) {
+            if (exactZero) {
+                return false;
+            }
+            exactZero = true;
+            exactSize++;
+            return true;
+        }
+        int mask = exact.length - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (exact[slot] != 0) {
+            if (exact[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        exact[slot] = hash;
+        exactSize++;
+        if (exactSize * 2 > exact.length && exactSize <= exactThreshold) {
+            rehash();
+        }
+        return true;
+    }
+
+    private void rehash() {
+        long[] old = exact;
+        exact = new long[old.length * 2];
+        int mask = exact.length - 1;
+        for (long hash : old) {
+            if (hash != 0) {
+                int slot = (int) (hash ^ (hash >>> 32)) & mask;
+                while (exact[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                exact[slot] = hash;
+            }
+        }
+    }
+
+    private void toRegisters() {
+        registers = new byte[1 << precision];
+        if (exactZero) {
+            addToRegisters(0);
+        }
+        for (long hash : exact) {
+            if (hash != 0) {
+                addToRegisters(hash);
+            }
+        }
+        exact = null;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Hash de 64 bits de un texto, sin reservar memoria: mezcla de MurmurHash3
+     * sobre bloques de cuatro caracteres. Lo usan también los demás sketches.
+     */
+    static long hash(CharSequence value) {
+        int length = value.length();
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = value.charAt(i) | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48;
+            h = mixBlock(h, block);
+        }
+        if (i < length) {
+            long block = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                block |= (long) value.charAt(i) << shift;
+            }
+            h = mixBlock(h, block);
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mixBlock(long h, long block) {
+        block *= 0x87C37B91114253D5L;
+        block = Long.rotateLeft(block, 31);
+        block *= 0x4CF5AD432745937FL;
+        h ^= block;
+        return Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.base.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reprocesamiento incremental a partir del resultado anterior (snapshot de
+ * válidos + {@link IncrementalState}).
+ *
+ * Cada fila leída se compara por id y hash de contenido con la ejecución
+ * anterior; las filas sin id y las repeticiones de un id se emparejan por el
+ * hash, en orden, con las de la ejecución anterior. Las filas sin cambios
+ * reutilizan la versión ya normalizada del snapshot y no pasan por la validación ni por las estadísticas; solo las
+ * insertadas y modificadas se validan, y las estadísticas se parten de los
+ * conteos anteriores restando las versiones modificadas o eliminadas. Las
+ * filas inválidas sin cambios también se validan otra vez: el snapshot solo
+ * guarda válidos y el informe de errores se reescribe en cada ejecución.
+ */
+public class IncrementalProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalProcessor.class);
+
+    private final UnaryOperator<List<Asesor>> validationStep;
+    private final StatisticsService statisticsService;
+    private final int batchSize;
+
+    /**
+     * @param validationStep normaliza un lote y devuelve solo los asesores válidos, en orden
+     */
+    public IncrementalProcessor(UnaryOperator<List<Asesor>> validationStep, StatisticsService statisticsService,
+                                int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize debe ser positivo");
+        }
+        this.validationStep = validationStep;
+        this.statisticsService = statisticsService;
+        this.batchSize = batchSize;
+    }
+
+    public Result run(Iterator<Asesor> source, AsesorSnapshot previous, IncrementalState previousState) {
+        if (previous.size() != previousState.getValidCount()) {
+            throw new IllegalArgumentException("El snapshot (" + previous.size()
+                    + " filas) no corresponde al estado incremental (" + previousState.getValidCount() + " válidos)");
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Result result = new Result(new AsesorTable(previous.size()), new IncrementalState.Builder(previousState.size()),
+                statisticsService.aggregate(previous));
+        BitSet seen = new BitSet(previousState.size());
+        // Siguiente fila sin id por emparejar de cada hash (previousState.size() si se agotaron)
+        LongIntHashMap unkeyedCursors = new LongIntHashMap(16);
+        List<Asesor> pending = new ArrayList<>();
+
+        while (source.hasNext()) {
+            Asesor asesor = source.next();
+            result.read++;
+            long hash = IncrementalState.contentHash(asesor);
+            int slot = previousState.slotOf(asesor.getId());
+            if (slot == LongIntHashMap.MISSING || seen.get(slot)) {
+                // Sin id o con id repetido: se empareja por contenido
+                slot = nextUnkeyed(previousState, unkeyedCursors, hash);
+            }
+            if (slot != LongIntHashMap.MISSING) {
+                seen.set(slot);
+                int previousRow = previousState.validRow(slot);
+                if (hash == previousState.hash(slot)) {
+                    result.unchanged++;
+                    if (previousRow < 0) {
+                        // Inválida sin cambios: no está en el snapshot, así que se valida de
+                        // nuevo para que siga apareciendo en el informe de errores
+                        pending.add(asesor);
+                        if (pending.size() >= batchSize) {
+                            flush(pending, result);
+                        }
+                        continue;
+                    }
+                    // Sin cambios: se vacían antes los pendientes para conservar el orden
+                    flush(pending, result);
+                    result.state.add(asesor.getId(), hash, true);
+                    result.table.add(previous.get(previousRow));
+                    continue;
+                }
+                result.updated++;
+                if (previousRow >= 0) {
+                    result.aggregator.remove(previous.get(previousRow));
+                }
+            } else {
+                // Id nuevo, o sin id o repetido y sin una fila igual en la ejecución anterior
+                result.inserted++;
+            }
+            pending.add(asesor);
+            if (pending.size() >= batchSize) {
+                flush(pending, result);
+            }
+        }
+        flush(pending, result);
+
+        // Las filas del estado anterior que no aparecieron se han eliminado
+        for (int slot = seen.nextClearBit(0); slot < previousState.size(); slot = seen.nextClearBit(slot + 1)) {
+            result.deleted++;
+            int previousRow = previousState.validRow(slot);
+            if (previousRow >= 0) {
+                result.aggregator.remove(previous.get(previousRow));
+            }
+        }
+
+        result.elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        logger.info("Procesamiento incremental en {} ms: {} leídos, {} sin cambios, {} nuevos, {} modificados, {} eliminados",
+                result.elapsedMillis, result.read, result.unchanged, result.inserted, result.updated, result.deleted);
+        return result;
+    }
+
+    /* Consume la siguiente fila sin id de la ejecución anterior con ese hash */
+    private static int nextUnkeyed(IncrementalState previousState, LongIntHashMap cursors, long hash) {
+        int slot = cursors.get(hash);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = previousState.unkeyedSlotOf(hash);
+        }
+        if (slot == LongIntHashMap.MISSING || slot == previousState.size()) {
+            return LongIntHashMap.MISSING;
+        }
+        int next = previousState.nextUnkeyedSlot(slot);
+        cursors.put(hash, next == LongIntHashMap.MISSING ? previousState.size() : next);
+        return slot;
+    }
+
+    private void flush(List<Asesor> pending, Result result) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Asesor> valid = result.state.track(pending, validationStep);
+        for (Asesor asesor : valid) {
+            result.table.add(asesor);
+            result.aggregator.add(asesor);
+        }
+        result.validated += pending.size();
+        pending.clear();
+    }
+
+    /* Resultado de una ejecución incremental */
+    public static class Result {
+
+        private final AsesorTable table;
+        private final IncrementalState.Builder state;
+        private final StatisticsService.Aggregator aggregator;
+        private long read;
+        private long unchanged;
+        private long inserted;
+        private long updated;
+        private long deleted;
+        private long validated;
+        private long elapsedMillis;
+
+        Result(AsesorTable table, IncrementalState.Builder state, StatisticsService.Aggregator aggregator) {
+            this.table = table;
+            this.state = state;
+            this.aggregator = aggregator;
+        }
+
+        /* Asesores válidos tras aplicar los cambios, en el orden del archivo */
+        public AsesorTable getTable() {
+            return table;
+        }
+
+        public IncrementalState getState() {
+            return state.build();
+        }
+
+        public StatisticsService.Aggregator getAggregator() {
+            return aggregator;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getUnchanged() {
+            return unchanged;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getDeleted() {
+            return deleted;
+        }
+
+        /* Filas que pasaron por normalización y validación */
+        public long getValidated() {
+            return validated;
+        }
+
+        public boolean hasChanges() {
+            return inserted + updated + deleted > 0;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
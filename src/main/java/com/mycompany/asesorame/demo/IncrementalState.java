@@ -0,0 +1,248 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Estado de un procesamiento para poder repetirlo de forma incremental: por
+ * cada fila leída guarda su id, un hash del contenido original (antes de
+ * normalizar) y la fila que ocupa en el snapshot de válidos (-1 si fue inválida).
+ *
+ * Las búsquedas por id usan un {@link LongIntHashMap}; si un id aparece
+ * repetido solo se indexa su primera aparición. Las filas sin id y las
+ * repeticiones se indexan por el hash del contenido, encadenando en orden las
+ * que comparten hash.
+ */
+public final class IncrementalState {
+
+    static final int MAGIC = 0x54535341; // "ASST" en little-endian
+    static final int VERSION = 1;
+
+    // Estable entre ejecuciones y versiones de la JVM, a diferencia de hashCode()
+    private static final HashFunction CONTENT_HASH = Hashing.farmHashFingerprint64();
+
+    private final long[] ids;
+    private final boolean[] hasId;
+    private final long[] hashes;
+    private final int[] validRows;
+    private final int size;
+    private final int validCount;
+    private final LongIntHashMap slots;
+    private final LongIntHashMap unkeyed;
+    private final int[] nextUnkeyed;
+
+    private IncrementalState(long[] ids, boolean[] hasId, long[] hashes, int[] validRows, int size, int validCount) {
+        this.ids = ids;
+        this.hasId = hasId;
+        this.hashes = hashes;
+        this.validRows = validRows;
+        this.size = size;
+        this.validCount = validCount;
+        this.slots = new LongIntHashMap(size);
+        int unkeyedCount = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (!hasId[slot] || slots.putIfAbsent(ids[slot], slot) != LongIntHashMap.MISSING) {
+                unkeyedCount++;
+            }
+        }
+        this.unkeyed = new LongIntHashMap(unkeyedCount);
+        this.nextUnkeyed = new int[unkeyedCount == 0 ? 0 : size];
+        // De atrás hacia delante, para que cada cadena quede en el orden del archivo
+        for (int slot = size - 1; slot >= 0 && unkeyedCount > 0; slot--) {
+            if (!hasId[slot] || slots.get(ids[slot]) != slot) {
+                nextUnkeyed[slot] = unkeyed.put(hashes[slot], slot);
+            }
+        }
+    }
+
+    /**
+     * Hash de 64 bits de los siete campos tal como se leyeron del archivo.
+     */
+    public static long contentHash(Asesor asesor) {
+        Hasher hasher = CONTENT_HASH.newHasher();
+        Long id = asesor.getId();
+        hasher.putBoolean(id != null).putLong(id == null ? 0 : id);
+        putField(hasher, asesor.getNombre());
+        putField(hasher, asesor.getApellido());
+        putField(hasher, asesor.getEmail());
+        putField(hasher, asesor.getTelefono());
+        putField(hasher, asesor.getEspecialidad());
+        putField(hasher, asesor.getUbicacion());
+        return hasher.hash().asLong();
+    }
+
+    private static void putField(Hasher hasher, String value) {
+        // La longitud delimita el campo: ("ab", "c") y ("a", "bc") no colisionan
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Posición del id en el estado, o {@link LongIntHashMap#MISSING}.
+     */
+    public int slotOf(Long id) {
+        return id == null ? LongIntHashMap.MISSING : slots.get(id);
+    }
+
+    /**
+     * Primera fila sin id (o con id repetido) cuyo contenido tiene ese hash, o
+     * {@link LongIntHashMap#MISSING}. Las siguientes se obtienen con
+     * {@link #nextUnkeyedSlot(int)}.
+     */
+    public int unkeyedSlotOf(long hash) {
+        return unkeyed.get(hash);
+    }
+
+    /* Siguiente fila sin id con el mismo hash, o LongIntHashMap.MISSING */
+    public int nextUnkeyedSlot(int slot) {
+        return nextUnkeyed[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Filas válidas (tamaño del snapshot asociado) */
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public long hash(int slot) {
+        return hashes[slot];
+    }
+
+    /* Fila en el snapshot de válidos, o -1 si la fila fue inválida */
+    public int validRow(int slot) {
+        return validRows[slot];
+    }
+
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(validCount);
+            for (int slot = 0; slot < size; slot++) {
+                out.writeBoolean(hasId[slot]);
+                out.writeLong(ids[slot]);
+                out.writeLong(hashes[slot]);
+                out.writeInt(validRows[slot]);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static IncrementalState read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("El archivo no es un estado incremental: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de estado incremental no soportada (" + version + ") en " + path);
+            }
+            int size = in.readInt();
+            int validCount = in.readInt();
+            long[] ids = new long[size];
+            boolean[] hasId = new boolean[size];
+            long[] hashes = new long[size];
+            int[] validRows = new int[size];
+            for (int slot = 0; slot < size; slot++) {
+                hasId[slot] = in.readBoolean();
+                ids[slot] = in.readLong();
+                hashes[slot] = in.readLong();
+                validRows[slot] = in.readInt();
+            }
+            return new IncrementalState(ids, hasId, hashes, validRows, size, validCount);
+        }
+    }
+
+    /**
+     * Construye el estado fila a fila, en el orden de lectura. No es thread-safe:
+     * lo usa una sola etapa (la de validación).
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private boolean[] hasId;
+        private long[] hashes;
+        private int[] validRows;
+        private int size;
+        private int validCount;
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            ids = new long[capacity];
+            hasId = new boolean[capacity];
+            hashes = new long[capacity];
+            validRows = new int[capacity];
+        }
+
+        /**
+         * Registra una fila; si es válida devuelve su posición en el snapshot de válidos, si no -1.
+         */
+        public int add(Long id, long hash, boolean valid) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 16;
+                ids = Arrays.copyOf(ids, capacity);
+                hasId = Arrays.copyOf(hasId, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                validRows = Arrays.copyOf(validRows, capacity);
+            }
+            hasId[size] = id != null;
+            ids[size] = id == null ? 0 : id;
+            hashes[size] = hash;
+            validRows[size] = valid ? validCount++ : -1;
+            return validRows[size++];
+        }
+
+        /**
+         * Aplica el paso de validación a un lote registrando cada fila: el hash se
+         * calcula antes, porque la normalización modifica los asesores.
+         */
+        public List<Asesor> track(List<Asesor> batch, UnaryOperator<List<Asesor>> validationStep) {
+            long[] batchHashes = new long[batch.size()];
+            for (int i = 0; i < batchHashes.length; i++) {
+                batchHashes[i] = contentHash(batch.get(i));
+            }
+            List<Asesor> valid = validationStep.apply(batch);
+            // Los válidos son un subconjunto ordenado del lote (mismas instancias)
+            int next = 0;
+            for (int i = 0; i < batchHashes.length; i++) {
+                Asesor asesor = batch.get(i);
+                boolean isValid = next < valid.size() && valid.get(next) == asesor;
+                if (isValid) {
+                    next++;
+                }
+                add(asesor.getId(), batchHashes[i], isValid);
+            }
+            return valid;
+        }
+
+        public IncrementalState build() {
+            return new IncrementalState(ids, hasId, hashes, validRows, size, validCount);
+        }
+    }
+}
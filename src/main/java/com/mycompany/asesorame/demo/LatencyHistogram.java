@@ -0,0 +1,120 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+/**
+ * Histograma de latencias log-lineal al estilo HdrHistogram: los valores hasta
+ * 127 tienen cubeta propia y, a partir de ahí, cada potencia de dos se divide
+ * en 64 cubetas iguales, así que cualquier percentil se obtiene con un error
+ * relativo menor del 1,6 % y memoria fija (unos 16 KB), sin guardar los valores.
+ *
+ * Los valores se expresan en nanosegundos; los mayores de {@link #MAX_VALUE}
+ * se cuentan en la última cubeta. No es thread-safe: cada hilo debe registrar
+ * en su propio histograma y combinarlos con {@link #add(LatencyHistogram)}.
+ */
+public final class LatencyHistogram {
+
+    static final int LINEAR_BITS = 7;
+    static final int SUB_BUCKETS = 1 << (LINEAR_BITS - 1); // 64 por potencia de dos
+    static final long MAX_VALUE = (1L << 36) - 1;          // ~68 s
+
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(Math.min(value, MAX_VALUE))]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /* Suma exacta de los valores registrados */
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Valor por debajo del cual queda el porcentaje indicado (0-100) de los
+     * registros; se devuelve el extremo superior de la cubeta, acotado por el máximo.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueOf(i));
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long value) {
+        if (value < (1 << LINEAR_BITS)) {
+            return (int) value;
+        }
+        // Se conservan los 7 bits más altos: 64 cubetas por potencia de dos
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (LINEAR_BITS - 1);
+        return (1 << LINEAR_BITS) + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < (1 << LINEAR_BITS)) {
+            return bucket;
+        }
+        int offset = bucket - (1 << LINEAR_BITS);
+        int shift = offset / SUB_BUCKETS + 1;
+        long sub = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita la frecuencia de un mensaje de log repetitivo: deja pasar los
+ * primeros {@code burst} y después como mucho uno por intervalo, contando los
+ * omitidos para poder indicarlos en el siguiente mensaje. Es thread-safe y no
+ * reserva memoria.
+ *
+ * <pre>
+ * if (limiter.tryAcquire()) {
+ *     logger.warn("... ({} mensajes omitidos)", ..., limiter.drainSuppressed());
+ * }
+ * </pre>
+ */
+final class LogRateLimiter {
+
+    private final int burst;
+    private final long intervalNanos;
+    private final AtomicInteger burstUsed = new AtomicInteger();
+    private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder suppressed = new LongAdder();
+
+    LogRateLimiter(int burst, long interval, TimeUnit unit) {
+        this.burst = burst;
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    boolean tryAcquire() {
+        if (burstUsed.get() < burst && burstUsed.getAndIncrement() < burst) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long next = nextAllowed.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0) && nextAllowed.compareAndSet(next, now + intervalNanos)) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    /* Mensajes omitidos desde la última llamada */
+    long drainSuppressed() {
+        return suppressed.sumThenReset();
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registro de métricas de una ejecución: contadores ({@link LongAdder}),
+ * valores puntuales e histogramas de latencia ({@link LatencyHistogram}).
+ * Se exporta como texto de Prometheus o como JSON para comparar ejecuciones.
+ *
+ * Registrar es barato y no bloquea: los contadores reparten la contención
+ * entre celdas y cada hilo registra latencias en su propio histograma; todo se
+ * combina solo al exportar. Conviene obtener las métricas una vez y guardarlas
+ * en campos en lugar de buscarlas por nombre en cada registro.
+ */
+public final class Metrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    public Counter counter(String name, String help, String... labels) {
+        return family(name, help, Type.COUNTER).get(labels, Counter::new);
+    }
+
+    public Gauge gauge(String name, String help, String... labels) {
+        return family(name, help, Type.GAUGE).get(labels, Gauge::new);
+    }
+
+    /**
+     * Histograma de latencias en nanosegundos; se exporta en segundos.
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        return family(name, help, Type.SUMMARY).get(labels, Histogram::new);
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, n -> {
+            order.add(n);
+            return new Family(n, help, type);
+        });
+        if (family.type != type) {
+            throw new IllegalArgumentException("La métrica " + name + " ya existe como " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Suma las métricas de otro registro a este: los contadores y los
+     * histogramas se acumulan y los valores puntuales se sobrescriben. Sirve
+     * para llevar las métricas de una ejecución al registro del servicio.
+     */
+    public void addAll(Metrics other) {
+        for (Family family : other.families()) {
+            for (Map.Entry<List<String>, Metric> series : family.series()) {
+                String[] labels = series.getKey().toArray(String[]::new);
+                Metric metric = series.getValue();
+                if (metric instanceof Counter counter) {
+                    counter(family.name, family.help, labels).add(counter.get());
+                } else if (metric instanceof Gauge gauge) {
+                    gauge(family.name, family.help, labels).set(gauge.get());
+                } else if (metric instanceof Histogram histogram) {
+                    histogram(family.name, family.help, labels).merge(histogram.snapshot());
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra el estado actual de la JVM: colecciones y tiempo de GC por
+     * colector y memoria heap usada.
+     */
+    public void recordJvm() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gauge("asesorame_jvm_gc_collections", "Colecciones de GC desde el arranque", "collector", gc.getName())
+                    .set(Math.max(0, gc.getCollectionCount()));
+            gauge("asesorame_jvm_gc_seconds", "Tiempo de GC desde el arranque", "collector", gc.getName())
+                    .set(Math.max(0, gc.getCollectionTime()) / 1000.0);
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge("asesorame_jvm_heap_used_bytes", "Heap usado").set(heap.getUsed());
+        gauge("asesorame_jvm_heap_committed_bytes", "Heap reservado").set(heap.getCommitted());
+    }
+
+    /* Bytes reservados por el hilo actual desde que empezó, o -1 si la JVM no lo mide */
+    static long currentThreadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /* Colecciones de GC de todos los colectores desde el arranque */
+    static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Escribe las métricas en el archivo; .json genera JSON y cualquier otra
+     * extensión texto de Prometheus. Se escribe en un temporal y se renombra.
+     */
+    public void write(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                writeJson(out);
+            } else {
+                writePrometheus(out);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Métricas guardadas en {}", path);
+    }
+
+    /**
+     * Formato de exposición de texto de Prometheus (version 0.0.4).
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Family family : families()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.prometheusName).append('\n');
+            List<Map.Entry<List<String>, Metric>> allSeries = family.series();
+            if (family.type != Type.SUMMARY) {
+                for (Map.Entry<List<String>, Metric> series : allSeries) {
+                    sample(out, family.name, series.getKey(), null, null, series.getValue().value());
+                }
+                continue;
+            }
+            List<LatencyHistogram> snapshots = new ArrayList<>(allSeries.size());
+            for (Map.Entry<List<String>, Metric> series : allSeries) {
+                LatencyHistogram snapshot = ((Histogram) series.getValue()).snapshot();
+                snapshots.add(snapshot);
+                for (double quantile : QUANTILES) {
+                    sample(out, family.name, series.getKey(), "quantile", format(quantile),
+                            seconds(snapshot.getValueAtPercentile(quantile * 100)));
+                }
+                sample(out, family.name + "_sum", series.getKey(), null, null, seconds(snapshot.getSum()));
+                sample(out, family.name + "_count", series.getKey(), null, null, snapshot.getCount());
+            }
+            // El máximo no forma parte de un summary: va como gauge aparte
+            out.append("# TYPE ").append(family.name).append("_max gauge\n");
+            for (int i = 0; i < allSeries.size(); i++) {
+                sample(out, family.name + "_max", allSeries.get(i).getKey(), null, null, seconds(snapshots.get(i).getMax()));
+            }
+        }
+    }
+
+    /**
+     * Las mismas métricas en JSON: una entrada por serie; los histogramas
+     * incluyen conteo, suma, mínimo, máximo y percentiles en segundos.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\n  \"timestamp\": \"").append(Instant.now().toString()).append("\",\n  \"metrics\": [");
+        boolean first = true;
+        for (Family family : families()) {
+            for (Map.Entry<List<String>, Metric> series : family.series()) {
+                out.append(first ? "\n" : ",\n");
+                first = false;
+                out.append("    {\"name\": ").append(jsonString(family.name))
+                        .append(", \"type\": \"").append(family.type.prometheusName).append("\", \"labels\": {");
+                List<String> labels = series.getKey();
+                for (int i = 0; i < labels.size(); i += 2) {
+                    out.append(i == 0 ? "" : ", ").append(jsonString(labels.get(i))).append(": ")
+                            .append(jsonString(labels.get(i + 1)));
+                }
+                out.append('}');
+                if (series.getValue() instanceof Histogram histogram) {
+                    LatencyHistogram snapshot = histogram.snapshot();
+                    out.append(", \"count\": ").append(Long.toString(snapshot.getCount()))
+                            .append(", \"sum\": ").append(format(seconds(snapshot.getSum())))
+                            .append(", \"min\": ").append(format(seconds(snapshot.getMin())))
+                            .append(", \"max\": ").append(format(seconds(snapshot.getMax())));
+                    for (double quantile : QUANTILES) {
+                        out.append(", \"p").append(format(quantile * 100).replace(".", "_")).append("\": ")
+                                .append(format(seconds(snapshot.getValueAtPercentile(quantile * 100))));
+                    }
+                } else {
+                    out.append(", \"value\": ").append(format(series.getValue().value()));
+                }
+                out.append('}');
+            }
+        }
+        out.append("\n  ]\n}\n");
+    }
+
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private List<Family> families() {
+        List<Family> result = new ArrayList<>();
+        synchronized (order) {
+            for (String name : order) {
+                result.add(families.get(name));
+            }
+        }
+        return result;
+    }
+
+    private static void sample(Appendable out, String name, List<String> labels, String extraName, String extraValue,
+                               double value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty() || extraName != null) {
+            out.append('{');
+            for (int i = 0; i < labels.size(); i += 2) {
+                out.append(i == 0 ? "" : ",").append(labels.get(i)).append("=\"")
+                        .append(escapeLabel(labels.get(i + 1))).append('"');
+            }
+            if (extraName != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraName).append("=\"").append(extraValue).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.isFinite(value) ? Double.toString(value) : (Double.isNaN(value) ? "NaN" : value > 0 ? "+Inf" : "-Inf");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return escapeHelp(value).replace("\"", "\\\"");
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                default -> {
+                    if (ch < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        sb.append(ch);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+        private final String prometheusName;
+
+        Type(String prometheusName) {
+            this.prometheusName = prometheusName;
+        }
+    }
+
+    /* Métrica con un nombre y varias series, una por combinación de etiquetas */
+    private static final class Family {
+
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final Map<List<String>, Metric> series = new ConcurrentHashMap<>();
+        private final List<List<String>> order = Collections.synchronizedList(new ArrayList<>());
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        <M extends Metric> M get(String[] labels, Supplier<M> factory) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Las etiquetas deben ir en pares nombre, valor: " + name);
+            }
+            return (M) series.computeIfAbsent(List.of(labels), key -> {
+                order.add(key);
+                return factory.get();
+            });
+        }
+
+        List<Map.Entry<List<String>, Metric>> series() {
+            List<Map.Entry<List<String>, Metric>> result = new ArrayList<>();
+            synchronized (order) {
+                for (List<String> labels : order) {
+                    result.add(Map.entry(labels, series.get(labels)));
+                }
+            }
+            return result;
+        }
+    }
+
+    private interface Metric {
+
+        double value();
+    }
+
+    /* Contador monótono */
+    public static final class Counter implements Metric {
+
+        private final LongAdder adder = new LongAdder();
+
+        public void increment() {
+            adder.increment();
+        }
+
+        public void add(long amount) {
+            adder.add(amount);
+        }
+
+        public long get() {
+            return adder.sum();
+        }
+
+        @Override
+        public double value() {
+            return adder.sum();
+        }
+    }
+
+    /* Valor puntual que se sobrescribe */
+    public static final class Gauge implements Metric {
+
+        private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+
+        public void set(double value) {
+            bits.set(Double.doubleToLongBits(value));
+        }
+
+        public double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        @Override
+        public double value() {
+            return get();
+        }
+    }
+
+    /**
+     * Histograma de latencias con un {@link LatencyHistogram} por hilo: registrar
+     * no sincroniza ni comparte líneas de caché entre hilos. Cuando un hilo nuevo
+     * empieza a registrar, los histogramas de los hilos ya terminados se suman a
+     * uno acumulado y se descartan, así que la memoria depende de los hilos vivos
+     * y no de todos los que han registrado alguna vez (p. ej. un hilo virtual por
+     * trabajo en {@link AsesorBatchService}).
+     */
+    public static final class Histogram implements Metric {
+
+        private final ConcurrentLinkedQueue<ThreadHistogram> perThread = new ConcurrentLinkedQueue<>();
+        // Valores de hilos terminados y de merge(); protegido por this
+        private final LatencyHistogram retired = new LatencyHistogram();
+        private final ThreadLocal<LatencyHistogram> local = ThreadLocal.withInitial(() -> {
+            retireFinishedThreads();
+            LatencyHistogram histogram = new LatencyHistogram();
+            perThread.add(new ThreadHistogram(Thread.currentThread(), histogram));
+            return histogram;
+        });
+
+        public void record(long nanos) {
+            local.get().recordValue(nanos);
+        }
+
+        /* Registra todos los valores de un histograma local (p. ej. de un lote) */
+        public void record(LatencyHistogram values) {
+            local.get().add(values);
+        }
+
+        /* Suma valores sin crear un histograma para el hilo actual; para combinaciones puntuales */
+        synchronized void merge(LatencyHistogram values) {
+            retired.add(values);
+        }
+
+        /**
+         * Combinación de los histogramas de todos los hilos. Es exacta una vez
+         * que los hilos que registran han terminado (o se ha sincronizado con ellos).
+         */
+        public synchronized LatencyHistogram snapshot() {
+            retireFinishedThreads();
+            LatencyHistogram total = retired.copy();
+            for (ThreadHistogram entry : perThread) {
+                total.add(entry.histogram);
+            }
+            return total;
+        }
+
+        // Un hilo terminado ya no escribe en su histograma: isAlive() da la visibilidad necesaria
+        private synchronized void retireFinishedThreads() {
+            for (Iterator<ThreadHistogram> it = perThread.iterator(); it.hasNext(); ) {
+                ThreadHistogram entry = it.next();
+                if (!entry.owner.isAlive()) {
+                    retired.add(entry.histogram);
+                    it.remove();
+                }
+            }
+        }
+
+        /* Hilos con histograma propio, incluidos los terminados aún sin retirar */
+        int threadCount() {
+            return perThread.size();
+        }
+
+        @Override
+        public double value() {
+            return snapshot().getCount();
+        }
+
+        private record ThreadHistogram(Thread owner, LatencyHistogram histogram) {
+        }
+    }
+}
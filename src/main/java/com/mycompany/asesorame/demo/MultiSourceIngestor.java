@@ -0,0 +1,558 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Iterables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lee varias fuentes de asesores a la vez: los archivos de un directorio, los
+ * que cumplen un patrón glob (por ejemplo {@code data/regiones/*.xlsx}) o cada
+ * hoja de un libro con varias hojas. Cada fuente es un fragmento que se lee,
+ * normaliza y valida en su propia tarea de un pool work-stealing, con su
+ * propio agregador de estadísticas; al final los agregadores se combinan y los
+ * válidos se concatenan en el orden de los fragmentos, así que el resultado no
+ * depende del orden en que terminen las tareas.
+ *
+ * Los fragmentos más grandes se lanzan primero: el tiempo total queda cerca del
+ * que tarda el mayor de ellos, y mientras los demás ya han terminado la
+ * validación de sus lotes sigue repartiéndose entre todos los hilos.
+ *
+ * Las hojas de un mismo libro comparten el zip abierto y la tabla de strings
+ * compartidos, que se lee una sola vez al abrir la primera de ellas.
+ */
+public final class MultiSourceIngestor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiSourceIngestor.class);
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    private final ExcelService excelService;
+    private final StatisticsService statisticsService;
+    private final UnaryOperator<List<Asesor>> validation;
+    private final int parallelism;
+    private final int batchSize;
+
+    /**
+     * @param validation normaliza y valida un lote y devuelve los válidos en
+     *                   orden; se llama desde varios hilos a la vez
+     */
+    public MultiSourceIngestor(ExcelService excelService, StatisticsService statisticsService,
+                               UnaryOperator<List<Asesor>> validation, int parallelism, int batchSize) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Paralelismo y tamaño de lote deben ser positivos");
+        }
+        this.excelService = excelService;
+        this.statisticsService = statisticsService;
+        this.validation = validation;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Indica si la entrada es un directorio o un patrón glob en lugar de un archivo.
+     */
+    public static boolean isMultiSource(String input) {
+        return isGlob(input) || Files.isDirectory(Paths.get(input));
+    }
+
+    private static boolean isGlob(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ruta base para los archivos auxiliares (errores, métricas) de una entrada
+     * múltiple: el directorio raíz, para dejarlos a su lado y no dentro.
+     */
+    public static String artifactBaseFor(String input) {
+        return rootOf(input).toAbsolutePath().normalize().toString();
+    }
+
+    /* Directorio desde el que se buscan los archivos: la entrada o la parte del patrón sin comodines */
+    static Path rootOf(String input) {
+        if (!isGlob(input)) {
+            return Paths.get(input);
+        }
+        int slash = rootSeparator(input);
+        if (slash < 0) {
+            return Paths.get("");
+        }
+        return Paths.get(slash == 0 ? input.substring(0, 1) : input.substring(0, slash));
+    }
+
+    /* Posición del último separador antes del primer comodín, o -1 si no hay */
+    private static int rootSeparator(String pattern) {
+        int firstGlob = pattern.length();
+        for (int i = 0; i < GLOB_CHARS.length(); i++) {
+            int at = pattern.indexOf(GLOB_CHARS.charAt(i));
+            if (at >= 0) {
+                firstGlob = Math.min(firstGlob, at);
+            }
+        }
+        return Math.max(pattern.lastIndexOf('/', firstGlob), pattern.lastIndexOf(File.separatorChar, firstGlob));
+    }
+
+    /**
+     * Fragmentos de una entrada: cada archivo .xlsx, .csv o .tsv del directorio
+     * o del patrón (ordenados por ruta), con los libros de varias hojas
+     * divididos en una hoja por fragmento. Un archivo suelto da un fragmento
+     * por hoja, o uno solo si es CSV o tiene una única hoja.
+     */
+    public static List<Shard> resolve(String input) throws IOException {
+        List<Path> files;
+        if (isGlob(input)) {
+            Path root = rootOf(input);
+            String pattern = input.substring(rootSeparator(input) + 1);
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("[/\\\\]").length;
+            files = listFiles(root.toString().isEmpty() ? Paths.get(".") : root, depth,
+                    (base, file) -> matcher.matches(base.relativize(file)));
+        } else if (Files.isDirectory(Paths.get(input))) {
+            files = listFiles(Paths.get(input), 1, (base, file) -> true);
+        } else {
+            files = List.of(Paths.get(input));
+        }
+
+        List<Shard> shards = new ArrayList<>();
+        for (Path file : files) {
+            addShards(file, shards);
+        }
+        return shards;
+    }
+
+    private interface FileFilter {
+        boolean accept(Path base, Path file);
+    }
+
+    private static List<Path> listFiles(Path base, int depth, FileFilter filter) throws IOException {
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(base, depth)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(MultiSourceIngestor::isInputFile)
+                    .filter(file -> filter.accept(base, file))
+                    .sorted()
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Se ignoran ocultos y bloqueos de Excel abiertos (~$libro.xlsx)
+    private static boolean isInputFile(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || name.startsWith("~$")) {
+            return false;
+        }
+        return ExcelService.isDelimitedFile(name) || name.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+
+    private static void addShards(Path file, List<Shard> shards) throws IOException {
+        if (ExcelService.isDelimitedFile(file.toString())) {
+            shards.add(new Shard(file, null, Files.size(file)));
+            return;
+        }
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            Map<String, String> sheets = XlsxAsesorReader.listSheets(zipFile);
+            if (sheets.size() <= 1) {
+                shards.add(new Shard(file, null, Files.size(file)));
+                return;
+            }
+            for (Map.Entry<String, String> sheet : sheets.entrySet()) {
+                ZipEntry entry = zipFile.getEntry(sheet.getValue());
+                shards.add(new Shard(file, sheet.getKey(), entry == null ? 0 : Math.max(0, entry.getCompressedSize())));
+            }
+        }
+    }
+
+    /**
+     * Lee y valida todos los fragmentos en paralelo. Si alguno falla se
+     * cancelan los demás y se propaga el error indicando el fragmento.
+     */
+    public Result run(List<Shard> shards) throws IOException {
+        Stopwatch total = Stopwatch.createStarted();
+        int workers = Math.max(1, Math.min(parallelism, shards.size()));
+        // Con pocos fragmentos, cada lector CSV puede usar varios hilos
+        int readerThreads = Math.max(1, parallelism / Math.max(1, shards.size()));
+
+        List<Integer> bySize = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            bySize.add(i);
+        }
+        bySize.sort(Comparator.comparingLong((Integer i) -> shards.get(i).getWeight()).reversed());
+
+        // Un libro por archivo con varias hojas; lo abre la primera tarea que lo necesita
+        Map<Path, Supplier<XlsxAsesorReader.Workbook>> workbooks = new HashMap<>();
+        List<XlsxAsesorReader.Workbook> opened = Collections.synchronizedList(new ArrayList<>());
+        for (Shard shard : shards) {
+            if (shard.getSheet() != null) {
+                workbooks.computeIfAbsent(shard.getFile(), file -> Suppliers.memoize(() -> {
+                    try {
+                        XlsxAsesorReader.Workbook workbook = excelService.openWorkbook(file.toString());
+                        opened.add(workbook);
+                        return workbook;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        }
+
+        ExecutorService pool = Executors.newWorkStealingPool(workers);
+        try {
+            List<Future<ShardResult>> futures = new ArrayList<>(Collections.nCopies(shards.size(), null));
+            for (int i : bySize) {
+                Shard shard = shards.get(i);
+                Supplier<XlsxAsesorReader.Workbook> workbook = workbooks.get(shard.getFile());
+                futures.set(i, pool.submit(() -> readShard(shard, workbook, readerThreads)));
+            }
+
+            List<ShardResult> results = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrumpido leyendo " + shards.get(i).getName(), e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw new IOException("Error leyendo " + shards.get(i).getName() + ": " + cause.getMessage(), cause);
+                }
+            }
+            return new Result(results, statisticsService.newAggregator(), statisticsService.newSketchAggregator(),
+                    total.elapsed(TimeUnit.MILLISECONDS));
+        } finally {
+            pool.shutdownNow();
+            closeWorkbooks(pool, opened);
+        }
+    }
+
+    /* Cierra los libros cuando ya no queda ninguna tarea leyendo de ellos */
+    private static void closeWorkbooks(ExecutorService pool, List<XlsxAsesorReader.Workbook> workbooks) {
+        if (workbooks.isEmpty()) {
+            return;
+        }
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Quedan lecturas en curso; se cierran sus libros igualmente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (workbooks) {
+            for (XlsxAsesorReader.Workbook workbook : workbooks) {
+                try {
+                    workbook.close();
+                } catch (IOException e) {
+                    logger.debug("Error cerrando un libro: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ShardResult readShard(Shard shard, Supplier<XlsxAsesorReader.Workbook> workbook, int readerThreads)
+            throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        StatisticsService.Aggregator aggregator = statisticsService.newAggregator();
+        StatisticsService.SketchAggregator sketches = statisticsService.newSketchAggregator();
+        List<Asesor> valid = new ArrayList<>();
+        long read = 0;
+        try (AsesorReader reader = open(shard, workbook, readerThreads)) {
+            List<Asesor> batch = new ArrayList<>(batchSize);
+            while (reader.hasNext()) {
+                batch.add(reader.next());
+                if (batch.size() == batchSize) {
+                    read += accept(batch, valid, aggregator, sketches);
+                }
+            }
+            read += accept(batch, valid, aggregator, sketches);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.debug("Fragmento {} leído: {} asesores, {} válidos en {} ms",
+                    shard.getName(), read, valid.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        return new ShardResult(shard, read, valid, aggregator, sketches, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private int accept(List<Asesor> batch, List<Asesor> valid, StatisticsService.Aggregator aggregator,
+                       StatisticsService.SketchAggregator sketches) {
+        int size = batch.size();
+        if (size > 0) {
+            List<Asesor> accepted = validation.apply(batch);
+            aggregator.addAll(accepted);
+            sketches.addAll(accepted);
+            valid.addAll(accepted);
+            batch.clear();
+        }
+        return size;
+    }
+
+    /* workbook es null salvo para las hojas de un libro con varias */
+    private AsesorReader open(Shard shard, Supplier<XlsxAsesorReader.Workbook> workbook, int readerThreads)
+            throws IOException {
+        String path = shard.getFile().toString();
+        if (ExcelService.isDelimitedFile(path)) {
+            return excelService.openCsvReader(path, readerThreads);
+        }
+        if (workbook != null) {
+            return workbook.get().openSheet(shard.getSheet());
+        }
+        return excelService.openReader(path, shard.getSheet());
+    }
+
+    /* Un archivo, o una hoja de un libro */
+    public static final class Shard {
+
+        private final Path file;
+        private final String sheet;
+        private final long weight;
+
+        Shard(Path file, String sheet, long weight) {
+            this.file = file;
+            this.sheet = sheet;
+            this.weight = weight;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        /* Nombre de la hoja, o null si se lee la única (o primera) hoja del archivo */
+        public String getSheet() {
+            return sheet;
+        }
+
+        /* Tamaño aproximado en bytes, para lanzar primero los más grandes */
+        long getWeight() {
+            return weight;
+        }
+
+        public String getName() {
+            return sheet == null ? file.toString() : file + "#" + sheet;
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /* Resultado de un fragmento */
+    public static final class ShardResult {
+
+        private final Shard shard;
+        private final long read;
+        private final List<Asesor> validAsesores;
+        private final StatisticsService.Aggregator aggregator;
+        private final StatisticsService.SketchAggregator sketches;
+        private final long elapsedMillis;
+
+        ShardResult(Shard shard, long read, List<Asesor> validAsesores, StatisticsService.Aggregator aggregator,
+                    StatisticsService.SketchAggregator sketches, long elapsedMillis) {
+            this.shard = shard;
+            this.read = read;
+            this.validAsesores = validAsesores;
+            this.aggregator = aggregator;
+            this.sketches = sketches;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Shard getShard() {
+            return shard;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getValid() {
+            return validAsesores.size();
+        }
+
+        public List<Asesor> getValidAsesores() {
+            return validAsesores;
+        }
+
+        public StatisticsService.Aggregator getAggregator() {
+            return aggregator;
+        }
+
+        public StatisticsService.SketchAggregator getSketches() {
+            return sketches;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    /* Resultado combinado, en el orden de los fragmentos */
+    public static final class Result {
+
+        private final List<ShardResult> shards;
+        private final List<Asesor> validAsesores;
+        private final StatisticsService.Aggregator aggregator;
+        private final StatisticsService.SketchAggregator sketches;
+        private final long read;
+        private final long elapsedMillis;
+
+        Result(List<ShardResult> shards, StatisticsService.Aggregator aggregator,
+               StatisticsService.SketchAggregator sketches, long elapsedMillis) {
+            this.shards = List.copyOf(shards);
+            this.aggregator = aggregator;
+            this.sketches = sketches;
+            this.elapsedMillis = elapsedMillis;
+            long read = 0;
+            List<List<Asesor>> parts = new ArrayList<>(shards.size());
+            for (ShardResult shard : shards) {
+                read += shard.getRead();
+                parts.add(shard.getValidAsesores());
+                aggregator.merge(shard.getAggregator());
+                sketches.merge(shard.getSketches());
+            }
+            this.read = read;
+            this.validAsesores = new Concatenation(parts);
+        }
+
+        public List<ShardResult> getShards() {
+            return shards;
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getValid() {
+            return validAsesores.size();
+        }
+
+        public long getInvalid() {
+            return read - validAsesores.size();
+        }
+
+        /* Vista de solo lectura que encadena los válidos de cada fragmento, sin copiarlos */
+        public List<Asesor> getValidAsesores() {
+            return validAsesores;
+        }
+
+        /* Estadísticas de todos los fragmentos combinadas */
+        public StatisticsService.Aggregator getAggregator() {
+            return aggregator;
+        }
+
+        /* Top-K y conteos aproximados de todos los fragmentos combinados */
+        public StatisticsService.SketchAggregator getSketches() {
+            return sketches;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /* El fragmento que más tardó; marca el mínimo posible del tiempo total */
+        public ShardResult getSlowest() {
+            return shards.stream().max(Comparator.comparingLong(ShardResult::getElapsedMillis)).orElse(null);
+        }
+
+        public void publish(Metrics metrics) {
+            metrics.gauge("asesorame_multi_seconds", "Duración de la lectura y validación de todas las fuentes")
+                    .set(elapsedMillis / 1000.0);
+            metrics.gauge("asesorame_multi_shards", "Archivos u hojas leídos en paralelo").set(shards.size());
+            for (ShardResult shard : shards) {
+                String[] labels = {"shard", shard.getShard().getName()};
+                metrics.counter("asesorame_shard_records_total", "Asesores leídos por fuente", labels)
+                        .add(shard.getRead());
+                metrics.counter("asesorame_shard_valid_total", "Asesores válidos por fuente", labels)
+                        .add(shard.getValid());
+                metrics.gauge("asesorame_shard_seconds", "Duración de la lectura y validación de la fuente", labels)
+                        .set(shard.getElapsedMillis() / 1000.0);
+            }
+        }
+    }
+
+    /* Listas encadenadas; get() busca el fragmento por los inicios acumulados */
+    private static final class Concatenation extends AbstractList<Asesor> implements RandomAccess {
+
+        private final List<List<Asesor>> parts;
+        private final int[] starts;
+        private final int size;
+
+        Concatenation(List<List<Asesor>> parts) {
+            this.parts = parts;
+            this.starts = new int[parts.size()];
+            int size = 0;
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = size;
+                size = Math.addExact(size, parts.get(i).size());
+            }
+            this.size = size;
+        }
+
+        @Override
+        public Asesor get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango (tamaño " + size + ")");
+            }
+            int part = Arrays.binarySearch(starts, index);
+            if (part < 0) {
+                part = -part - 2;
+            }
+            // Con fragmentos vacíos varios comparten inicio: el que tiene filas es el último
+            while (index - starts[part] >= parts.get(part).size()) {
+                part++;
+            }
+            return parts.get(part).get(index - starts[part]);
+        }
+
+        @Override
+        public Iterator<Asesor> iterator() {
+            return Iterables.unmodifiableIterable(Iterables.concat(parts)).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Columna de strings empaquetada: todos los valores en UTF-8 consecutivos en un
+ * único byte[] más un array de offsets, en lugar de un objeto String por fila.
+ * Un valor null se marca con offset final negativo.
+ */
+final class PackedStrings {
+
+    // Mayor byte[] que admiten todas las JVM
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] data;
+    // ends[i] = fin (exclusivo) del valor i; negativo (-(fin) - 1) si el valor es null
+    private int[] ends;
+    private int size;
+    private int length;
+
+    PackedStrings(int expectedRows, int expectedBytesPerValue) {
+        // En long: con muchas filas el producto no cabe en un int y saldría negativo
+        this.data = new byte[(int) Math.max(16, Math.min(MAX_ARRAY_SIZE, (long) expectedRows * expectedBytesPerValue))];
+        this.ends = new int[Math.max(4, expectedRows)];
+    }
+
+    void add(String value) {
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, grow(ends.length));
+        }
+        if (value == null) {
+            ends[size++] = -length - 1;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(length + bytes.length);
+        System.arraycopy(bytes, 0, data, length, bytes.length);
+        length += bytes.length;
+        ends[size++] = length;
+    }
+
+    String get(int index) {
+        int end = ends[index];
+        if (end < 0) {
+            return null;
+        }
+        int start = start(index);
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compara el valor con un prefijo sin decodificarlo a String.
+     */
+    boolean startsWith(int index, byte[] prefix) {
+        int end = ends[index];
+        if (end < 0) {
+            return false;
+        }
+        int start = start(index);
+        if (end - start < prefix.length) {
+            return false;
+        }
+        return Arrays.equals(data, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+    boolean isNull(int index) {
+        return ends[index] < 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /* Bytes ocupados por los datos */
+    int byteLength() {
+        return length;
+    }
+
+    byte[] rawData() {
+        return data;
+    }
+
+    int rawEnd(int index) {
+        return ends[index];
+    }
+
+    void trim() {
+        data = Arrays.copyOf(data, length);
+        ends = Arrays.copyOf(ends, size);
+    }
+
+    private int start(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        int previous = ends[index - 1];
+        return previous < 0 ? -previous - 1 : previous;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required < 0) {
+            throw new IllegalStateException("La columna supera 2 GB");
+        }
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, grow(data.length)));
+        }
+    }
+
+    private static int grow(int current) {
+        return (int) Math.min(MAX_ARRAY_SIZE, current + (current >> 1) + 16L);
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Zip con las entradas comprimidas en paralelo, al estilo de pigz. Los datos
+ * de cada entrada se cortan en bloques que se comprimen en un pool con
+ * deflate sin cabecera; cada bloque termina con SYNC_FLUSH (el último con
+ * FINISH) y usa como diccionario los últimos 32 KB del anterior, así que al
+ * concatenarlos queda un único flujo deflate válido con casi la misma
+ * compresión que el secuencial. El CRC de la entrada se obtiene combinando
+ * los CRC de los bloques, calculados también en el pool.
+ *
+ * Los bloques se escriben en orden a medida que terminan, con un número
+ * acotado en vuelo, así que la memoria no depende del tamaño de la entrada.
+ * Como los tamaños no se conocen al empezar una entrada, cada una lleva un
+ * descriptor de datos tras el contenido (igual que ZipOutputStream). La
+ * cabecera local se escribe antes de saber si la entrada pasará de 4 GB y
+ * no lleva el extra ZIP64, así que una entrada de ese tamaño se rechaza con
+ * una IOException en lugar de dejar un descriptor que los lectores en
+ * streaming no sabrían leer. Excel tampoco abre libros con extras ZIP64 en
+ * las cabeceras locales. El archivo en conjunto sí puede pasar de 4 GB:
+ * desplazamientos y directorio central usan ZIP64 cuando no caben en 32 bits.
+ *
+ * Se usa como ZipOutputStream: {@link #putNextEntry(String)}, escribir,
+ * {@link #closeEntry()} y {@link #close()}. No es thread-safe.
+ */
+final class ParallelZipOutputStream extends OutputStream {
+
+    static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int DATA_DESCRIPTOR = 0x08074b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int ZIP64_END = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END = 0x06054b50;
+    // Descriptor de datos tras el contenido (bit 3) y nombres en UTF-8 (bit 11)
+    private static final int FLAGS = 0x0808;
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int window;
+    // Tamaño (original o comprimido) a partir del cual se rechaza una entrada
+    private final long entryLimit;
+    private final ExecutorService executor;
+    private final Deque<Future<Block>> inFlight = new ArrayDeque<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final int dosTime;
+    private final byte[] scratch = new byte[8];
+
+    private byte[] buffer;
+    private int count;
+    private byte[] previous;
+    private Entry current;
+    private long written;
+    private boolean closed;
+
+    ParallelZipOutputStream(OutputStream out, int level, int threads) {
+        this(out, level, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    ParallelZipOutputStream(OutputStream out, int level, int threads, int blockSize) {
+        this(out, level, threads, blockSize, ZIP64_LIMIT);
+    }
+
+    ParallelZipOutputStream(OutputStream out, int level, int threads, int blockSize, long entryLimit) {
+        if (threads < 1 || blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Hilos o tamaño de bloque inválidos: " + threads + ", " + blockSize);
+        }
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.window = threads * 2;
+        this.entryLimit = Math.min(entryLimit, ZIP64_LIMIT);
+        this.executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("zip-deflate-%d").setDaemon(true).build());
+        this.dosTime = dosTime(LocalDateTime.now());
+    }
+
+    /**
+     * Empieza una entrada nueva, cerrando la anterior si la hay.
+     */
+    void putNextEntry(String name) throws IOException {
+        ensureOpen();
+        if (current != null) {
+            closeEntry();
+        }
+        current = new Entry(name.getBytes(StandardCharsets.UTF_8), written);
+        writeInt(LOCAL_HEADER);
+        writeShort(20);                 // versión necesaria
+        writeShort(FLAGS);
+        writeShort(Deflater.DEFLATED);
+        writeInt(dosTime);
+        writeInt(0);                    // CRC y tamaños van en el descriptor
+        writeInt(0);
+        writeInt(0);
+        writeShort(current.name.length);
+        writeShort(0);
+        writeBytes(current.name, 0, current.name.length);
+        buffer = new byte[blockSize];
+        count = 0;
+        previous = null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            submit(false);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        if (current == null) {
+            throw new IOException("No hay ninguna entrada abierta");
+        }
+        while (length > 0) {
+            if (count == buffer.length) {
+                submit(false);
+            }
+            int n = Math.min(length, buffer.length - count);
+            System.arraycopy(data, offset, buffer, count, n);
+            count += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Comprime lo que queda de la entrada y escribe su descriptor de datos.
+     */
+    void closeEntry() throws IOException {
+        if (current == null) {
+            return;
+        }
+        submit(true);
+        while (!inFlight.isEmpty()) {
+            drain(inFlight.poll());
+        }
+        Entry entry = current;
+        current = null;
+        buffer = null;
+        previous = null;
+        writeInt(DATA_DESCRIPTOR);
+        writeInt(entry.crc);
+        writeInt((int) entry.compressedSize);
+        writeInt((int) entry.size);
+        entries.add(entry);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Cierra la entrada abierta, escribe el directorio central y cierra el flujo.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeEntry();
+            writeCentralDirectory();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        byte[] data = buffer;
+        int length = count;
+        byte[] dictionary = previous;
+        inFlight.add(executor.submit(() -> compress(data, length, dictionary, last)));
+        previous = data;
+        buffer = last ? null : new byte[blockSize];
+        count = 0;
+        while (inFlight.size() > window) {
+            drain(inFlight.poll());
+        }
+    }
+
+    private void drain(Future<Block> future) throws IOException {
+        Block block;
+        try {
+            block = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compresión interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error comprimiendo " + new String(current.name, StandardCharsets.UTF_8)
+                    + ": " + e.getCause().getMessage(), e.getCause());
+        }
+        writeBytes(block.data, 0, block.length);
+        current.crc = crc32Combine(current.crc, block.crc, block.rawLength);
+        current.size += block.rawLength;
+        current.compressedSize += block.length;
+        if (current.size >= entryLimit || current.compressedSize >= entryLimit) {
+            throw new IOException("La entrada " + new String(current.name, StandardCharsets.UTF_8)
+                    + " supera los " + entryLimit + " bytes; las entradas ZIP64 no están soportadas");
+        }
+    }
+
+    // Se ejecuta en el pool; los bloques ya enviados no se vuelven a modificar
+    private Block compress(byte[] data, int length, byte[] dictionary, boolean last) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(data, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] compressed = new byte[length + (length >> 3) + 64];
+            int size = 0;
+            while (true) {
+                size += deflater.deflate(compressed, size, compressed.length - size,
+                        last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                // Con SYNC_FLUSH el bloque está completo si sobró espacio de salida
+                if (last ? deflater.finished() : size < compressed.length) {
+                    break;
+                }
+                if (size == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+            }
+            return new Block(compressed, size, (int) crc.getValue(), length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = written;
+        for (Entry entry : entries) {
+            boolean offset64 = entry.offset >= ZIP64_LIMIT;
+            writeInt(CENTRAL_HEADER);
+            writeShort(offset64 ? 45 : 20);    // versión que lo creó
+            writeShort(offset64 ? 45 : 20);    // versión necesaria
+            writeShort(FLAGS);
+            writeShort(Deflater.DEFLATED);
+            writeInt(dosTime);
+            writeInt(entry.crc);
+            writeInt((int) entry.compressedSize);
+            writeInt((int) entry.size);
+            writeShort(entry.name.length);
+            writeShort(offset64 ? 12 : 0);
+            writeShort(0);                     // comentario
+            writeShort(0);                     // disco
+            writeShort(0);                     // atributos internos
+            writeInt(0);                       // atributos externos
+            writeInt(offset64 ? (int) ZIP64_LIMIT : (int) entry.offset);
+            writeBytes(entry.name, 0, entry.name.length);
+            if (offset64) {
+                writeShort(0x0001);            // extra ZIP64 con solo el desplazamiento
+                writeShort(8);
+                writeLong(entry.offset);
+            }
+        }
+        long size = written - start;
+        if (entries.size() >= 0xFFFF || start >= ZIP64_LIMIT || size >= ZIP64_LIMIT) {
+            long zip64End = written;
+            writeInt(ZIP64_END);
+            writeLong(44);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entries.size());
+            writeLong(entries.size());
+            writeLong(size);
+            writeLong(start);
+            writeInt(ZIP64_LOCATOR);
+            writeInt(0);
+            writeLong(zip64End);
+            writeInt(1);
+        }
+        writeInt(END);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(entries.size(), 0xFFFF));
+        writeShort(Math.min(entries.size(), 0xFFFF));
+        writeInt((int) Math.min(size, ZIP64_LIMIT));
+        writeInt((int) Math.min(start, ZIP64_LIMIT));
+        writeShort(0);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("El zip ya está cerrado");
+        }
+    }
+
+    private void writeShort(int value) throws IOException {
+        scratch[0] = (byte) value;
+        scratch[1] = (byte) (value >>> 8);
+        writeBytes(scratch, 0, 2);
+    }
+
+    private void writeInt(int value) throws IOException {
+        for (int i = 0; i < 4; i++) {
+            scratch[i] = (byte) (value >>> (8 * i));
+        }
+        writeBytes(scratch, 0, 4);
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (value >>> (8 * i));
+        }
+        writeBytes(scratch, 0, 8);
+    }
+
+    private void writeBytes(byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        written += length;
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    /**
+     * CRC32 de la concatenación de dos bloques a partir de sus CRC y de la
+     * longitud del segundo (crc32_combine de zlib).
+     */
+    static int crc32Combine(int crc1, int crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xEDB88320L;          // polinomio CRC-32
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);    // operador para 2 ceros
+        gf2MatrixSquare(odd, even);    // operador para 4 ceros
+
+        long crc = crc1 & 0xFFFFFFFFL;
+        do {
+            // Cada pasada eleva el operador al cuadrado: 1 byte de ceros, 2, 4...
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+        return (int) (crc ^ (crc2 & 0xFFFFFFFFL));
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] name;
+        private final long offset;
+        private int crc;
+        private long size;
+        private long compressedSize;
+
+        Entry(byte[] name, long offset) {
+            this.name = name;
+            this.offset = offset;
+        }
+    }
+
+    private record Block(byte[] data, int length, int crc, int rawLength) {
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Valores más frecuentes (top-K) con el algoritmo Space-Saving: sigue como
+ * mucho {@code capacity} valores y, cuando llega uno nuevo con todos los
+ * contadores ocupados, reemplaza al de menor conteo heredando ese conteo
+ * como error. Así el conteo de cada valor seguido es una cota superior de la
+ * frecuencia real, y {@code conteo - error} una cota inferior; cualquier
+ * valor con frecuencia mayor que total / capacity está seguro en la lista.
+ *
+ * Mientras no haya más valores distintos que contadores no se reemplaza
+ * ninguno y los conteos son exactos ({@link #isExact()}). El mínimo se
+ * localiza con un montículo indexado, así que cada valor cuesta O(log
+ * capacity). Se combina con {@link #merge(SpaceSaving)} (resúmenes
+ * combinables de Agarwal et al.). No es thread-safe.
+ */
+public final class SpaceSaving {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final Map<String, Integer> slots;
+    private final String[] values;
+    private final long[] counts;
+    private final long[] errors;
+    // Montículo de mínimos sobre los slots, y posición de cada slot en él
+    private final int[] heap;
+    private final int[] positions;
+    private int size;
+    private long total;
+    private boolean exact = true;
+
+    public SpaceSaving() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new HashMap<>(Math.min(capacity, 1024) * 2);
+        this.values = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+    }
+
+    public void add(String value) {
+        add(value, 1);
+    }
+
+    public void add(String value, long count) {
+        if (value == null) {
+            return;
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("El conteo no puede ser negativo: " + count);
+        }
+        total += count;
+        Integer slot = slots.get(value);
+        if (slot != null) {
+            counts[slot] += count;
+            siftDown(positions[slot]);
+        } else if (size < capacity) {
+            int s = size++;
+            values[s] = value;
+            counts[s] = count;
+            errors[s] = 0;
+            heap[s] = s;
+            positions[s] = s;
+            slots.put(value, s);
+            siftUp(s);
+        } else {
+            // Reemplaza al mínimo: el nuevo hereda su conteo como error
+            int s = heap[0];
+            long min = counts[s];
+            slots.remove(values[s]);
+            values[s] = value;
+            counts[s] = min + count;
+            errors[s] = min;
+            slots.put(value, s);
+            siftDown(0);
+            exact = false;
+        }
+    }
+
+    /**
+     * Cota superior de la frecuencia del valor: su conteo si se sigue y, si
+     * no, el mínimo de los seguidos (0 si aún quedan contadores libres).
+     */
+    public long estimate(String value) {
+        Integer slot = value == null ? null : slots.get(value);
+        if (slot != null) {
+            return counts[slot];
+        }
+        return minCount();
+    }
+
+    /**
+     * Los {@code k} valores con mayor conteo, de mayor a menor.
+     */
+    public List<Counter> top(int k) {
+        List<Counter> result = new ArrayList<>(size);
+        for (int s = 0; s < size; s++) {
+            result.add(new Counter(values[s], counts[s], errors[s]));
+        }
+        result.sort(Counter.BY_COUNT);
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+
+    /**
+     * Combina otro resumen: cada valor suma su conteo en ambos y, donde no se
+     * sigue, el mínimo de ese resumen (que acota su frecuencia allí). Se
+     * conservan los {@code capacity} mayores.
+     */
+    public void merge(SpaceSaving other) {
+        long minThis = minCount();
+        long minOther = other.minCount();
+        Map<String, Counter> combined = new HashMap<>((size + other.size) * 2);
+        for (int s = 0; s < size; s++) {
+            Integer o = other.slots.get(values[s]);
+            long count = o == null ? minOther : other.counts[o];
+            long error = o == null ? minOther : other.errors[o];
+            combined.put(values[s], new Counter(values[s], counts[s] + count, errors[s] + error));
+        }
+        for (int o = 0; o < other.size; o++) {
+            if (!slots.containsKey(other.values[o])) {
+                combined.put(other.values[o], new Counter(other.values[o],
+                        other.counts[o] + minThis, other.errors[o] + minThis));
+            }
+        }
+        List<Counter> merged = new ArrayList<>(combined.values());
+        merged.sort(Counter.BY_COUNT);
+        exact = exact && other.exact && merged.size() <= capacity;
+        total += other.total;
+
+        slots.clear();
+        size = Math.min(capacity, merged.size());
+        // De menor a mayor conteo: un array ordenado ya es un montículo de mínimos
+        for (int s = 0; s < size; s++) {
+            Counter counter = merged.get(size - 1 - s);
+            values[s] = counter.getValue();
+            counts[s] = counter.getCount();
+            errors[s] = counter.getError();
+            heap[s] = s;
+            positions[s] = s;
+            slots.put(values[s], s);
+        }
+        Arrays.fill(values, size, capacity, null);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /* Sin reemplazos: los conteos son las frecuencias exactas */
+    public boolean isExact() {
+        return exact;
+    }
+
+    private long minCount() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    private void siftUp(int i) {
+        int slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(i, heap[parent]);
+            i = parent;
+        }
+        place(i, slot);
+    }
+
+    private void siftDown(int i) {
+        int slot = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            place(i, heap[child]);
+            i = child;
+        }
+        place(i, slot);
+    }
+
+    private void place(int position, int slot) {
+        heap[position] = slot;
+        positions[slot] = position;
+    }
+
+    /**
+     * Valor seguido con su conteo (cota superior) y el error heredado al
+     * entrar; la frecuencia real está entre {@code count - error} y {@code count}.
+     */
+    public static final class Counter {
+
+        static final Comparator<Counter> BY_COUNT = Comparator.comparingLong(Counter::getCount).reversed()
+                .thenComparing(Counter::getValue);
+
+        private final String value;
+        private final long count;
+        private final long error;
+
+        Counter(String value, long count, long error) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        /* Frecuencia mínima garantizada */
+        public long getGuaranteedCount() {
+            return count - error;
+        }
+
+        @Override
+        public String toString() {
+            return error == 0 ? value + "=" + count : value + "=" + count + " (±" + error + ")";
+        }
+    }
+}
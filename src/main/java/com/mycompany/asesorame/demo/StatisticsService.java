@@ -4,10 +4,622 @@
  */
 package com.mycompany.asesorame.demo;
 
+import com.google.common.base.Objects;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.primitives.Ints;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 /**
  *
  * @author jeanc
  */
 public class StatisticsService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+
+    static final String SIN_VALOR = "(sin valor)";
+
+    /**
+     * Resumen general: total de asesores y especialidades/ubicaciones presentes.
+     */
+    public EmployeeSummary createSummary(List<Asesor> asesores) {
+        return aggregate(asesores).toSummary();
+    }
+
+    /**
+     * Estadísticas por departamento (ubicación) con la distribución de especialidades.
+     */
+    public Map<String, DepartmentStats> calculateDepartmentStatistics(List<Asesor> asesores) {
+        Map<String, DepartmentStats> result = aggregate(asesores).toDepartmentStats();
+        logger.debug("Estadísticas calculadas para {} departamentos", result.size());
+        return result;
+    }
+
+    /**
+     * Recorre los asesores una sola vez y devuelve un agregador con los conteos.
+     */
+    public Aggregator aggregate(Iterable<Asesor> asesores) {
+        Aggregator aggregator = new Aggregator();
+        aggregator.addAll(asesores);
+        return aggregator;
+    }
+
+    /**
+     * Igual que {@link #aggregate(Iterable)} para registros inmutables; al ser
+     * flyweights, especialidad y ubicación se resuelven casi siempre por identidad.
+     */
+    public Aggregator aggregateRecords(Iterable<AsesorRecord> asesores) {
+        Aggregator aggregator = new Aggregator();
+        for (AsesorRecord asesor : asesores) {
+            aggregator.add(asesor);
+        }
+        return aggregator;
+    }
+
+    public Aggregator newAggregator() {
+        return new Aggregator();
+    }
+
+    /**
+     * Agregados aproximados en memoria fija (top-K, valores distintos y
+     * frecuencias) para listas demasiado grandes para contar de forma exacta.
+     */
+    public SketchAggregator sketch(Iterable<Asesor> asesores) {
+        SketchAggregator sketches = new SketchAggregator();
+        sketches.addAll(asesores);
+        return sketches;
+    }
+
+    /**
+     * Como {@link #sketch(Iterable)} sobre las columnas (tabla en heap o
+     * snapshot mapeado), sin materializar asesores.
+     */
+    public SketchAggregator sketch(AsesorColumns table) {
+        SketchAggregator sketches = new SketchAggregator();
+        sketches.addAll(table);
+        return sketches;
+    }
+
+    public SketchAggregator newSketchAggregator() {
+        return new SketchAggregator();
+    }
+
+    /**
+     * Agrega directamente sobre las columnas de códigos (tabla en heap o snapshot
+     * mapeado), sin materializar asesores.
+     */
+    public Aggregator aggregate(AsesorColumns table) {
+        long[][] counts = table.countByUbicacionAndEspecialidad();
+        StringDictionary especialidades = table.getEspecialidadDictionary();
+        StringDictionary ubicaciones = table.getUbicacionDictionary();
+        Aggregator aggregator = new Aggregator();
+        for (int u = 0; u < counts.length; u++) {
+            for (int e = 0; e < counts[u].length; e++) {
+                if (counts[u][e] != 0) {
+                    aggregator.add(especialidades.decode(e - 1), ubicaciones.decode(u - 1), counts[u][e]);
+                }
+            }
+        }
+        return aggregator;
+    }
+
+    /**
+     * Filtra por especialidad y/o ubicación; un criterio null no se aplica.
+     */
+    public List<Asesor> filterAsesores(List<Asesor> asesores, String especialidad, String ubicacion) {
+        return FluentIterable.from(asesores)
+                .filter(a -> (especialidad == null || Objects.equal(especialidad, a.getEspecialidad()))
+                        && (ubicacion == null || Objects.equal(ubicacion, a.getUbicacion())))
+                .toList();
+    }
+
+    /**
+     * Construye los índices para lanzar muchos filtros sobre la misma lista.
+     */
+    public AsesorIndex index(List<Asesor> asesores) {
+        return new AsesorIndex(asesores);
+    }
+
+    /**
+     * Filtro indexado: mismo resultado que {@link #filterAsesores(List, String, String)}
+     * pero con coste proporcional al número de coincidencias.
+     */
+    public List<Asesor> filterAsesores(AsesorIndex index, String especialidad, String ubicacion) {
+        return index.query(AsesorIndex.Query.where().especialidad(especialidad).ubicacion(ubicacion));
+    }
+
+    /**
+     * Filtro sobre la tabla columnar: compara códigos de diccionario y devuelve
+     * una vista perezosa de las filas que cumplen.
+     */
+    public List<Asesor> filterAsesores(AsesorTable table, String especialidad, String ubicacion) {
+        return table.view(table.filter(especialidad, ubicacion));
+    }
+
+    /**
+     * Número de asesores que cumplen los criterios (null = no filtrar),
+     * comparando códigos de diccionario sin materializar ninguna fila.
+     */
+    public int countAsesores(AsesorColumns asesores, String especialidad, String ubicacion) {
+        int especialidadCode = especialidad == null ? 0 : asesores.getEspecialidadDictionary().lookup(especialidad);
+        int ubicacionCode = ubicacion == null ? 0 : asesores.getUbicacionDictionary().lookup(ubicacion);
+        if ((especialidad != null && especialidadCode == StringDictionary.NULL_CODE)
+                || (ubicacion != null && ubicacionCode == StringDictionary.NULL_CODE)) {
+            return 0;
+        }
+        int count = 0;
+        for (int row = 0; row < asesores.size(); row++) {
+            if ((especialidad == null || asesores.especialidadCode(row) == especialidadCode)
+                    && (ubicacion == null || asesores.ubicacionCode(row) == ubicacionCode)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Agrupa los asesores por especialidad usando un Multimap de Guava.
+     */
+    public Multimap<String, Asesor> groupByEspecialidad(List<Asesor> asesores) {
+        return Multimaps.index(asesores, a -> StringUtils.defaultIfBlank(a.getEspecialidad(), SIN_VALOR));
+    }
+
+    /**
+     * Agregador incremental: recibe asesores de uno en uno o por lotes y mantiene
+     * solo contadores primitivos por especialidad x ubicación, sin retener los
+     * asesores. Puede producir el resumen y las estadísticas por departamento en
+     * cualquier momento.
+     *
+     * No es thread-safe: cada hilo usa su propio agregador y al final se combinan
+     * con {@link #merge(Aggregator)}.
+     */
+    public static class Aggregator {
+
+        private final Map<String, Integer> especialidadCodes = new HashMap<>();
+        private final List<String> especialidades = new ArrayList<>();
+        private final Map<String, Integer> ubicacionCodes = new HashMap<>();
+        private final List<String> ubicaciones = new ArrayList<>();
+
+        // counts[ubicacion][especialidad]; las filas crecen a medida que aparecen especialidades
+        private long[][] counts = new long[8][];
+        private long total;
+
+        public void add(Asesor asesor) {
+            add(asesor.getEspecialidad(), asesor.getUbicacion(), 1);
+        }
+
+        public void add(AsesorRecord asesor) {
+            add(asesor.especialidad(), asesor.ubicacion(), 1);
+        }
+
+        /**
+         * Descuenta un asesor añadido antes (por ejemplo, al modificarse o eliminarse).
+         */
+        public void remove(Asesor asesor) {
+            add(asesor.getEspecialidad(), asesor.getUbicacion(), -1);
+        }
+
+        public void addAll(Iterable<Asesor> asesores) {
+            for (Asesor asesor : asesores) {
+                add(asesor);
+            }
+        }
+
+        /**
+         * Suma los conteos de otro agregador (por ejemplo, el de otro hilo o archivo).
+         */
+        public void merge(Aggregator other) {
+            for (int u = 0; u < other.ubicaciones.size(); u++) {
+                long[] row = other.counts[u];
+                if (row == null) {
+                    continue;
+                }
+                for (int e = 0; e < row.length; e++) {
+                    if (row[e] != 0) {
+                        add(other.especialidades.get(e), other.ubicaciones.get(u), row[e]);
+                    }
+                }
+            }
+        }
+
+        void add(String especialidad, String ubicacion, long delta) {
+            int e = code(especialidadCodes, especialidades, StringUtils.defaultIfBlank(especialidad, SIN_VALOR));
+            int u = code(ubicacionCodes, ubicaciones, StringUtils.defaultIfBlank(ubicacion, SIN_VALOR));
+            if (u >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(u + 1, counts.length * 2));
+            }
+            long[] row = counts[u];
+            if (row == null || e >= row.length) {
+                row = row == null ? new long[Math.max(8, e + 1)] : Arrays.copyOf(row, Math.max(e + 1, row.length * 2));
+                counts[u] = row;
+            }
+            row[e] += delta;
+            total += delta;
+        }
+
+        private static int code(Map<String, Integer> codes, List<String> values, String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Conteo para una combinación; null en cualquiera de los dos suma todas.
+         */
+        public long count(String especialidad, String ubicacion) {
+            Integer e = especialidad == null ? null : especialidadCodes.get(especialidad);
+            Integer u = ubicacion == null ? null : ubicacionCodes.get(ubicacion);
+            if ((especialidad != null && e == null) || (ubicacion != null && u == null)) {
+                return 0;
+            }
+            long sum = 0;
+            for (int ui = 0; ui < ubicaciones.size(); ui++) {
+                long[] row = counts[ui];
+                if (row == null || (u != null && u != ui)) {
+                    continue;
+                }
+                for (int ei = 0; ei < row.length; ei++) {
+                    if (e == null || e == ei) {
+                        sum += row[ei];
+                    }
+                }
+            }
+            return sum;
+        }
+
+        public EmployeeSummary toSummary() {
+            Set<String> presentEspecialidades = new HashSet<>();
+            Set<String> presentUbicaciones = new HashSet<>();
+            for (int u = 0; u < ubicaciones.size(); u++) {
+                long[] row = counts[u];
+                if (row == null) {
+                    continue;
+                }
+                for (int e = 0; e < row.length; e++) {
+                    if (row[e] > 0) {
+                        presentEspecialidades.add(especialidades.get(e));
+                        presentUbicaciones.add(ubicaciones.get(u));
+                    }
+                }
+            }
+            return new EmployeeSummary(total, presentEspecialidades, presentUbicaciones);
+        }
+
+        public Map<String, DepartmentStats> toDepartmentStats() {
+            Map<String, DepartmentStats> byDepartment = new TreeMap<>();
+            for (int u = 0; u < ubicaciones.size(); u++) {
+                long[] row = counts[u];
+                if (row == null) {
+                    continue;
+                }
+                long departmentTotal = 0;
+                List<Integer> present = new ArrayList<>();
+                for (int e = 0; e < row.length; e++) {
+                    if (row[e] > 0) {
+                        departmentTotal += row[e];
+                        present.add(e);
+                    }
+                }
+                if (departmentTotal == 0) {
+                    continue;
+                }
+                // Distribución de mayor a menor conteo
+                present.sort((a, b) -> Long.compare(row[b], row[a]));
+                Map<String, Integer> distribution = new LinkedHashMap<>();
+                for (int e : present) {
+                    distribution.put(especialidades.get(e), Ints.saturatedCast(row[e]));
+                }
+                String department = ubicaciones.get(u);
+                byDepartment.put(department, new DepartmentStats(department, departmentTotal, distribution));
+            }
+            return new LinkedHashMap<>(byDepartment);
+        }
+    }
+
+    /**
+     * Agregador aproximado con memoria fija, independiente del número de
+     * asesores: especialidades y ubicaciones más frecuentes (Space-Saving),
+     * emails y teléfonos distintos (HyperLogLog), frecuencia de un email o
+     * teléfono concreto (Count-Min) y fallos por regla de validación (exactos,
+     * las reglas son pocas).
+     *
+     * Con pocos datos cada sketch cuenta de forma exacta y pasa a aproximar al
+     * superar su umbral (ver {@link #isExact()}). Como {@link Aggregator}, no
+     * es thread-safe: cada hilo o archivo usa el suyo y se combinan con
+     * {@link #merge(SketchAggregator)}.
+     */
+    public static class SketchAggregator {
+
+        private final SpaceSaving especialidades;
+        private final SpaceSaving ubicaciones;
+        private final HyperLogLog distinctEmails;
+        private final HyperLogLog distinctTelefonos;
+        private final CountMinSketch emailCounts;
+        private final CountMinSketch telefonoCounts;
+        private final long[] failuresByRule = new long[ValidationRule.all().length];
+        private long total;
+
+        public SketchAggregator() {
+            this(SpaceSaving.DEFAULT_CAPACITY, HyperLogLog.DEFAULT_EXACT_THRESHOLD);
+        }
+
+        /**
+         * @param capacity       valores seguidos para el top-K de especialidades y ubicaciones
+         * @param exactThreshold valores distintos contados de forma exacta antes de aproximar; 0 aproxima desde el principio
+         */
+        public SketchAggregator(int capacity, int exactThreshold) {
+            this.especialidades = new SpaceSaving(capacity);
+            this.ubicaciones = new SpaceSaving(capacity);
+            this.distinctEmails = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION, exactThreshold);
+            this.distinctTelefonos = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION, exactThreshold);
+            this.emailCounts = new CountMinSketch(CountMinSketch.DEFAULT_WIDTH, CountMinSketch.DEFAULT_DEPTH, exactThreshold);
+            this.telefonoCounts = new CountMinSketch(CountMinSketch.DEFAULT_WIDTH, CountMinSketch.DEFAULT_DEPTH, exactThreshold);
+        }
+
+        public void add(Asesor asesor) {
+            add(asesor.getEspecialidad(), asesor.getUbicacion(), asesor.getEmail(), asesor.getTelefono());
+        }
+
+        public void add(AsesorRecord asesor) {
+            add(asesor.especialidad(), asesor.ubicacion(), asesor.email(), asesor.telefono());
+        }
+
+        public void addAll(Iterable<Asesor> asesores) {
+            for (Asesor asesor : asesores) {
+                add(asesor);
+            }
+        }
+
+        /**
+         * Añade las filas en orden, como si fueran asesores (mismo resultado que
+         * {@link #addAll(Iterable)}); especialidad y ubicación se decodifican una
+         * vez por código.
+         */
+        public void addAll(AsesorColumns table) {
+            String[] especialidadValues = decodeAll(table.getEspecialidadDictionary());
+            String[] ubicacionValues = decodeAll(table.getUbicacionDictionary());
+            for (int row = 0; row < table.size(); row++) {
+                add(especialidadValues[table.especialidadCode(row) + 1], ubicacionValues[table.ubicacionCode(row) + 1],
+                        table.getEmail(row), table.getTelefono(row));
+            }
+        }
+
+        /* Valor de cada código desplazado en 1 (la posición 0 es null) */
+        private static String[] decodeAll(StringDictionary dictionary) {
+            String[] values = new String[dictionary.size() + 1];
+            for (int code = -1; code < dictionary.size(); code++) {
+                values[code + 1] = dictionary.decode(code);
+            }
+            return values;
+        }
+
+        private void add(String especialidad, String ubicacion, String email, String telefono) {
+            especialidades.add(StringUtils.defaultIfBlank(especialidad, SIN_VALOR));
+            ubicaciones.add(StringUtils.defaultIfBlank(ubicacion, SIN_VALOR));
+            if (StringUtils.isNotBlank(email)) {
+                long hash = HyperLogLog.hash(email);
+                distinctEmails.addHash(hash);
+                emailCounts.add(email, hash, 1);
+            }
+            if (StringUtils.isNotBlank(telefono)) {
+                long hash = HyperLogLog.hash(telefono);
+                distinctTelefonos.addHash(hash);
+                telefonoCounts.add(telefono, hash, 1);
+            }
+            total++;
+        }
+
+        /**
+         * Cuenta las reglas incumplidas por los asesores descartados.
+         */
+        public void addInvalid(List<AsesorValidator.InvalidAsesor> invalid) {
+            for (AsesorValidator.InvalidAsesor asesor : invalid) {
+                addFailures(asesor.getFailures());
+            }
+        }
+
+        /* Máscara de reglas fallidas de un asesor (ver ValidationRule) */
+        public void addFailures(int failures) {
+            for (int bits = failures; bits != 0; bits &= bits - 1) {
+                failuresByRule[Integer.numberOfTrailingZeros(bits)]++;
+            }
+        }
+
+        /**
+         * Suma los fallos por regla ya contados por el informe de validación. Los
+         * inválidos no llegan a la etapa de estadísticas, así que al terminar la
+         * ejecución se toman del informe, que los ve todos.
+         */
+        public void addFailures(ValidationErrorReport report) {
+            for (ValidationRule rule : ValidationRule.all()) {
+                failuresByRule[rule.ordinal()] += report.countByRule(rule);
+            }
+        }
+
+        /**
+         * Suma los fallos por regla del origen anotados en el snapshot, que no
+         * vuelve a validar.
+         */
+        public void addFailures(AsesorSnapshot snapshot) {
+            for (ValidationRule rule : ValidationRule.all()) {
+                failuresByRule[rule.ordinal()] += snapshot.countByRule(rule);
+            }
+        }
+
+        /**
+         * Suma lo visto por otro agregador (por ejemplo, el de otro hilo o archivo).
+         */
+        public void merge(SketchAggregator other) {
+            especialidades.merge(other.especialidades);
+            ubicaciones.merge(other.ubicaciones);
+            distinctEmails.merge(other.distinctEmails);
+            distinctTelefonos.merge(other.distinctTelefonos);
+            emailCounts.merge(other.emailCounts);
+            telefonoCounts.merge(other.telefonoCounts);
+            for (int i = 0; i < failuresByRule.length; i++) {
+                failuresByRule[i] += other.failuresByRule[i];
+            }
+            total += other.total;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<SpaceSaving.Counter> topEspecialidades(int k) {
+            return especialidades.top(k);
+        }
+
+        public List<SpaceSaving.Counter> topUbicaciones(int k) {
+            return ubicaciones.top(k);
+        }
+
+        public long countDistinctEmails() {
+            return distinctEmails.estimate();
+        }
+
+        public long countDistinctTelefonos() {
+            return distinctTelefonos.estimate();
+        }
+
+        /* Cota superior de las veces que aparece el email */
+        public long countEmail(String email) {
+            return emailCounts.estimate(email);
+        }
+
+        /* Cota superior de las veces que aparece el teléfono */
+        public long countTelefono(String telefono) {
+            return telefonoCounts.estimate(telefono);
+        }
+
+        /* Asesores descartados por cada regla, solo las que fallaron alguna vez */
+        public Map<ValidationRule, Long> getFailuresByRule() {
+            Map<ValidationRule, Long> result = new EnumMap<>(ValidationRule.class);
+            for (ValidationRule rule : ValidationRule.all()) {
+                if (failuresByRule[rule.ordinal()] > 0) {
+                    result.put(rule, failuresByRule[rule.ordinal()]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Si todos los resultados son exactos (ningún sketch ha superado su umbral).
+         */
+        public boolean isExact() {
+            return especialidades.isExact() && ubicaciones.isExact()
+                    && distinctEmails.isExact() && distinctTelefonos.isExact()
+                    && emailCounts.isExact() && telefonoCounts.isExact();
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
+                    .append("total", total)
+                    .append("exacto", isExact())
+                    .append("especialidades", topEspecialidades(5))
+                    .append("ubicaciones", topUbicaciones(5))
+                    .append("emailsDistintos", countDistinctEmails())
+                    .append("telefonosDistintos", countDistinctTelefonos())
+                    .append("fallosPorRegla", getFailuresByRule())
+                    .toString();
+        }
+    }
+
+    /* Resumen general de los asesores */
+    public static class EmployeeSummary {
+
+        private final long totalAsesores;
+        private final Set<String> especialidades;
+        private final Set<String> ubicaciones;
+
+        public EmployeeSummary(long totalAsesores, Set<String> especialidades, Set<String> ubicaciones) {
+            this.totalAsesores = totalAsesores;
+            this.especialidades = ImmutableSortedSet.copyOf(String.CASE_INSENSITIVE_ORDER, especialidades);
+            this.ubicaciones = ImmutableSortedSet.copyOf(String.CASE_INSENSITIVE_ORDER, ubicaciones);
+        }
+
+        public long getTotalAsesores() {
+            return totalAsesores;
+        }
+
+        public Set<String> getEspecialidades() {
+            return especialidades;
+        }
+
+        public Set<String> getUbicaciones() {
+            return ubicaciones;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
+                .append("totalAsesores", totalAsesores)
+                .append("especialidades", especialidades)
+                .append("ubicaciones", ubicaciones)
+                .toString();
+        }
+    }
+
+    /* Estadísticas de un departamento (ubicación) */
+    public static class DepartmentStats {
+
+        private final String department;
+        private final long asesorCount;
+        private final Map<String, Integer> specializationDistribution;
+
+        public DepartmentStats(String department, long asesorCount, Map<String, Integer> specializationDistribution) {
+            this.department = department;
+            this.asesorCount = asesorCount;
+            this.specializationDistribution = Collections.unmodifiableMap(new LinkedHashMap<>(specializationDistribution));
+        }
+
+        public String getDepartment() {
+            return department;
+        }
+
+        public long getAsesorCount() {
+            return asesorCount;
+        }
+
+        public Map<String, Integer> getSpecializationDistribution() {
+            return specializationDistribution;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.JSON_STYLE)
+                .append("department", department)
+                .append("asesorCount", asesorCount)
+                .append("specializationDistribution", specializationDistribution)
+                .toString();
+        }
+    }
 }
@@ -4,17 +4,355 @@
  */
 package com.mycompany.asesorame.demo;
 
+import com.google.common.base.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.zip.Deflater;
+
 /**
+ * Generador de datos de prueba para carga: asesores realistas y reproducibles
+ * (misma semilla = mismo archivo), con sesgo configurable en especialidad y
+ * ubicación y un porcentaje configurable de emails, teléfonos y nombres inválidos.
+ *
+ * Los asesores se generan en trozos independientes en paralelo (cada trozo con su
+ * propia semilla derivada, así el resultado no depende del reparto entre hilos) y
+ * se escriben en orden. CSV se escribe directamente desde los trozos ya
+ * serializados; XLSX pasa por el escritor streaming con compresión rápida.
  *
  * @author jeanc
  */
 public class TestDataGenerator {
 
+    private static final Logger logger = LoggerFactory.getLogger(TestDataGenerator.class);
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final String[] NOMBRES = {
+        "Juan", "María", "Carlos", "Ana", "Luis", "Rosa", "Pedro", "Lucía", "Jorge", "Elena",
+        "Miguel", "Carmen", "José", "Sofía", "Diego", "Valeria", "Andrés", "Camila", "Fernando", "Gabriela",
+        "Ricardo", "Patricia", "Javier", "Daniela", "Raúl", "Isabel", "Óscar", "Mónica", "Víctor", "Paola"
+    };
+    private static final String[] APELLIDOS = {
+        "Pérez", "García", "Quispe", "Mamani", "Flores", "Rojas", "Torres", "Díaz", "Ramos", "Castro",
+        "Huamán", "Vargas", "Chávez", "Gutiérrez", "Mendoza", "Sánchez", "Romero", "Cruz", "Ríos", "Salazar",
+        "Espinoza", "Herrera", "Medina", "Aguilar", "Vega", "Córdova", "Paredes", "Cárdenas", "Navarro", "León"
+    };
+    private static final String[] ESPECIALIDADES = {
+        "Tecnología", "Finanzas", "Legal", "Marketing", "Recursos humanos", "Ventas",
+        "Contabilidad", "Logística", "Seguros", "Inmobiliaria", "Tributaria", "Comercio exterior"
+    };
+    private static final String[] UBICACIONES = {
+        "Lima", "Arequipa", "Trujillo", "Chiclayo", "Piura", "Cusco", "Iquitos", "Huancayo",
+        "Tacna", "Puno", "Cajamarca", "Ica", "Ayacucho", "Chimbote", "Pucallpa", "Tarapoto"
+    };
+    private static final String[] DOMINIOS = {
+        "asesorame.com", "gmail.com", "outlook.com", "yahoo.es", "hotmail.com"
+    };
+
+    static final String CSV_HEADER = String.join(",", XlsxAsesorWriter.HEADERS);
+
+    private final Options options;
+
+    public TestDataGenerator() {
+        this(new Options());
+    }
+
+    public TestDataGenerator(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * Genera un archivo con {@code count} asesores. El formato se elige por la
+     * extensión (.csv, .tsv o .xlsx).
+     */
+    public void generateTestFile(String filePath, long count) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Path path = Paths.get(filePath);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        String lower = filePath.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            writeDelimited(path, count, ',');
+        } else if (lower.endsWith(".tsv")) {
+            writeDelimited(path, count, '\t');
+        } else {
+            writeXlsx(path, count);
+        }
+
+        logger.info("Archivo de prueba {} generado: {} asesores en {} ms",
+                filePath, count, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Genera el asesor número {@code id} del trozo con el generador aleatorio dado.
+     */
+    Asesor generate(long id, SplittableRandom random, Distribution especialidades, Distribution ubicaciones) {
+        String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+        String apellido = APELLIDOS[random.nextInt(APELLIDOS.length)];
+        String email = stripAccents(nombre + "." + apellido).toLowerCase(Locale.ROOT)
+                + id + "@" + DOMINIOS[random.nextInt(DOMINIOS.length)];
+        String telefono = Long.toString(900_000_000L + random.nextInt(100_000_000));
+
+        if (random.nextDouble() < options.invalidNameRate) {
+            nombre = switch (random.nextInt(3)) {
+                case 0 -> "";
+                case 1 -> nombre.substring(0, 1);
+                default -> nombre.repeat(60 / nombre.length() + 1);
+            };
+        }
+        if (random.nextDouble() < options.invalidEmailRate) {
+            email = switch (random.nextInt(3)) {
+                case 0 -> email.replace("@", "");
+                case 1 -> email.replace("@", "@@");
+                default -> email.substring(0, email.indexOf('@') + 1);
+            };
+        }
+        if (random.nextDouble() < options.invalidPhoneRate) {
+            telefono = random.nextBoolean() ? telefono.substring(1) : telefono.substring(0, 6) + "abc";
+        }
+
+        return new Asesor(id, nombre, apellido, email, telefono,
+                ESPECIALIDADES[especialidades.sample(random)],
+                UBICACIONES[ubicaciones.sample(random)]);
+    }
+
+    // La compresión se reparte entre los mismos hilos que generan los trozos
+    private void writeXlsx(Path path, long count) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 256 * 1024);
+             XlsxAsesorWriter writer = new XlsxAsesorWriter(out, "Asesores",
+                     XlsxAsesorWriter.DEFAULT_WINDOW_SIZE, Deflater.BEST_SPEED, options.parallelism)) {
+            generateChunks(count, chunkIndex -> generateChunk(chunkIndex, count), chunk -> {
+                for (Asesor asesor : chunk) {
+                    writer.write(asesor);
+                }
+            });
+        }
+    }
+
+    private void writeDelimited(Path path, long count, char delimiter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            String header = delimiter == ',' ? CSV_HEADER : CSV_HEADER.replace(',', '\t');
+            writeFully(channel, ByteBuffer.wrap((header + "\n").getBytes(StandardCharsets.UTF_8)));
+            generateChunks(count,
+                    chunkIndex -> toDelimited(generateChunk(chunkIndex, count), delimiter),
+                    bytes -> writeFully(channel, ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    private List<Asesor> generateChunk(long chunkIndex, long count) {
+        long first = chunkIndex * CHUNK_SIZE + 1;
+        long last = Math.min(count, first + CHUNK_SIZE - 1);
+        // Semilla derivada por trozo: el contenido no depende del hilo que lo genera
+        SplittableRandom random = new SplittableRandom(options.seed ^ (chunkIndex * 0x9E3779B97F4A7C15L));
+        Distribution especialidades = new Distribution(ESPECIALIDADES.length, options.especialidadSkew);
+        Distribution ubicaciones = new Distribution(UBICACIONES.length, options.ubicacionSkew);
+        List<Asesor> chunk = new ArrayList<>((int) (last - first + 1));
+        for (long id = first; id <= last; id++) {
+            chunk.add(generate(id, random, especialidades, ubicaciones));
+        }
+        return chunk;
+    }
+
     /**
+     * Genera los trozos en paralelo y los entrega en orden al consumidor,
+     * con un máximo de trozos en vuelo para acotar la memoria.
+     */
+    private <T> void generateChunks(long count, LongFunction<T> producer, ChunkConsumer<T> consumer)
+            throws IOException {
+        long chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int threads = Math.max(1, options.parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+        try {
+            long nextChunk = 0;
+            while (nextChunk < chunks || !inFlight.isEmpty()) {
+                while (nextChunk < chunks && inFlight.size() < threads * 2) {
+                    long chunkIndex = nextChunk++;
+                    inFlight.add(executor.submit(() -> producer.apply(chunkIndex)));
+                }
+                consumer.accept(inFlight.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error generando datos: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] toDelimited(List<Asesor> chunk, char delimiter) {
+        StringBuilder sb = new StringBuilder(chunk.size() * 96);
+        for (Asesor a : chunk) {
+            sb.append(a.getId().longValue()).append(delimiter);
+            appendField(sb, a.getNombre(), delimiter).append(delimiter);
+            appendField(sb, a.getApellido(), delimiter).append(delimiter);
+            appendField(sb, a.getEmail(), delimiter).append(delimiter);
+            appendField(sb, a.getTelefono(), delimiter).append(delimiter);
+            appendField(sb, a.getEspecialidad(), delimiter).append(delimiter);
+            appendField(sb, a.getUbicacion(), delimiter).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Comillas solo cuando el valor lo necesita (RFC 4180)
+    private static StringBuilder appendField(StringBuilder sb, String value, char delimiter) {
+        if (value.indexOf(delimiter) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return sb.append(value);
+        }
+        return sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String stripAccents(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            sb.append(switch (ch) {
+                case 'á', 'Á' -> 'a';
+                case 'é', 'É' -> 'e';
+                case 'í', 'Í' -> 'i';
+                case 'ó', 'Ó' -> 'o';
+                case 'ú', 'Ú' -> 'u';
+                case 'ñ', 'Ñ' -> 'n';
+                default -> ch;
+            });
+        }
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer<T> {
+        void accept(T chunk) throws IOException;
+    }
+
+    /* Distribución tipo Zipf sobre n valores; skew 0 = uniforme */
+    static class Distribution {
+
+        private final double[] cumulative;
+
+        Distribution(int n, double skew) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            index = index >= 0 ? index : -index - 1;
+            return Math.min(index, cumulative.length - 1);
+        }
+    }
+
+    /* Opciones de generación */
+    public static class Options {
+
+        private long seed = 42L;
+        private double especialidadSkew = 1.0;
+        private double ubicacionSkew = 1.2;
+        private double invalidEmailRate = 0.02;
+        private double invalidPhoneRate = 0.02;
+        private double invalidNameRate = 0.01;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public Options withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /* Exponente Zipf para especialidad y ubicación (0 = uniforme) */
+        public Options withSkew(double especialidadSkew, double ubicacionSkew) {
+            this.especialidadSkew = checkNonNegative(especialidadSkew);
+            this.ubicacionSkew = checkNonNegative(ubicacionSkew);
+            return this;
+        }
+
+        /* Fracciones (0..1) de registros con email, teléfono o nombre inválido */
+        public Options withInvalidRates(double email, double phone, double name) {
+            this.invalidEmailRate = checkRate(email);
+            this.invalidPhoneRate = checkRate(phone);
+            this.invalidNameRate = checkRate(name);
+            return this;
+        }
+
+        public Options withParallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("El paralelismo debe ser al menos 1: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        private static double checkRate(double rate) {
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("La tasa debe estar entre 0 y 1: " + rate);
+            }
+            return rate;
+        }
+
+        private static double checkNonNegative(double skew) {
+            if (skew < 0) {
+                throw new IllegalArgumentException("El sesgo no puede ser negativo: " + skew);
+            }
+            return skew;
+        }
+    }
+
+    /**
+     * Uso: TestDataGenerator &lt;archivo.xlsx|.csv|.tsv&gt; &lt;filas&gt; [semilla]
+     *
      * @param args the command line arguments
      */
-    public static void main(String[] args) {
-        // TODO code application logic here
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: TestDataGenerator <archivo.xlsx|.csv|.tsv> <filas> [semilla]");
+            System.exit(2);
+        }
+        Options options = new Options();
+        if (args.length > 2) {
+            options.withSeed(Long.parseLong(args[2]));
+        }
+        new TestDataGenerator(options).generateTestFile(args[0], Long.parseLong(args[1]));
     }
-    
+
 }
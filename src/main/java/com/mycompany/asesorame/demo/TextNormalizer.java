@@ -0,0 +1,182 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import com.google.common.collect.Interner;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Normaliza los textos de un asesor sin crear Strings nuevos para los valores
+ * que se repiten o que ya vienen normalizados.
+ *
+ * Nombres, apellidos y especialidades pasan por una caché acotada de valor
+ * original a valor normalizado; las especialidades, de pocos valores
+ * distintos, además se internan junto con los de {@link AsesorRecord}, así
+ * que todos los asesores de una misma especialidad comparten la misma
+ * instancia. Los emails son casi todos distintos y no se cachean: solo se
+ * copian si tienen mayúsculas o espacios.
+ *
+ * El resultado es el mismo que {@code StringUtils.capitalize(valor.toLowerCase(Locale.ROOT).trim())}
+ * y {@code valor.toLowerCase(Locale.ROOT).trim()}. No es thread-safe: cada hilo usa el suyo.
+ */
+final class TextNormalizer {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final Cache nombres;
+    private final Cache apellidos;
+    private final Cache especialidades;
+
+    TextNormalizer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TextNormalizer(int capacity) {
+        this.nombres = new Cache(capacity, null);
+        this.apellidos = new Cache(capacity, null);
+        this.especialidades = new Cache(Math.min(capacity, 256), AsesorRecord.FLYWEIGHTS);
+    }
+
+    String nombre(String value) {
+        return nombres.get(value);
+    }
+
+    String apellido(String value) {
+        return apellidos.get(value);
+    }
+
+    String especialidad(String value) {
+        return especialidades.get(value);
+    }
+
+    String email(String value) {
+        return lowerTrim(value);
+    }
+
+    static String lowerTrim(String value) {
+        return isLowerTrimmed(value) ? value : value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    static String capitalizeLower(String value) {
+        return isCapitalized(value) ? value : StringUtils.capitalize(value.toLowerCase(Locale.ROOT).trim());
+    }
+
+    /* Sin espacios en los extremos y sin caracteres que cambien al pasar a minúsculas */
+    static boolean isLowerTrimmed(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return true;
+        }
+        if (value.charAt(0) <= ' ' || value.charAt(length - 1) <= ' ') {
+            return false;
+        }
+        return isLowerFrom(value, 0);
+    }
+
+    /* Como isLowerTrimmed, pero con la primera letra en mayúscula (título) */
+    static boolean isCapitalized(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return true;
+        }
+        char first = value.charAt(0);
+        if (first <= ' ' || value.charAt(length - 1) <= ' ' || Character.isSurrogate(first)
+                || Character.toTitleCase(Character.toLowerCase(first)) != first) {
+            return false;
+        }
+        return isLowerFrom(value, 1);
+    }
+
+    private static boolean isLowerFrom(String value, int from) {
+        for (int i = from; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch < 0x80) {
+                if (ch >= 'A' && ch <= 'Z') {
+                    return false;
+                }
+            } else if (Character.isSurrogate(ch) || Character.toLowerCase(ch) != ch) {
+                // Los pares sustitutos se dejan a toLowerCase, que sí los trata
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Caché de direccionamiento abierto como la de CsvAsesorReader: cada valor
+     * se busca en unas pocas posiciones consecutivas y, si no está, sustituye a
+     * la de menos aciertos de esas posiciones. Los contadores se reducen a la
+     * mitad periódicamente para que los valores que dejan de aparecer salgan.
+     * Un acierto no reserva memoria.
+     */
+    static final class Cache {
+
+        private static final int PROBES = 4;
+        private static final int MAX_HITS = 255;
+
+        private final String[] keys;
+        private final String[] values;
+        private final int[] hashes;
+        private final int[] hits;
+        private final int mask;
+        private final Interner<String> interner;
+        private int misses;
+
+        Cache(int capacity, Interner<String> interner) {
+            int size = Integer.highestOneBit(Math.max(PROBES, capacity - 1)) << 1;
+            this.keys = new String[size];
+            this.values = new String[size];
+            this.hashes = new int[size];
+            this.hits = new int[size];
+            this.mask = size - 1;
+            this.interner = interner;
+        }
+
+        String get(String raw) {
+            int hash = raw.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            int victim = slot;
+            for (int probe = 0; probe < PROBES; probe++) {
+                String key = keys[slot];
+                if (key == null) {
+                    victim = slot;
+                    break;
+                }
+                if (hashes[slot] == hash && (key == raw || key.equals(raw))) {
+                    if (hits[slot] < MAX_HITS) {
+                        hits[slot]++;
+                    }
+                    return values[slot];
+                }
+                if (hits[slot] < hits[victim]) {
+                    victim = slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            String value = capitalizeLower(raw);
+            if (interner != null) {
+                value = interner.intern(value);
+            }
+            keys[victim] = raw;
+            values[victim] = value;
+            hashes[victim] = hash;
+            hits[victim] = 1;
+            if (++misses >= keys.length) {
+                age();
+            }
+            return value;
+        }
+
+        private void age() {
+            misses = 0;
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] >>>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Informe acotado de los asesores inválidos de una ejecución.
+ *
+ * En memoria solo guarda conteos por regla y las primeras muestras. El log
+ * recibe las primeras filas inválidas y después como mucho una por segundo;
+ * la lista completa se escribe en un archivo TSV (ID, reglas, mensajes) desde
+ * un hilo propio, así que ni los mensajes ni el formateo se construyen en el
+ * hilo de validación. Los lotes se encolan enteros; si el escritor no da
+ * abasto, la cola acotada frena la validación en lugar de perder filas.
+ */
+public final class ValidationErrorReport implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationErrorReport.class);
+
+    static final int DEFAULT_MAX_SAMPLES = 100;
+    static final int LOG_BURST = 10;
+    static final int QUEUE_CAPACITY = 64;
+
+    static final String HEADER = "ID\tReglas\tErrores";
+
+    // Marca de fin para el escritor; se compara por identidad
+    private static final List<AsesorValidator.InvalidAsesor> END = Collections.unmodifiableList(new ArrayList<>());
+
+    private final Path errorFile;
+    private final int maxSamples;
+    private final List<AsesorValidator.InvalidAsesor> samples = new ArrayList<>();
+    private final AtomicLongArray countsByRule = new AtomicLongArray(ValidationRule.all().length);
+    private final LongAdder invalidCount = new LongAdder();
+    private final LogRateLimiter logLimiter = new LogRateLimiter(LOG_BURST, 1, TimeUnit.SECONDS);
+    private final BlockingQueue<List<AsesorValidator.InvalidAsesor>> queue;
+    private final Thread writerThread;
+    private volatile IOException writeError;
+    private long written;
+    // Lo leen los hilos de validación en record()
+    private volatile boolean closed;
+
+    private ValidationErrorReport(Path errorFile, BufferedWriter out, int maxSamples) {
+        this.errorFile = errorFile;
+        this.maxSamples = maxSamples;
+        if (out == null) {
+            this.queue = null;
+            this.writerThread = null;
+        } else {
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            this.writerThread = new Thread(() -> writeLoop(out), "validation-errors-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        }
+    }
+
+    /**
+     * Crea el informe escribiendo la lista completa de errores en el archivo indicado.
+     */
+    public static ValidationErrorReport open(Path errorFile) throws IOException {
+        Path parent = errorFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        BufferedWriter out = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8);
+        out.write(HEADER);
+        out.newLine();
+        return new ValidationErrorReport(errorFile, out, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Informe sin archivo: solo conteos, muestras y log limitado.
+     */
+    public static ValidationErrorReport inMemory() {
+        return new ValidationErrorReport(null, null, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * Registra los inválidos de un lote, en orden. Se llama una vez por lote.
+     *
+     * @throws IllegalStateException si el informe ya está cerrado
+     */
+    public void record(List<AsesorValidator.InvalidAsesor> invalid) {
+        if (closed) {
+            throw new IllegalStateException("El informe de errores está cerrado");
+        }
+        if (invalid.isEmpty()) {
+            return;
+        }
+        invalidCount.add(invalid.size());
+        for (AsesorValidator.InvalidAsesor asesor : invalid) {
+            for (int bits = asesor.getFailures(); bits != 0; bits &= bits - 1) {
+                countsByRule.incrementAndGet(Integer.numberOfTrailingZeros(bits));
+            }
+            if (logLimiter.tryAcquire()) {
+                long suppressed = logLimiter.drainSuppressed();
+                if (suppressed == 0) {
+                    logger.warn("Asesor {} inválido. Errores: {}",
+                               idOf(asesor), String.join(", ", asesor.getErrors()));
+                } else {
+                    logger.warn("Asesor {} inválido. Errores: {} ({} inválidos más sin detallar en el log)",
+                               idOf(asesor), String.join(", ", asesor.getErrors()), suppressed);
+                }
+            }
+        }
+        synchronized (samples) {
+            for (int i = 0; i < invalid.size() && samples.size() < maxSamples; i++) {
+                samples.add(invalid.get(i));
+            }
+        }
+        if (queue != null) {
+            try {
+                queue.put(invalid);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido al registrar errores de validación", e);
+            }
+        }
+    }
+
+    private void writeLoop(BufferedWriter out) {
+        StringBuilder line = new StringBuilder(256);
+        try (out) {
+            for (List<AsesorValidator.InvalidAsesor> batch = queue.take(); batch != END; batch = queue.take()) {
+                if (writeError != null) {
+                    continue; // se sigue vaciando la cola para no bloquear la validación
+                }
+                try {
+                    for (AsesorValidator.InvalidAsesor invalid : batch) {
+                        line.setLength(0);
+                        appendLine(line, invalid);
+                        out.append(line);
+                        written++;
+                    }
+                } catch (IOException e) {
+                    writeError = e;
+                    logger.warn("No se pudo escribir el informe de errores {}: {}", errorFile, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            if (writeError == null) {
+                writeError = e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Long idOf(AsesorValidator.InvalidAsesor invalid) {
+        return invalid.getAsesor() == null ? null : invalid.getAsesor().getId();
+    }
+
+    static void appendLine(StringBuilder line, AsesorValidator.InvalidAsesor invalid) {
+        Long id = idOf(invalid);
+        if (id != null) {
+            line.append(id.longValue());
+        }
+        line.append('\t');
+        boolean first = true;
+        for (ValidationRule rule : ValidationRule.all()) {
+            if (rule.isSet(invalid.getFailures())) {
+                line.append(first ? "" : ",").append(rule.name());
+                first = false;
+            }
+        }
+        line.append('\t');
+        first = true;
+        for (String error : invalid.getErrors()) {
+            if (!first) {
+                line.append(" | ");
+            }
+            first = false;
+            // Tabuladores y saltos de línea romperían el formato TSV
+            for (int i = 0; i < error.length(); i++) {
+                char ch = error.charAt(i);
+                line.append(ch == '\t' || ch == '\n' || ch == '\r' ? ' ' : ch);
+            }
+        }
+        line.append('\n');
+    }
+
+    public long getInvalidCount() {
+        return invalidCount.sum();
+    }
+
+    public long countByRule(ValidationRule rule) {
+        return countsByRule.get(rule.ordinal());
+    }
+
+    /* Primeros inválidos registrados, como mucho DEFAULT_MAX_SAMPLES */
+    /* Conteos por ordinal de ValidationRule */
+    public long[] countsByRule() {
+        long[] counts = new long[countsByRule.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = countsByRule.get(i);
+        }
+        return counts;
+    }
+
+    public List<AsesorValidator.InvalidAsesor> getSamples() {
+        synchronized (samples) {
+            return List.copyOf(samples);
+        }
+    }
+
+    /* Archivo con la lista completa, o null si el informe es solo en memoria */
+    public Path getErrorFile() {
+        return errorFile;
+    }
+
+    /* Filas escritas en el archivo; exacto tras close() */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Resume el informe en el log: total de inválidos, conteo por regla y archivo.
+     */
+    public void logSummary() {
+        long total = getInvalidCount();
+        if (total == 0) {
+            logger.info("No se encontraron asesores inválidos");
+            return;
+        }
+        StringBuilder byRule = new StringBuilder();
+        for (ValidationRule rule : ValidationRule.all()) {
+            long count = countByRule(rule);
+            if (count > 0) {
+                byRule.append(byRule.length() == 0 ? "" : ", ").append(rule.name()).append('=').append(count);
+            }
+        }
+        logger.warn("{} asesores inválidos por regla: {}", total, byRule);
+        if (errorFile != null) {
+            logger.info("Lista completa de errores en {}", errorFile);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Termina de escribir el archivo de errores y lo cierra.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            queue.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido al cerrar el informe de errores", e);
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Reglas de validación de un asesor. Cada regla ocupa un bit, de modo que el
+ * resultado de {@link AsesorValidator#check(Asesor)} es un int que indica qué
+ * reglas fallaron sin construir ningún mensaje. El orden de declaración es el
+ * orden en que se informan los errores.
+ */
+public enum ValidationRule {
+
+    ASESOR_NULO,
+    ID_INVALIDO,
+    NOMBRE_OBLIGATORIO,
+    NOMBRE_CORTO,
+    NOMBRE_LARGO,
+    APELLIDO_OBLIGATORIO,
+    APELLIDO_CORTO,
+    APELLIDO_LARGO,
+    EMAIL_OBLIGATORIO,
+    EMAIL_FORMATO,
+    TELEFONO_OBLIGATORIO,
+    TELEFONO_FORMATO,
+    ESPECIALIDAD_OBLIGATORIA,
+    UBICACION_OBLIGATORIA;
+
+    private static final ValidationRule[] VALUES = values();
+
+    private final int mask = 1 << ordinal();
+
+    public int mask() {
+        return mask;
+    }
+
+    public boolean isSet(int failures) {
+        return (failures & mask) != 0;
+    }
+
+    /**
+     * Mensaje legible de la regla; solo se construye cuando la regla falló.
+     */
+    public String message(Asesor asesor) {
+        return switch (this) {
+            case ASESOR_NULO -> "El asesor no puede ser nulo.";
+            case ID_INVALIDO -> "El ID del asesor es obligatorio y debe ser un número positivo.";
+            case NOMBRE_OBLIGATORIO -> "El nombre del asesor es obligatorio.";
+            case NOMBRE_CORTO -> "El nombre del asesor debe tener al menos 2 caracteres.";
+            case NOMBRE_LARGO -> "El nombre del asesor no puede exceder los 50 caracteres.";
+            case APELLIDO_OBLIGATORIO -> "El apellido del asesor es obligatorio.";
+            case APELLIDO_CORTO -> "El apellido del asesor debe tener al menos 2 caracteres.";
+            case APELLIDO_LARGO -> "El apellido del asesor no puede exceder los 50 caracteres.";
+            case EMAIL_OBLIGATORIO -> "El email es obligatorio";
+            case EMAIL_FORMATO -> "El formato del email es inválido: " + asesor.getEmail();
+            case TELEFONO_OBLIGATORIO -> "El teléfono del asesor es obligatorio.";
+            case TELEFONO_FORMATO -> "El teléfono debe contener exactamente 9 dígitos.";
+            case ESPECIALIDAD_OBLIGATORIA -> "La especialidad del asesor es obligatoria.";
+            case UBICACION_OBLIGATORIA -> "La ubicación del asesor es obligatoria.";
+        };
+    }
+
+    /**
+     * Reglas presentes en la máscara, en orden de declaración.
+     */
+    public static Set<ValidationRule> fromMask(int failures) {
+        EnumSet<ValidationRule> rules = EnumSet.noneOf(ValidationRule.class);
+        for (ValidationRule rule : VALUES) {
+            if (rule.isSet(failures)) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    static ValidationRule[] all() {
+        return VALUES;
+    }
+}
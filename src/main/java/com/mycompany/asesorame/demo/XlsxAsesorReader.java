@@ -0,0 +1,488 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lector XLSX por streaming: recorre el XML de la hoja con StAX y entrega
+ * los asesores fila a fila, sin construir el libro en memoria.
+ *
+ * Columnas esperadas (la primera fila es la cabecera):
+ * ID | Nombre | Apellido | Email | Telefono | Especialidad | Ubicacion
+ *
+ * Lo único que se mantiene en memoria es la tabla de strings compartidos,
+ * cuyo tamaño depende de los valores distintos y no del número de filas.
+ * Para leer varias hojas del mismo libro a la vez, {@link Workbook} abre el
+ * zip y lee esa tabla una sola vez para todas.
+ */
+public class XlsxAsesorReader implements AsesorReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(XlsxAsesorReader.class);
+
+    static final int COLUMN_COUNT = 7;
+
+    private static final String WORKBOOK = "xl/workbook.xml";
+    private static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String DEFAULT_SHEET = "xl/worksheets/sheet1.xml";
+
+    private static final String NS_RELATIONSHIPS =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ZipFile zipFile;
+    // false si el zip es de un Workbook compartido y lo cierra él
+    private final boolean ownsZip;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final String[] sharedStrings;
+    // Hoja y fila en curso, para los mensajes de error
+    private final String location;
+    private String rowRef;
+
+    // Buffer de celdas reutilizado para cada fila; con pending guarda la fila aún no entregada
+    private final String[] cells = new String[COLUMN_COUNT];
+    private final StringBuilder text = new StringBuilder();
+
+    private boolean pending;
+    private boolean headerSkipped;
+    private boolean finished;
+    private long rowsRead;
+
+    /**
+     * Abre la primera hoja del libro.
+     */
+    public XlsxAsesorReader(String filePath) throws IOException {
+        this(filePath, null);
+    }
+
+    /**
+     * Abre la hoja con el nombre indicado (o la primera si es null).
+     */
+    public XlsxAsesorReader(String filePath, String sheetName) throws IOException {
+        this(new ZipFile(filePath), true, null, null, filePath, sheetName);
+    }
+
+    /*
+     * Con ownsZip el zip se cierra aquí si la apertura falla; sheets y
+     * sharedStrings se leen del zip si son null.
+     */
+    private XlsxAsesorReader(ZipFile zipFile, boolean ownsZip, Map<String, String> sheets, String[] sharedStrings,
+                             String filePath, String sheetName) throws IOException {
+        this.zipFile = zipFile;
+        this.ownsZip = ownsZip;
+        try {
+            if (sheets == null) {
+                sheets = listSheets(zipFile);
+            }
+            String sheetPath = sheetName == null
+                    ? sheets.values().stream().findFirst().orElse(DEFAULT_SHEET)
+                    : sheets.get(sheetName);
+            if (sheetPath == null) {
+                throw new IOException("La hoja '" + sheetName + "' no existe en " + filePath);
+            }
+            this.location = filePath + "!" + sheetPath;
+            ZipEntry sheetEntry = zipFile.getEntry(sheetPath);
+            if (sheetEntry == null) {
+                throw new IOException("No se encontró la hoja " + sheetPath + " en " + filePath);
+            }
+
+            this.sharedStrings = sharedStrings != null ? sharedStrings : readSharedStrings(zipFile);
+            this.sheetStream = zipFile.getInputStream(sheetEntry);
+            this.xml = newInputFactory().createXMLStreamReader(sheetStream, "UTF-8");
+            logger.debug("Hoja {} abierta ({} strings compartidos)", sheetPath, this.sharedStrings.length);
+        } catch (XMLStreamException e) {
+            closeZipIfOwned();
+            throw new IOException("XML inválido en " + filePath + ": " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            closeZipIfOwned();
+            throw e;
+        }
+    }
+
+    private void closeZipIfOwned() throws IOException {
+        if (ownsZip) {
+            zipFile.close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!pending && !finished) {
+            try {
+                pending = readNextRow();
+            } catch (XMLStreamException e) {
+                throw new UncheckedIOException(new IOException("Error leyendo la hoja: " + e.getMessage(), e));
+            }
+            if (!pending) {
+                finished = true;
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public Asesor next() {
+        take();
+        return toAsesor(cells);
+    }
+
+    /**
+     * Rellena el builder directamente con las celdas de la fila.
+     */
+    @Override
+    public AsesorRecord nextRecord(AsesorRecord.Builder builder) {
+        take();
+        return builder.id(parseId(cells[0])).nombre(cells[1]).apellido(cells[2]).email(cells[3])
+                .telefono(cells[4]).especialidad(cells[5]).ubicacion(cells[6]).build();
+    }
+
+    /* Marca como entregada la fila pendiente, que sigue en cells hasta el siguiente hasNext() */
+    private void take() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pending = false;
+        rowsRead++;
+    }
+
+    @Override
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            logger.debug("Error cerrando el lector XML: {}", e.getMessage());
+        } finally {
+            try {
+                sheetStream.close();
+            } finally {
+                closeZipIfOwned();
+            }
+        }
+    }
+
+    /**
+     * Avanza hasta completar la siguiente fila con datos en cells. Devuelve false al final de la hoja.
+     */
+    private boolean readNextRow() throws XMLStreamException {
+        boolean inRow = false;
+        boolean hasData = false;
+        int column = -1;
+        int nextColumn = 0;
+        String cellType = null;
+        boolean capture = false;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                switch (name) {
+                    case "row" -> {
+                        inRow = true;
+                        hasData = false;
+                        rowRef = xml.getAttributeValue(null, "r");
+                        nextColumn = 0;
+                        Arrays.fill(cells, null);
+                    }
+                    case "c" -> {
+                        String ref = xml.getAttributeValue(null, "r");
+                        column = ref != null ? columnIndex(ref) : nextColumn;
+                        nextColumn = column + 1;
+                        cellType = xml.getAttributeValue(null, "t");
+                        text.setLength(0);
+                    }
+                    case "v", "t" -> capture = inRow && column >= 0 && column < COLUMN_COUNT;
+                    default -> {
+                        // Otros elementos (f, rPh, ...) se ignoran
+                    }
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (capture) {
+                    text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = xml.getLocalName();
+                switch (name) {
+                    case "v", "t" -> capture = false;
+                    case "c" -> {
+                        if (column >= 0 && column < COLUMN_COUNT && text.length() > 0) {
+                            cells[column] = cellValue(cellType, text.toString());
+                            hasData = true;
+                        }
+                        column = -1;
+                    }
+                    case "row" -> {
+                        inRow = false;
+                        if (!hasData) {
+                            continue;
+                        }
+                        if (!headerSkipped) {
+                            headerSkipped = true;
+                            if (isHeader(cells[0])) {
+                                continue;
+                            }
+                        }
+                        return true;
+                    }
+                    case "sheetData" -> {
+                        return false;
+                    }
+                    default -> {
+                        // nada
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private String cellValue(String type, String raw) {
+        if ("s".equals(type)) {
+            int index;
+            try {
+                index = Integer.parseInt(raw.trim());
+            } catch (NumberFormatException e) {
+                throw new UncheckedIOException(new IOException("Índice de string compartido inválido '" + raw
+                        + "' en " + location + ", fila " + (rowRef != null ? rowRef : "sin número"), e));
+            }
+            return index >= 0 && index < sharedStrings.length ? sharedStrings[index] : null;
+        }
+        if ("b".equals(type)) {
+            return "1".equals(raw) ? "TRUE" : "FALSE";
+        }
+        if (type == null || "n".equals(type)) {
+            return plainNumber(raw);
+        }
+        // inlineStr, str, e
+        return raw;
+    }
+
+    /**
+     * Las celdas numéricas pueden venir como "1.0" o "9.12345678E8";
+     * se devuelven en notación plana para que ID y teléfono sean legibles.
+     */
+    private static String plainNumber(String raw) {
+        if (raw.indexOf('.') < 0 && raw.indexOf('E') < 0 && raw.indexOf('e') < 0) {
+            return raw;
+        }
+        try {
+            return new BigDecimal(raw).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return raw;
+        }
+    }
+
+    private static boolean isHeader(String firstCell) {
+        return firstCell != null && parseId(firstCell) == null;
+    }
+
+    static Asesor toAsesor(String[] cells) {
+        return new Asesor(
+                parseId(cells[0]),
+                cells[1],
+                cells[2],
+                cells[3],
+                cells[4],
+                cells[5],
+                cells[6]);
+    }
+
+    static Long parseId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Convierte una referencia de celda ("AB12") en índice de columna base 0.
+     */
+    static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            index = index * 26 + (ch - 'A' + 1);
+        }
+        return index - 1;
+    }
+
+    /**
+     * Devuelve las hojas del libro en orden: nombre -> ruta dentro del zip.
+     */
+    static Map<String, String> listSheets(ZipFile zipFile) throws IOException {
+        Map<String, String> sheets = new LinkedHashMap<>();
+        ZipEntry workbookEntry = zipFile.getEntry(WORKBOOK);
+        ZipEntry relsEntry = zipFile.getEntry(WORKBOOK_RELS);
+        if (workbookEntry == null || relsEntry == null) {
+            sheets.put("Sheet1", DEFAULT_SHEET);
+            return sheets;
+        }
+
+        Map<String, String> targets = new LinkedHashMap<>();
+        try (InputStream in = zipFile.getInputStream(relsEntry)) {
+            XMLStreamReader rels = newInputFactory().createXMLStreamReader(in, "UTF-8");
+            while (rels.hasNext()) {
+                if (rels.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(rels.getLocalName())) {
+                    String target = rels.getAttributeValue(null, "Target");
+                    if (target.startsWith("/")) {
+                        target = target.substring(1);
+                    } else {
+                        target = "xl/" + target;
+                    }
+                    targets.put(rels.getAttributeValue(null, "Id"), target);
+                }
+            }
+            rels.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Relaciones del libro inválidas: " + e.getMessage(), e);
+        }
+
+        try (InputStream in = zipFile.getInputStream(workbookEntry)) {
+            XMLStreamReader workbook = newInputFactory().createXMLStreamReader(in, "UTF-8");
+            while (workbook.hasNext()) {
+                if (workbook.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(workbook.getLocalName())) {
+                    String relId = workbook.getAttributeValue(NS_RELATIONSHIPS, "id");
+                    String target = targets.get(relId);
+                    if (target != null) {
+                        sheets.put(workbook.getAttributeValue(null, "name"), target);
+                    }
+                }
+            }
+            workbook.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("workbook.xml inválido: " + e.getMessage(), e);
+        }
+
+        if (sheets.isEmpty()) {
+            sheets.put("Sheet1", DEFAULT_SHEET);
+        }
+        return sheets;
+    }
+
+    private static String[] readSharedStrings(ZipFile zipFile) throws IOException {
+        ZipEntry entry = zipFile.getEntry(SHARED_STRINGS);
+        if (entry == null) {
+            return new String[0];
+        }
+
+        List<String> strings = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            XMLStreamReader reader = newInputFactory().createXMLStreamReader(in, "UTF-8");
+            boolean inText = false;
+            // Se ignora el texto fonético (rPh) para no duplicar contenido
+            boolean inPhonetic = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> current.setLength(0);
+                        case "rPh" -> inPhonetic = true;
+                        case "t" -> inText = !inPhonetic;
+                        default -> {
+                            // nada
+                        }
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (inText) {
+                        current.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> strings.add(current.toString());
+                        case "rPh" -> inPhonetic = false;
+                        case "t" -> inText = false;
+                        default -> {
+                            // nada
+                        }
+                    }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("sharedStrings.xml inválido: " + e.getMessage(), e);
+        }
+        return strings.toArray(new String[0]);
+    }
+
+    /**
+     * Libro abierto para leer varias de sus hojas, también a la vez desde
+     * varios hilos: el zip, la lista de hojas y los strings compartidos se
+     * leen una vez y los comparten todos sus lectores. Cerrarlo cierra el zip,
+     * así que antes deben haber terminado sus lectores.
+     */
+    static final class Workbook implements Closeable {
+
+        private final String filePath;
+        private final ZipFile zipFile;
+        private final Map<String, String> sheets;
+        private final String[] sharedStrings;
+
+        Workbook(String filePath) throws IOException {
+            this.filePath = filePath;
+            this.zipFile = new ZipFile(filePath);
+            try {
+                this.sheets = listSheets(zipFile);
+                this.sharedStrings = readSharedStrings(zipFile);
+            } catch (IOException | RuntimeException e) {
+                zipFile.close();
+                throw e;
+            }
+            logger.debug("Libro {} abierto: {} hojas, {} strings compartidos",
+                    filePath, sheets.size(), sharedStrings.length);
+        }
+
+        /* Abre la hoja con el nombre indicado (o la primera si es null) */
+        XlsxAsesorReader openSheet(String sheetName) throws IOException {
+            return new XlsxAsesorReader(zipFile, false, sheets, sharedStrings, filePath, sheetName);
+        }
+
+        @Override
+        public void close() throws IOException {
+            zipFile.close();
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Sin DTD ni entidades externas: los ficheros vienen de terceros
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
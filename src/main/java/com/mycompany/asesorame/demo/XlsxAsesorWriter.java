@@ -0,0 +1,372 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escritor XLSX por streaming. Las filas se serializan en una ventana de
+ * tamaño fijo y se vuelcan directamente a la entrada comprimida de la hoja,
+ * por lo que la memoria no depende del número de asesores escritos.
+ *
+ * Las columnas de baja cardinalidad (especialidad y ubicación) se escriben
+ * como strings compartidos deduplicados; el resto va en línea (inlineStr)
+ * para que la tabla compartida no crezca con cada nombre o email.
+ *
+ * Con más de un hilo de compresión las partes se comprimen en paralelo por
+ * bloques ({@link ParallelZipOutputStream}); el contenido del libro es el mismo.
+ */
+public class XlsxAsesorWriter implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(XlsxAsesorWriter.class);
+
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+    // Tope de la tabla de strings compartidos; por encima se escribe en línea
+    static final int MAX_SHARED_STRINGS = 1 << 16;
+
+    static final String[] HEADERS = {
+        "ID", "Nombre", "Apellido", "Email", "Telefono", "Especialidad", "Ubicacion"
+    };
+
+    private static final char[] COLUMNS = {'A', 'B', 'C', 'D', 'E', 'F', 'G'};
+
+    private final ZipOutputStream zip;
+    private final ParallelZipOutputStream parallelZip;
+    private final Writer out;
+    private final String sheetName;
+    private final int windowSize;
+    private final Map<String, Integer> sharedStrings = new LinkedHashMap<>();
+    // Celdas que referencian la tabla compartida (atributo count de sst)
+    private long sharedReferences;
+    private final StringBuilder window = new StringBuilder(8 * 1024);
+
+    private int rowsInWindow;
+    private long rowNumber;
+    private boolean closed;
+
+    public static XlsxAsesorWriter open(String filePath) throws IOException {
+        return open(filePath, 1);
+    }
+
+    /**
+     * Crea el archivo (y sus directorios) y empieza el libro. Si el escritor
+     * no llega a crearse, el archivo se cierra antes de propagar el error.
+     */
+    public static XlsxAsesorWriter open(String filePath, int compressionThreads) throws IOException {
+        OutputStream output = openFile(filePath);
+        try {
+            return new XlsxAsesorWriter(output, "Asesores", DEFAULT_WINDOW_SIZE, Deflater.DEFAULT_COMPRESSION,
+                    compressionThreads);
+        } catch (IOException | RuntimeException e) {
+            try {
+                output.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    public XlsxAsesorWriter(OutputStream output, String sheetName, int windowSize, int compressionLevel)
+            throws IOException {
+        this(output, sheetName, windowSize, compressionLevel, 1);
+    }
+
+    public XlsxAsesorWriter(OutputStream output, String sheetName, int windowSize, int compressionLevel,
+                            int compressionThreads) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de ventana debe ser positivo: " + windowSize);
+        }
+        if (compressionThreads > 1) {
+            this.zip = null;
+            this.parallelZip = new ParallelZipOutputStream(output, compressionLevel, compressionThreads);
+            this.out = new OutputStreamWriter(parallelZip, StandardCharsets.UTF_8);
+        } else {
+            this.zip = new ZipOutputStream(output, StandardCharsets.UTF_8);
+            this.zip.setLevel(compressionLevel);
+            this.parallelZip = null;
+            this.out = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        }
+        this.sheetName = sheetName;
+        this.windowSize = windowSize;
+
+        putNextEntry("xl/worksheets/sheet1.xml");
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<sheetData>");
+        writeHeader();
+    }
+
+    /**
+     * Añade una fila. Se vuelca al zip cada vez que se llena la ventana.
+     */
+    public void write(Asesor asesor) throws IOException {
+        write(asesor.getId(), asesor.getNombre(), asesor.getApellido(), asesor.getEmail(),
+                asesor.getTelefono(), asesor.getEspecialidad(), asesor.getUbicacion());
+    }
+
+    /**
+     * Añade una fila a partir de un registro inmutable, sin convertirlo a {@link Asesor}.
+     */
+    public void write(AsesorRecord asesor) throws IOException {
+        write(asesor.id(), asesor.nombre(), asesor.apellido(), asesor.email(),
+                asesor.telefono(), asesor.especialidad(), asesor.ubicacion());
+    }
+
+    private void write(Long id, String nombre, String apellido, String email, String telefono,
+                       String especialidad, String ubicacion) throws IOException {
+        if (closed) {
+            throw new IOException("El escritor ya está cerrado");
+        }
+        appendRow(window, ++rowNumber + 1, id, nombre, apellido, email, telefono, especialidad, ubicacion);
+        if (++rowsInWindow >= windowSize) {
+            flushWindow();
+        }
+    }
+
+    /**
+     * Número de asesores escritos (sin contar la cabecera).
+     */
+    public long getRowsWritten() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushWindow();
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            closeEntry();
+
+            writeSharedStrings();
+            writePart("[Content_Types].xml", contentTypes());
+            writePart("_rels/.rels", rootRels());
+            writePart("xl/workbook.xml", workbook());
+            writePart("xl/_rels/workbook.xml.rels", workbookRels());
+            writePart("xl/styles.xml", styles());
+            logger.debug("Hoja '{}' escrita: {} filas, {} strings compartidos",
+                    sheetName, rowNumber, sharedStrings.size());
+        } finally {
+            if (parallelZip != null) {
+                parallelZip.close();
+            } else {
+                zip.close();
+            }
+        }
+    }
+
+    private void putNextEntry(String name) throws IOException {
+        if (parallelZip != null) {
+            parallelZip.putNextEntry(name);
+        } else {
+            zip.putNextEntry(new ZipEntry(name));
+        }
+    }
+
+    private void closeEntry() throws IOException {
+        if (parallelZip != null) {
+            parallelZip.closeEntry();
+        } else {
+            zip.closeEntry();
+        }
+    }
+
+    private void flushWindow() throws IOException {
+        if (window.length() > 0) {
+            out.append(window);
+            window.setLength(0);
+        }
+        rowsInWindow = 0;
+    }
+
+    private void writeHeader() throws IOException {
+        StringBuilder row = new StringBuilder("<row r=\"1\">");
+        for (int i = 0; i < HEADERS.length; i++) {
+            appendInline(row, COLUMNS[i], 1, HEADERS[i]);
+        }
+        row.append("</row>");
+        out.write(row.toString());
+    }
+
+    private void appendRow(StringBuilder sb, long row, Long id, String nombre, String apellido, String email,
+                           String telefono, String especialidad, String ubicacion) {
+        sb.append("<row r=\"").append(row).append("\">");
+        if (id != null) {
+            sb.append("<c r=\"A").append(row).append("\"><v>").append(id.longValue()).append("</v></c>");
+        }
+        appendInline(sb, 'B', row, nombre);
+        appendInline(sb, 'C', row, apellido);
+        appendInline(sb, 'D', row, email);
+        appendInline(sb, 'E', row, telefono);
+        appendShared(sb, 'F', row, especialidad);
+        appendShared(sb, 'G', row, ubicacion);
+        sb.append("</row>");
+    }
+
+    private static void appendInline(StringBuilder sb, char column, long row, String value) {
+        if (value == null) {
+            return;
+        }
+        sb.append("<c r=\"").append(column).append(row).append("\" t=\"inlineStr\"><is><t");
+        if (needsPreserve(value)) {
+            sb.append(" xml:space=\"preserve\"");
+        }
+        sb.append('>');
+        escape(sb, value);
+        sb.append("</t></is></c>");
+    }
+
+    private void appendShared(StringBuilder sb, char column, long row, String value) {
+        if (value == null) {
+            return;
+        }
+        Integer index = sharedStrings.get(value);
+        if (index == null) {
+            if (sharedStrings.size() >= MAX_SHARED_STRINGS) {
+                appendInline(sb, column, row, value);
+                return;
+            }
+            index = sharedStrings.size();
+            sharedStrings.put(value, index);
+        }
+        sharedReferences++;
+        sb.append("<c r=\"").append(column).append(row).append("\" t=\"s\"><v>").append(index.intValue()).append("</v></c>");
+    }
+
+    private void writeSharedStrings() throws IOException {
+        putNextEntry("xl/sharedStrings.xml");
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+          .append("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"")
+          .append(sharedReferences).append("\" uniqueCount=\"").append(sharedStrings.size()).append("\">");
+        for (String value : sharedStrings.keySet()) {
+            sb.append("<si><t");
+            if (needsPreserve(value)) {
+                sb.append(" xml:space=\"preserve\"");
+            }
+            sb.append('>');
+            escape(sb, value);
+            sb.append("</t></si>");
+        }
+        sb.append("</sst>");
+        out.write(sb.toString());
+        out.flush();
+        closeEntry();
+    }
+
+    private void writePart(String name, String content) throws IOException {
+        putNextEntry(name);
+        out.write(content);
+        out.flush();
+        closeEntry();
+    }
+
+    private static boolean needsPreserve(String value) {
+        return !value.isEmpty()
+                && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+    }
+
+    /**
+     * Escapa caracteres especiales XML y descarta los de control no permitidos en XML 1.0.
+     */
+    static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> {
+                    if (ch >= 0x20 || ch == '\t' || ch == '\n' || ch == '\r') {
+                        sb.append(ch);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String contentTypes() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                + "</Types>";
+    }
+
+    private static String rootRels() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>";
+    }
+
+    private String workbook() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+          .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" ")
+          .append("xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">")
+          .append("<sheets><sheet name=\"");
+        escape(sb, sheetName);
+        sb.append("\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+        return sb.toString();
+    }
+
+    private static String workbookRels() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                + "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+                + "</Relationships>";
+    }
+
+    private static String styles() {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                + "<fills count=\"1\"><fill><patternFill patternType=\"none\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/></cellXfs>"
+                + "</styleSheet>";
+    }
+
+    private static OutputStream openFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsesorBatchServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void trasDetenerseRechazaTrabajosSinRegistrarlos() throws Exception {
+        AsesorBatchService service = new AsesorBatchService(new AsesorProcessorApp(), dir.resolve("service"), 0,
+                AsesorBatchService.MIN_JOB_MEMORY_MB);
+        Path file = Files.writeString(dir.resolve("asesores.csv"), "ID,Nombre\n");
+        service.close();
+
+        assertThrows(RejectedExecutionException.class, () -> service.submit(file));
+        assertTrue(service.getJobs().isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsesorIndexTest {
+
+    private static Asesor asesor(long id, String nombre, String email) {
+        return new Asesor(id, nombre, "", email, "987654321", "Legal", "Lima");
+    }
+
+    @Test
+    void elIndiceDePrefijosCoincideConElRecorridoCompleto() {
+        List<Asesor> asesores = List.of(
+                asesor(1, "ΟΔΥΣΣΕΑΣ", "odiseo@correo.com"),
+                asesor(2, "İlkay", "ILKAY@correo.com"),
+                asesor(3, "ilse", "ilse@correo.com"),
+                asesor(4, "Óscar", "oscar@correo.com"));
+        AsesorIndex index = new AsesorIndex(asesores);
+
+        for (String prefix : List.of("οδυσ", "ΟΔΥΣ", "i", "İ", "IL", "óS", "x")) {
+            AsesorIndex.Query byName = AsesorIndex.Query.where().fullNameStartsWith(prefix);
+            assertEquals(asesores.stream().filter(byName::matches).toList(), index.query(byName), prefix);
+            AsesorIndex.Query byEmail = AsesorIndex.Query.where().emailStartsWith(prefix);
+            assertEquals(asesores.stream().filter(byEmail::matches).toList(), index.query(byEmail), prefix);
+        }
+        assertEquals(1, index.count(AsesorIndex.Query.where().fullNameStartsWith("ΟΔΥΣ")));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsesorPipelineTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Asesor> asesores(int count) {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, "Apellido", "asesor" + id + "@correo.com", "9" + (10_000_000 + id),
+                    id % 2 == 0 ? "Legal" : "Finanzas", "Lima"));
+        }
+        return asesores;
+    }
+
+    private AsesorPipeline.Result run(List<Asesor> asesores, boolean retainValid) throws IOException {
+        // Los ids múltiplos de 5 se descartan como inválidos
+        AsesorPipeline pipeline = new AsesorPipeline(
+                batch -> batch.stream().filter(asesor -> asesor.getId() % 5 != 0).toList(),
+                new StatisticsService(), 100, 2, retainValid);
+        return pipeline.run(asesores.iterator(), new ExcelService(1).openWriter(dir.resolve("salida.xlsx").toString()));
+    }
+
+    @Test
+    void conservaLosValidosEnOrdenEnLaTabla() throws IOException {
+        List<Asesor> asesores = asesores(1_234);
+
+        AsesorPipeline.Result result = run(asesores, true);
+
+        List<Asesor> expected = asesores.stream().filter(asesor -> asesor.getId() % 5 != 0).toList();
+        assertEquals(1_234, result.getRead());
+        assertEquals(expected.size(), result.getValid());
+        assertEquals(expected.size(), result.getValidTable().size());
+        assertEquals(expected, result.getValidAsesores());
+    }
+
+    @Test
+    void sinRetainValidNoConservaFilas() throws IOException {
+        AsesorPipeline.Result result = run(asesores(1_234), false);
+
+        assertEquals(988, result.getValid());
+        assertTrue(result.getValidAsesores().isEmpty());
+        assertEquals(988, result.getSummary().getTotalAsesores());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsesorProcessorAppTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void elModoIncrementalConservaLosInvalidosSinCambios() throws IOException {
+        Path input = dir.resolve("asesores.csv");
+        new TestDataGenerator(new TestDataGenerator.Options().withSeed(3).withInvalidRates(0.05, 0.05, 0.02))
+                .generateTestFile(input.toString(), 2_000);
+        Path errors = dir.resolve("asesores" + AsesorProcessorApp.ERRORS_EXTENSION);
+        try (AsesorProcessorApp app = new AsesorProcessorApp()) {
+
+            AsesorProcessorApp.ProcessingResult first = app.processAsesorFile(input.toString(), dir.resolve("uno.xlsx").toString());
+            List<String> firstErrors = Files.readAllLines(errors, StandardCharsets.UTF_8);
+            assertEquals("pipeline", first.getMode());
+            assertTrue(first.getInvalid() > 0);
+
+            // Una fila nueva y válida: el resto del archivo no cambia
+            Files.writeString(input, "999999,Ana,Ríos,ana.rios@correo.com,987654321,Legal,Lima\n",
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            AsesorProcessorApp.ProcessingResult second = app.processAsesorFile(input.toString(), dir.resolve("dos.xlsx").toString());
+
+            assertEquals("incremental", second.getMode());
+            assertEquals(first.getInvalid(), second.getInvalid());
+            assertEquals(firstErrors, Files.readAllLines(errors, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void sinCambiosConFilasSinIdOIdsRepetidosNoSeReescribeNada() throws IOException {
+        Path input = dir.resolve("asesores.csv");
+        String csv = "1,Ana,Ríos,ana@correo.com,987654321,Legal,Lima\n"
+                + ",Eva,Cruz,eva@correo.com,912345678,Legal,Lima\n"
+                + "2,Luis,Paz,luis@correo.com,923456789,Finanzas,Piura\n"
+                + "2,Luis,Paz,luis2@correo.com,923456780,Finanzas,Piura\n"
+                + ",Eva,Cruz,eva@correo.com,912345678,Legal,Lima\n"
+                + "3,Rosa,Vega,rosa@correo.com,934567890,Legal,Cusco\n";
+        Files.writeString(input, csv, StandardCharsets.UTF_8);
+        try (AsesorProcessorApp app = new AsesorProcessorApp()) {
+            assertEquals("pipeline", app.processAsesorFile(input.toString(), dir.resolve("uno.xlsx").toString()).getMode());
+            Path state = Path.of(AsesorProcessorApp.statePathFor(input.toString()));
+            FileTime saved = Files.getLastModifiedTime(state);
+
+            // Mismo contenido con otra fecha: el snapshot deja de estar vigente
+            Files.writeString(input, csv, StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(input, FileTime.fromMillis(saved.toMillis() + 60_000));
+            AsesorProcessorApp.ProcessingResult second =
+                    app.processAsesorFile(input.toString(), dir.resolve("dos.xlsx").toString());
+
+            assertEquals("incremental", second.getMode());
+            assertEquals(6, second.getRead());
+            assertEquals(saved, Files.getLastModifiedTime(state));
+            assertTrue(Files.exists(dir.resolve("dos.xlsx")));
+            // El snapshot se asoció a la versión actual del archivo
+            assertEquals("snapshot",
+                    app.processAsesorFile(input.toString(), dir.resolve("tres.xlsx").toString()).getMode());
+        }
+    }
+
+    @Test
+    void sinConservarValidosNoSeUsanSnapshotNiEstado() throws IOException {
+        Path input = dir.resolve("asesores.csv");
+        new TestDataGenerator(new TestDataGenerator.Options().withSeed(5)).generateTestFile(input.toString(), 1_000);
+        try (AsesorProcessorApp app = new AsesorProcessorApp()) {
+            assertEquals("pipeline", app.processAsesorFile(input.toString(), dir.resolve("uno.xlsx").toString()).getMode());
+            Path state = Path.of(AsesorProcessorApp.statePathFor(input.toString()));
+            assertTrue(Files.exists(state));
+            FileTime saved = Files.getLastModifiedTime(state);
+
+            System.setProperty(AsesorProcessorApp.RETAIN_VALID_PROPERTY, "false");
+            try {
+                AsesorProcessorApp.ProcessingResult result =
+                        app.processAsesorFile(input.toString(), dir.resolve("dos.xlsx").toString());
+                assertEquals("pipeline", result.getMode());
+                assertEquals(1_000, result.getRead());
+                assertEquals(0, result.getDuplicates());
+            } finally {
+                System.clearProperty(AsesorProcessorApp.RETAIN_VALID_PROPERTY);
+            }
+            assertEquals(saved, Files.getLastModifiedTime(state));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AsesorRecordTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Asesor> asesores() {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, id % 4 == 0 ? null : "Ríos", "a" + id + "@correo.com",
+                    "98765" + (4000 + id), id % 2 == 0 ? "Legal" : "Tributario", id % 3 == 0 ? null : "Lima"));
+        }
+        return asesores;
+    }
+
+    @Test
+    void especialidadYUbicacionIgualesCompartenInstancia() {
+        AsesorRecord a = new AsesorRecord(1L, "Ana", "Ríos", null, null, new String("Legal"), new String("Lima"));
+        AsesorRecord b = new AsesorRecord(2L, "Eva", "Cruz", null, null, new String("Legal"), new String("Lima"));
+
+        assertSame(a.especialidad(), b.especialidad());
+        assertSame(a.ubicacion(), b.ubicacion());
+    }
+
+    @Test
+    void equalsHashCodeYToStringComoAsesor() {
+        for (Asesor asesor : asesores()) {
+            AsesorRecord record = AsesorRecord.from(asesor);
+            assertEquals(asesor.hashCode(), record.hashCode());
+            assertEquals(asesor.toString(), record.toString());
+            assertEquals(asesor, record.toAsesor());
+            assertEquals(record, AsesorRecord.from(record.toAsesor()));
+        }
+    }
+
+    @Test
+    void buildDejaElBuilderVacioParaLaSiguienteFila() {
+        AsesorRecord.Builder builder = AsesorRecord.builder();
+        AsesorRecord ana = builder.id(1L).nombre("Ana").apellido("Ríos").email("a@b.com").telefono("987654321")
+                .especialidad("Legal").ubicacion("Lima").build();
+        AsesorRecord eva = builder.id(2L).nombre("Eva").build();
+
+        assertEquals(new AsesorRecord(1L, "Ana", "Ríos", "a@b.com", "987654321", "Legal", "Lima"), ana);
+        assertEquals(new AsesorRecord(2L, "Eva", null, null, null, null, null), eva);
+        assertNull(builder.id(3L).reset().build().id());
+    }
+
+    @Test
+    void normalizarSinCambiosDevuelveElMismoRegistro() {
+        AsesorRecord record = new AsesorRecord(1L, "Ana", "Ríos", "a@b.com", "987654321", "Legal", "Lima");
+
+        assertSame(record, record.withNormalized("Ana", "Ríos", "a@b.com", "Legal"));
+        assertEquals(new AsesorRecord(1L, "Ana", "Ríos", "ana@b.com", "987654321", "Legal", "Lima"),
+                record.withNormalized("Ana", "Ríos", "ana@b.com", "Legal"));
+    }
+
+    @Test
+    void leerRegistrosDeXlsxYCsvComoLosAsesores() throws IOException {
+        List<Asesor> asesores = asesores();
+        List<AsesorRecord> expected = asesores.stream().map(AsesorRecord::from).collect(Collectors.toList());
+        ExcelService excelService = new ExcelService(1);
+
+        Path xlsx = dir.resolve("asesores.xlsx");
+        excelService.writeAsesoresToExcel(asesores, xlsx.toString());
+        StringBuilder csv = new StringBuilder("ID,Nombre,Apellido,Email,Telefono,Especialidad,Ubicacion\n");
+        for (Asesor asesor : asesores) {
+            csv.append(asesor.getId()).append(',').append(asesor.getNombre()).append(',')
+                    .append(asesor.getApellido() == null ? "" : asesor.getApellido()).append(',')
+                    .append(asesor.getEmail()).append(',').append(asesor.getTelefono()).append(',')
+                    .append(asesor.getEspecialidad()).append(',')
+                    .append(asesor.getUbicacion() == null ? "" : asesor.getUbicacion()).append('\n');
+        }
+        Path file = Files.writeString(dir.resolve("asesores.csv"), csv, StandardCharsets.UTF_8);
+
+        for (Path path : List.of(xlsx, file)) {
+            List<AsesorRecord> read = new ArrayList<>();
+            assertEquals(expected.size(), excelService.readRecords(path.toString(), read::add));
+            assertEquals(expected, read, path.toString());
+            try (Stream<AsesorRecord> records = excelService.streamRecords(path.toString())) {
+                assertEquals(expected, records.collect(Collectors.toList()), path.toString());
+            }
+        }
+    }
+
+    @Test
+    void alternarAsesoresYRegistrosEnElMismoLector() throws IOException {
+        List<Asesor> asesores = asesores();
+        Path xlsx = dir.resolve("asesores.xlsx");
+        new ExcelService(1).writeAsesoresToExcel(asesores, xlsx.toString());
+        Path csv = Files.writeString(dir.resolve("asesores.csv"), asesores.stream()
+                .map(a -> a.getId() + "," + a.getNombre() + ",,,," + a.getEspecialidad() + ",")
+                .collect(Collectors.joining("\n")), StandardCharsets.UTF_8);
+
+        try (AsesorReader reader = new XlsxAsesorReader(xlsx.toString())) {
+            assertAlternates(asesores, reader, false);
+        }
+        List<Asesor> parciales = asesores.stream()
+                .map(a -> new Asesor(a.getId(), a.getNombre(), null, null, null, a.getEspecialidad(), null))
+                .collect(Collectors.toList());
+        // Trozos pequeños para cambiar de trozo entre filas
+        try (AsesorReader reader = new CsvAsesorReader(csv.toString(), ',', 2, 97)) {
+            assertAlternates(parciales, reader, true);
+        }
+    }
+
+    private static void assertAlternates(List<Asesor> expected, AsesorReader reader, boolean hasNextFirst) {
+        AsesorRecord.Builder builder = AsesorRecord.builder();
+        for (int i = 0; i < expected.size(); i++) {
+            if (hasNextFirst) {
+                reader.hasNext();
+            }
+            if (i % 2 == 0) {
+                assertEquals(expected.get(i), reader.next());
+            } else {
+                assertEquals(AsesorRecord.from(expected.get(i)), reader.nextRecord(builder));
+            }
+        }
+        assertEquals(expected.size(), reader.getRowsRead());
+        assertEquals(false, reader.hasNext());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsesorSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /* Más de 64 filas, con ids y textos nulos alternando con no nulos */
+    private static List<Asesor> asesores(int count) {
+        List<Asesor> asesores = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            asesores.add(new Asesor(
+                    i % 7 == 3 ? null : Long.valueOf(1000 + i),
+                    i % 5 == 0 ? null : "Nombre" + i,
+                    i % 5 == 1 ? null : "Ríos" + (i % 3),
+                    i % 11 == 0 ? null : "a" + i + "@correo.com",
+                    i % 13 == 2 ? null : "98765" + String.format("%04d", i),
+                    i % 4 == 0 ? null : "Esp" + (i % 6),
+                    i % 9 == 0 ? null : "Ciudad" + (i % 4)));
+        }
+        return asesores;
+    }
+
+    private AsesorSnapshot roundTrip(List<Asesor> asesores, long sourceRows, long[] failures) throws IOException {
+        Path path = dir.resolve("asesores.snap");
+        AsesorSnapshot.write(AsesorTable.from(asesores), path, 1234, 5678, sourceRows, failures);
+        return AsesorSnapshot.open(path);
+    }
+
+    @Test
+    void conservaFilasConNulosYMasDe64() throws IOException {
+        List<Asesor> asesores = asesores(200);
+        long[] failures = new long[ValidationRule.all().length];
+        failures[ValidationRule.EMAIL_FORMATO.ordinal()] = 7;
+        failures[ValidationRule.ID_INVALIDO.ordinal()] = 2;
+
+        try (AsesorSnapshot snapshot = roundTrip(asesores, 215, failures)) {
+            assertEquals(200, snapshot.size());
+            assertTrue(snapshot.isSnapshotOf(1234, 5678));
+            assertFalse(snapshot.isSnapshotOf(1234, 5679));
+            assertEquals(asesores, snapshot.asList());
+            for (int row = 0; row < asesores.size(); row++) {
+                Asesor asesor = asesores.get(row);
+                assertEquals(asesor.getId(), snapshot.getId(row), "fila " + row);
+                assertEquals(asesor.getEmail(), snapshot.getEmail(row), "fila " + row);
+                assertEquals(asesor.getTelefono(), snapshot.getTelefono(row), "fila " + row);
+                assertEquals(asesor.getEspecialidad(), snapshot.getEspecialidad(row), "fila " + row);
+                assertEquals(asesor.getUbicacion(), snapshot.getUbicacion(row), "fila " + row);
+            }
+            assertNull(snapshot.getId(3));
+            assertNull(snapshot.getNombre(0));
+            assertEquals(215, snapshot.getSourceRows());
+            assertEquals(7, snapshot.countByRule(ValidationRule.EMAIL_FORMATO));
+            assertEquals(2, snapshot.countByRule(ValidationRule.ID_INVALIDO));
+            assertEquals(0, snapshot.countByRule(ValidationRule.NOMBRE_CORTO));
+        }
+    }
+
+    @Test
+    void tablaVacia() throws IOException {
+        try (AsesorSnapshot snapshot = roundTrip(List.of(), 0, new long[0])) {
+            assertEquals(0, snapshot.size());
+            assertTrue(snapshot.asList().isEmpty());
+            assertEquals(0, snapshot.getSourceRows());
+            assertEquals(0, snapshot.countByRule(ValidationRule.ASESOR_NULO));
+        }
+    }
+
+    @Test
+    void sinEstadisticasDelOrigenNoSeConocenLasFilasLeidas() throws IOException {
+        Path path = dir.resolve("asesores.snap");
+        AsesorSnapshot.write(AsesorTable.from(asesores(10)), path, 1, 2);
+        try (AsesorSnapshot snapshot = AsesorSnapshot.open(path)) {
+            assertEquals(-1, snapshot.getSourceRows());
+            assertEquals(0, snapshot.countByRule(ValidationRule.EMAIL_FORMATO));
+            assertEquals(asesores(10), snapshot.asList());
+        }
+    }
+
+    @Test
+    void sketchesSobreLasColumnasIgualesQueSobreLasFilas() throws IOException {
+        List<Asesor> asesores = asesores(200);
+        StatisticsService statisticsService = new StatisticsService();
+        StatisticsService.SketchAggregator expected = statisticsService.sketch(asesores);
+        try (AsesorSnapshot snapshot = roundTrip(asesores, 200, new long[0])) {
+            StatisticsService.SketchAggregator actual = statisticsService.sketch(snapshot);
+            assertEquals(expected.getTotal(), actual.getTotal());
+            assertEquals(expected.topEspecialidades(5).toString(), actual.topEspecialidades(5).toString());
+            assertEquals(expected.topUbicaciones(5).toString(), actual.topUbicaciones(5).toString());
+            assertEquals(expected.countDistinctEmails(), actual.countDistinctEmails());
+            assertEquals(expected.countDistinctTelefonos(), actual.countDistinctTelefonos());
+            assertEquals(expected.countEmail("a5@correo.com"), actual.countEmail("a5@correo.com"));
+        }
+    }
+}
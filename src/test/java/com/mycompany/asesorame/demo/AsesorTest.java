@@ -0,0 +1,48 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsesorTest {
+
+    private static Asesor asesor() {
+        return new Asesor(7L, "Ana", "Pérez", "ana@correo.com", "+34600111222", "Finanzas", "Madrid");
+    }
+
+    @Test
+    void cadaSetterInvalidaElHashCalculado() {
+        checkSetter(Asesor::setNombre, "Eva");
+        checkSetter(Asesor::setApellido, "Gómez");
+        checkSetter(Asesor::setEmail, "eva@correo.com");
+        checkSetter(Asesor::setTelefono, "+34600999888");
+        checkSetter(Asesor::setEspecialidad, "Legal");
+        checkSetter(Asesor::setUbicacion, "Sevilla");
+        checkSetter((asesor, ignored) -> asesor.setId(8L), null);
+    }
+
+    private static void checkSetter(BiConsumer<Asesor, String> setter, String value) {
+        Asesor changed = asesor();
+        changed.hashCode();
+        setter.accept(changed, value);
+
+        Asesor fresh = asesor();
+        setter.accept(fresh, value);
+        assertEquals(fresh.hashCode(), changed.hashCode());
+        assertEquals(fresh, changed);
+        assertEquals(changed, fresh);
+    }
+
+    @Test
+    void mismoHashQueGuava() {
+        Asesor a = asesor();
+        assertEquals(com.google.common.base.Objects.hashCode(a.getId(), a.getNombre(), a.getApellido(),
+                a.getEmail(), a.getTelefono(), a.getEspecialidad(), a.getUbicacion()), a.hashCode());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.validator.routines.EmailValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsesorValidatorTest {
+
+    private static List<Asesor> lote() {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= AsesorValidator.MIN_PARALLEL_SIZE * 2; id++) {
+            asesores.add(new Asesor(id, "ana", "ríos", " ana" + id + "@correo.com ", "987654321", "legal", "Lima"));
+        }
+        return asesores;
+    }
+
+    @Test
+    void cerrarDetieneElPoolDelValidadorOriginal() {
+        AsesorValidator validator = new AsesorValidator(2);
+        AsesorValidator conMetricas = validator.withMetrics(new Metrics());
+        assertEquals(lote().size(), conMetricas.normalizeAndValidate(lote()).getValid().size());
+
+        // La copia no es dueña del pool: cerrarla no afecta al original
+        conMetricas.close();
+        assertEquals(lote().size(), validator.normalizeAndValidate(lote()).getValid().size());
+
+        validator.close();
+        assertThrows(IllegalStateException.class, () -> validator.normalizeAndValidate(lote()));
+        assertThrows(IllegalStateException.class, () -> conMetricas.normalizeAndValidate(lote()));
+        // Los lotes pequeños no usan el pool
+        assertEquals(1, validator.normalizeAndValidate(lote().subList(0, 1)).getValid().size());
+    }
+
+    /* validate() anterior a la máscara de bits, tal cual, como referencia */
+    private static List<String> validacionOriginal(Asesor asesor) {
+        List<String> errors = new ArrayList<>();
+        if (asesor == null) {
+            errors.add("El asesor no puede ser nulo.");
+            return errors;
+        }
+        if (asesor.getId() == null || asesor.getId() <= 0) {
+            errors.add("El ID del asesor es obligatorio y debe ser un número positivo.");
+        }
+        if (StringUtils.isBlank(asesor.getNombre())) {
+            errors.add("El nombre del asesor es obligatorio.");
+        } else if (asesor.getNombre().length() < 2) {
+            errors.add("El nombre del asesor debe tener al menos 2 caracteres.");
+        } else if (asesor.getNombre().length() > 50) {
+            errors.add("El nombre del asesor no puede exceder los 50 caracteres.");
+        }
+        if (StringUtils.isBlank(asesor.getApellido())) {
+            errors.add("El apellido del asesor es obligatorio.");
+        } else if (asesor.getApellido().length() < 2) {
+            errors.add("El apellido del asesor debe tener al menos 2 caracteres.");
+        } else if (asesor.getApellido().length() > 50) {
+            errors.add("El apellido del asesor no puede exceder los 50 caracteres.");
+        }
+        if (StringUtils.isBlank(asesor.getEmail())) {
+            errors.add("El email es obligatorio");
+        } else if (!EmailValidator.getInstance().isValid(asesor.getEmail())) {
+            errors.add("El formato del email es inválido: " + asesor.getEmail());
+        }
+        if (StringUtils.isBlank(asesor.getTelefono())) {
+            errors.add("El teléfono del asesor es obligatorio.");
+        } else if (!asesor.getTelefono().matches("^\\d{9}$")) {
+            errors.add("El teléfono debe contener exactamente 9 dígitos.");
+        }
+        if (StringUtils.isBlank(asesor.getEspecialidad())) {
+            errors.add("La especialidad del asesor es obligatoria.");
+        }
+        if (StringUtils.isBlank(asesor.getUbicacion())) {
+            errors.add("La ubicación del asesor es obligatoria.");
+        }
+        return errors;
+    }
+
+    private static void assertMismosErrores(AsesorValidator validator, Asesor asesor) {
+        List<String> expected = validacionOriginal(asesor);
+        int failures = validator.check(asesor);
+        assertEquals(expected, validator.validate(asesor), String.valueOf(asesor));
+        assertEquals(expected, AsesorValidator.messages(asesor, failures), String.valueOf(asesor));
+        assertEquals(expected.size(), Integer.bitCount(failures), String.valueOf(asesor));
+        assertEquals(expected.isEmpty(), validator.isValid(asesor), String.valueOf(asesor));
+        if (asesor != null) {
+            assertEquals(failures, validator.check(AsesorRecord.from(asesor)), String.valueOf(asesor));
+        }
+    }
+
+    @Test
+    void cadaReglaDaLosMismosErroresQueLaValidacionOriginal() {
+        AsesorValidator validator = new AsesorValidator(1);
+        String largo = "a".repeat(51);
+        List<Asesor> casos = new ArrayList<>();
+        casos.add(null);
+        casos.add(new Asesor(1L, "Ana", "Ríos", "ana@correo.com", "987654321", "Legal", "Lima"));
+        for (Long id : new Long[]{null, 0L, -5L}) {
+            casos.add(new Asesor(id, "Ana", "Ríos", "ana@correo.com", "987654321", "Legal", "Lima"));
+        }
+        for (String texto : new String[]{null, "", "   ", "A", "Ab", "a".repeat(50), largo}) {
+            casos.add(new Asesor(1L, texto, "Ríos", "ana@correo.com", "987654321", "Legal", "Lima"));
+            casos.add(new Asesor(1L, "Ana", texto, "ana@correo.com", "987654321", "Legal", "Lima"));
+            casos.add(new Asesor(1L, "Ana", "Ríos", "ana@correo.com", "987654321", texto, "Lima"));
+            casos.add(new Asesor(1L, "Ana", "Ríos", "ana@correo.com", "987654321", "Legal", texto));
+        }
+        for (String email : new String[]{null, " ", "ana", "ana@", "ana@@correo.com", "ana correo@x.com", "a@b.co"}) {
+            casos.add(new Asesor(1L, "Ana", "Ríos", email, "987654321", "Legal", "Lima"));
+        }
+        for (String telefono : new String[]{null, "", "98765432", "9876543210", "98765432a", "987 65432",
+                "９８７６５４３２１", "+98765432"}) {
+            casos.add(new Asesor(1L, "Ana", "Ríos", "ana@correo.com", telefono, "Legal", "Lima"));
+        }
+        // Todas las reglas a la vez, en el orden de los mensajes
+        casos.add(new Asesor(null, "", largo, "x@", "12", null, " "));
+
+        for (Asesor asesor : casos) {
+            assertMismosErrores(validator, asesor);
+        }
+    }
+
+    @Test
+    void datosGeneradosDanLosMismosErroresQueLaValidacionOriginal() {
+        TestDataGenerator generator = new TestDataGenerator(new TestDataGenerator.Options()
+                .withInvalidRates(0.2, 0.2, 0.2));
+        SplittableRandom random = new SplittableRandom(11);
+        TestDataGenerator.Distribution uniform = new TestDataGenerator.Distribution(10, 0);
+        AsesorValidator validator = new AsesorValidator(1);
+        for (long id = 1; id <= 3_000; id++) {
+            assertMismosErrores(validator, generator.generate(id, random, uniform, uniform));
+        }
+    }
+}
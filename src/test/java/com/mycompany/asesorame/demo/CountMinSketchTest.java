@@ -0,0 +1,79 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    /* Flujo con frecuencias muy desiguales: el valor k aparece ~1/k veces */
+    private static Map<String, Long> fill(CountMinSketch sketch, int values, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TestDataGenerator.Distribution zipf = new TestDataGenerator.Distribution(values, 1.1);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            String value = "9" + (10_000_000 + zipf.sample(random));
+            sketch.add(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+        return exact;
+    }
+
+    @Test
+    void modoExactoCoincideConElConteo() {
+        CountMinSketch sketch = new CountMinSketch();
+        Map<String, Long> exact = fill(sketch, 500, 50_000, 1);
+        assertTrue(sketch.isExact());
+        assertEquals(0, sketch.getErrorBound());
+        exact.forEach((value, count) -> assertEquals(count, sketch.estimate(value)));
+        assertEquals(0, sketch.estimate("no-existe"));
+    }
+
+    @Test
+    void modoAproximadoNuncaSubestimaYRespetaLaCota() {
+        CountMinSketch sketch = new CountMinSketch(CountMinSketch.DEFAULT_WIDTH, CountMinSketch.DEFAULT_DEPTH, 0);
+        Map<String, Long> exact = fill(sketch, 200_000, 1_000_000, 2);
+        assertFalse(sketch.isExact());
+        assertEquals(1_000_000, sketch.getTotal());
+
+        long bound = sketch.getErrorBound();
+        long overBound = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate - entry.getValue() > bound) {
+                overBound++;
+            }
+        }
+        double allowed = 1 - sketch.getConfidence();
+        assertTrue(overBound <= allowed * exact.size(), overBound + " estimaciones fuera de la cota");
+    }
+
+    @Test
+    void combinarEquivaleAContarTodoJunto() {
+        CountMinSketch first = new CountMinSketch(1024, 4, 100);
+        CountMinSketch second = new CountMinSketch(1024, 4, 100);
+        CountMinSketch all = new CountMinSketch(1024, 4, 100);
+        fill(first, 5_000, 40_000, 3);
+        fill(second, 50, 1_000, 4);
+        fill(all, 5_000, 40_000, 3);
+        fill(all, 50, 1_000, 4);
+
+        first.merge(second);
+        assertEquals(all.getTotal(), first.getTotal());
+        for (int k = 0; k < 5_000; k++) {
+            String value = "9" + (10_000_000 + k);
+            assertEquals(all.estimate(value), first.estimate(value), value);
+        }
+    }
+}
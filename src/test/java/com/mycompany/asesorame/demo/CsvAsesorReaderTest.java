@@ -0,0 +1,73 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvAsesorReaderTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Asesor> read(Path file, int parallelism, int chunkSize) throws IOException {
+        List<Asesor> asesores = new ArrayList<>();
+        try (CsvAsesorReader reader = new CsvAsesorReader(file.toString(), ',', parallelism, chunkSize)) {
+            reader.forEachRemaining(asesores::add);
+        }
+        return asesores;
+    }
+
+    @Test
+    void comillasSaltosDeLineaYCrlfConCualquierTamanoDeTrozo() throws IOException {
+        StringBuilder csv = new StringBuilder("﻿ID,Nombre,Apellido,Email,Telefono,Especialidad,Ubicacion\r\n");
+        List<Asesor> expected = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            String nombre = id % 7 == 0 ? "Ana \"la\" de\nLima, Perú" : "Nombre" + id;
+            String apellido = id % 5 == 0 ? "Ríos, \"Vega\"" : "Ríos";
+            expected.add(new Asesor(id, nombre, apellido, "a" + id + "@correo.com", "98765" + (4000 + id),
+                    "Legal", id % 3 == 0 ? null : "Lima"));
+            csv.append(id).append(',').append(quote(nombre)).append(',').append(quote(apellido)).append(",a")
+                    .append(id).append("@correo.com,98765").append(4000 + id).append(",Legal,")
+                    .append(id % 3 == 0 ? "" : "Lima").append(id % 2 == 0 ? "\r\n" : "\n");
+            if (id % 50 == 0) {
+                csv.append("\n,,,,,,\n");
+            }
+        }
+        Path file = Files.writeString(dir.resolve("asesores.csv"), csv, StandardCharsets.UTF_8);
+
+        for (int chunkSize : new int[]{1, 7, 8, 13, 64, 333, 1 << 20}) {
+            assertEquals(expected, read(file, 3, chunkSize), "chunkSize " + chunkSize);
+        }
+    }
+
+    @Test
+    void idNoNumericoFueraDeLaCabecera() throws IOException {
+        Path file = Files.writeString(dir.resolve("ids.csv"),
+                "1,Ana,Ríos,a@b.com,987654321,Legal,Lima\nx7,Eva,Cruz,e@b.com,912345678,Legal,Lima\n");
+
+        List<Asesor> asesores = read(file, 1, 16);
+
+        assertEquals(2, asesores.size());
+        assertEquals(1L, asesores.get(0).getId());
+        assertNull(asesores.get(1).getId());
+        assertEquals("Eva", asesores.get(1).getNombre());
+    }
+
+    private static String quote(String value) {
+        boolean needsQuotes = value.contains(",") || value.contains("\"") || value.contains("\n");
+        return needsQuotes ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateDetectorTest {
+
+    private final DuplicateDetector detector = new DuplicateDetector();
+
+    private static Asesor asesor(long id, String nombre, String apellido, String email, String telefono) {
+        return new Asesor(id, nombre, apellido, email, telefono, "Legal", "Lima");
+    }
+
+    @Test
+    void unenEmailYTelefonoExactos() {
+        List<Asesor> asesores = List.of(
+                asesor(1, "Ana", "Ríos", "ana@correo.com", "987111222"),
+                asesor(2, "Luis", "Vega", " ANA@correo.com ", "955444333"),
+                asesor(3, "Rosa", "León", "rosa@correo.com", "912000111"),
+                asesor(4, "Eva", "Cruz", "eva@correo.com", "912 000 111"));
+
+        DuplicateDetector.Result result = detector.detect(asesores);
+
+        assertEquals(2, result.getClusters().size());
+        assertEquals(2, result.getDuplicateCount());
+        assertEquals(1, result.countByReason(DuplicateDetector.Reason.EMAIL));
+        assertEquals(1, result.countByReason(DuplicateDetector.Reason.TELEFONO));
+    }
+
+    @Test
+    void nombreParecidoConTelefonoCasiIgual() {
+        List<Asesor> asesores = List.of(
+                asesor(1, "María Fernanda", "Gutiérrez", "mfg@uno.com", "987654321"),
+                asesor(2, "Maria Fernanda", "Gutierres", "fer@dos.com", "987654312"));
+
+        DuplicateDetector.Result result = detector.detect(asesores);
+
+        assertEquals(1, result.getClusters().size());
+        assertTrue(result.getClusters().get(0).getReasons().contains(DuplicateDetector.Reason.NOMBRE_SIMILAR));
+    }
+
+    @Test
+    void nombreIgualSinOtroDatoNoBasta() {
+        List<Asesor> asesores = List.of(
+                asesor(1, "Juan", "Pérez", "juan.perez1@uno.com", "987654321"),
+                asesor(2, "Juan", "Pérez", "juan.perez2@dos.com", "912345678"));
+
+        assertTrue(detector.detect(asesores).getClusters().isEmpty());
+    }
+
+    @Test
+    void comparaTodosLosParesDelGrupo() {
+        // A~B y A~C, pero B y C no se parecen entre sí: B y C solo se unen a través de A
+        Asesor b = asesor(1, "Mariafernanda Gutierrez", "Xu", "b@uno.com", "987654320");
+        Asesor c = asesor(2, "Maria Fernanda Gutierrez", "", "c@dos.com", "987654322");
+        Asesor a = asesor(3, "Mariafernanda Gutierrez", "", "a@tres.com", "987654321");
+        assertTrue(detector.similarNames(a.getFullName(), b.getFullName()));
+        assertTrue(detector.similarNames(a.getFullName(), c.getFullName()));
+        assertFalse(detector.similarNames(b.getFullName(), c.getFullName()));
+
+        DuplicateDetector.Result result = detector.detect(List.of(b, c, a));
+
+        assertEquals(1, result.getClusters().size());
+        assertArrayEquals(new int[]{0, 1, 2}, result.getClusters().get(0).getRows());
+    }
+
+    @Test
+    void datosGeneradosNoFormanGruposFalsos() {
+        // ~900 combinaciones de nombre: sin dato corroborante casi todas las filas acabarían agrupadas
+        TestDataGenerator generator = new TestDataGenerator(new TestDataGenerator.Options()
+                .withInvalidRates(0, 0, 0));
+        SplittableRandom random = new SplittableRandom(7);
+        TestDataGenerator.Distribution uniform = new TestDataGenerator.Distribution(10, 0);
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= 50_000; id++) {
+            asesores.add(generator.generate(id, random, uniform, uniform));
+        }
+
+        DuplicateDetector.Result result = detector.detect(asesores);
+
+        int largest = result.getClusters().isEmpty() ? 0 : result.getClusters().get(0).size();
+        assertTrue(largest <= 3, "Grupo más grande: " + largest);
+        assertTrue(result.getDuplicateCount() < 500,
+                "Duplicados: " + result.getDuplicateCount() + " " + Arrays.toString(result.getClusters().toArray()));
+    }
+}
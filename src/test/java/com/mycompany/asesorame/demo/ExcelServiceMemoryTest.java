@@ -0,0 +1,106 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lee un libro generado de un millón de filas en una JVM aparte con un heap
+ * de {@value #HEAP}: si el lector retuviera filas, la JVM hija terminaría con
+ * OutOfMemoryError. El número de filas se puede cambiar con
+ * {@code -Dasesorame.test.memory.rows=N}.
+ */
+class ExcelServiceMemoryTest {
+
+    static final String HEAP = "-Xmx64m";
+    static final long ROWS = Long.getLong("asesorame.test.memory.rows", 1_000_000);
+
+    @TempDir
+    static Path dir;
+    static Path workbook;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        workbook = dir.resolve("asesores.xlsx");
+        new TestDataGenerator(new TestDataGenerator.Options().withSeed(1)).generateTestFile(workbook.toString(), ROWS);
+    }
+
+    @Test
+    void streamLeeTodasLasFilasConHeapPequeno() throws Exception {
+        assertEquals(ROWS, readInSmallHeap("stream"));
+    }
+
+    @Test
+    void lectorFilaAFilaLeeTodasLasFilasConHeapPequeno() throws Exception {
+        assertEquals(ROWS, readInSmallHeap("reader"));
+    }
+
+    private static long readInSmallHeap(String mode) throws Exception {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), HEAP, "-XX:+ExitOnOutOfMemoryError",
+                "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn",
+                "-cp", testClassPath(),
+                StreamingRead.class.getName(), mode, workbook.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(10, TimeUnit.MINUTES), "La lectura no terminó");
+        assertEquals(0, process.exitValue(), "La JVM con " + HEAP + " falló:\n" + output);
+        List<String> lines = output.lines().toList();
+        return Long.parseLong(lines.get(lines.size() - 1).trim());
+    }
+
+    /* Classpath de las pruebas: el del sistema más el de un lanzador con su propio cargador (IDE, consola) */
+    private static String testClassPath() throws Exception {
+        StringJoiner classPath = new StringJoiner(File.pathSeparator).add(System.getProperty("java.class.path"));
+        for (ClassLoader loader = ExcelServiceMemoryTest.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader urlLoader) {
+                for (URL url : urlLoader.getURLs()) {
+                    classPath.add(Paths.get(url.toURI()).toString());
+                }
+            }
+        }
+        return classPath.toString();
+    }
+
+    /* Programa de la JVM hija: cuenta las filas sin guardarlas */
+    static final class StreamingRead {
+
+        public static void main(String[] args) throws IOException {
+            ExcelService excelService = new ExcelService(1);
+            long count = 0;
+            if (args[0].equals("stream")) {
+                try (Stream<Asesor> asesores = excelService.streamAsesoresFromExcel(args[1])) {
+                    count = asesores.filter(asesor -> asesor.getId() != null).count();
+                }
+            } else {
+                try (XlsxAsesorReader reader = excelService.openReader(args[1])) {
+                    while (reader.hasNext()) {
+                        reader.next();
+                        count++;
+                    }
+                }
+            }
+            System.out.println(count);
+        }
+    }
+}
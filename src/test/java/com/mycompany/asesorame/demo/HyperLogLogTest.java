@@ -0,0 +1,75 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void modoExactoCuentaLosDistintos() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 3000; i++) {
+            hll.add("asesor" + (i % 1000) + "@correo.com");
+        }
+        assertTrue(hll.isExact());
+        assertEquals(1000, hll.estimate());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5_000, 100_000, 1_000_000})
+    void modoAproximadoDentroDelError(int distinct) {
+        HyperLogLog approximate = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION, 0);
+        HyperLogLog exact = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION, Integer.MAX_VALUE);
+        for (int i = 0; i < distinct; i++) {
+            String email = "asesor" + i + "@correo.com";
+            approximate.add(email);
+            approximate.add(email);
+            if (distinct <= 100_000) {
+                exact.add(email);
+            }
+        }
+        assertFalse(approximate.isExact());
+        if (distinct <= 100_000) {
+            assertEquals(distinct, exact.estimate());
+        }
+        // 4 errores estándar: con la semilla fija el resultado es determinista
+        double error = Math.abs(approximate.estimate() - distinct) / (double) distinct;
+        assertTrue(error < 4 * approximate.getRelativeError(), "Error relativo " + error);
+    }
+
+    @Test
+    void combinarEquivaleALaUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            String value = Integer.toString(i);
+            (i < 40_000 ? first : second).add(value);
+            if (i >= 20_000 && i < 30_000) {
+                second.add(value);
+            }
+            all.add(value);
+        }
+        first.merge(second);
+        assertEquals(all.estimate(), first.estimate());
+
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog other = new HyperLogLog();
+        for (int i = 0; i < 300; i++) {
+            small.add("a" + i);
+            other.add("a" + (i + 100));
+        }
+        small.merge(other);
+        assertTrue(small.isExact());
+        assertEquals(400, small.estimate());
+    }
+}
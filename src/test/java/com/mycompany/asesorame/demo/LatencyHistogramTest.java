@@ -0,0 +1,63 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void cadaCubetaAcotaElValorConErrorRelativoPequeno() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(LatencyHistogram.MAX_VALUE + 1);
+            long upper = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value, "Valor " + value + " en una cubeta que acaba en " + upper);
+            assertTrue(upper - value <= value / LatencyHistogram.SUB_BUCKETS, "Valor " + value + ", cubeta " + upper);
+        }
+        for (long value = 0; value < 1 << LatencyHistogram.LINEAR_BITS; value++) {
+            assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value)));
+        }
+    }
+
+    @Test
+    void percentilesDentroDeLaResolucion() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordValue(value * 1_000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(1_000, histogram.getMin());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(100_000L * 100_001 / 2 * 1_000, histogram.getSum());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double exact = percentile * 1_000_000;
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS),
+                    "p" + percentile + ": " + estimate + " frente a " + exact);
+        }
+        assertEquals(histogram.getMax(), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void losValoresFueraDeRangoSeAcotan() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(-5);
+        histogram.recordValue(Long.MAX_VALUE / 2);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(Long.MAX_VALUE / 2, histogram.getMax());
+        // Los percentiles se saturan en la última cubeta (~68 s)
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
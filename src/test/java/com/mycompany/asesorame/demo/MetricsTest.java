@@ -0,0 +1,96 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    @TempDir
+    Path dir;
+
+    private static Metrics ejemplo() {
+        Metrics metrics = new Metrics();
+        metrics.counter("asesorame_rule_failures_total", "Fallos por regla", "rule", "EMAIL \"raro\"").add(3);
+        metrics.gauge("asesorame_run_seconds", "Duración").set(1.5);
+        Metrics.Histogram histogram = metrics.histogram("asesorame_validate_seconds", "Validación");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        return metrics;
+    }
+
+    @Test
+    void textoDePrometheus() {
+        String text = ejemplo().toPrometheusText();
+
+        assertTrue(text.contains("# HELP asesorame_rule_failures_total Fallos por regla\n"
+                + "# TYPE asesorame_rule_failures_total counter\n"
+                + "asesorame_rule_failures_total{rule=\"EMAIL \\\"raro\\\"\"} 3\n"), text);
+        assertTrue(text.contains("# TYPE asesorame_run_seconds gauge\nasesorame_run_seconds 1.5\n"), text);
+        assertTrue(text.contains("# TYPE asesorame_validate_seconds summary\n"), text);
+        assertTrue(text.contains("asesorame_validate_seconds{quantile=\"0.5\"} 0.05"), text);
+        assertTrue(text.contains("asesorame_validate_seconds_sum 5.05\n"), text);
+        assertTrue(text.contains("asesorame_validate_seconds_count 100\n"), text);
+        assertTrue(text.contains("asesorame_validate_seconds_max 0.1\n"), text);
+    }
+
+    @Test
+    void laExtensionEligeElFormato() throws IOException {
+        Metrics metrics = ejemplo();
+        Path json = dir.resolve("run.metrics.json");
+        Path prom = dir.resolve("run.metrics.prom");
+        metrics.write(json);
+        metrics.write(prom);
+
+        String jsonText = Files.readString(json, StandardCharsets.UTF_8);
+        assertTrue(jsonText.contains("{\"name\": \"asesorame_rule_failures_total\", \"type\": \"counter\", "
+                + "\"labels\": {\"rule\": \"EMAIL \\\"raro\\\"\"}, \"value\": 3}"), jsonText);
+        assertTrue(jsonText.contains("\"name\": \"asesorame_validate_seconds\", \"type\": \"summary\", "
+                + "\"labels\": {}, \"count\": 100, \"sum\": 5.05"), jsonText);
+        assertEquals(metrics.toPrometheusText(), Files.readString(prom, StandardCharsets.UTF_8));
+        assertEquals(2, Files.list(dir).count());
+    }
+
+    @Test
+    void losHistogramasDeHilosTerminadosSeRetiran() throws InterruptedException {
+        Metrics.Histogram histogram = new Metrics().histogram("prueba_seconds", "Prueba");
+        for (int i = 0; i < 200; i++) {
+            Thread thread = Thread.ofVirtual().start(() -> histogram.record(1_000));
+            thread.join();
+        }
+
+        assertEquals(200, histogram.snapshot().getCount());
+        Thread.ofVirtual().start(() -> histogram.record(1_000)).join();
+        assertTrue(histogram.threadCount() <= 1, "Histogramas por hilo: " + histogram.threadCount());
+        assertEquals(201, histogram.snapshot().getCount());
+    }
+
+    @Test
+    void addAllAcumulaContadoresEHistogramas() {
+        Metrics total = new Metrics();
+        for (int run = 1; run <= 2; run++) {
+            Metrics metrics = new Metrics();
+            metrics.counter("filas_total", "Filas", "estado", "ok").add(10);
+            metrics.gauge("duracion", "Duración").set(run);
+            metrics.histogram("lote_seconds", "Lotes").record(5_000);
+            total.addAll(metrics);
+        }
+
+        assertEquals(20, total.counter("filas_total", "Filas", "estado", "ok").get());
+        assertEquals(2.0, total.gauge("duracion", "Duración").get());
+        assertEquals(2, total.histogram("lote_seconds", "Lotes").snapshot().getCount());
+        assertEquals(0, total.histogram("lote_seconds", "Lotes").threadCount());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultiSourceIngestorTest {
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    @TempDir
+    Path dir;
+
+    private static List<Asesor> asesores(int count) {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, "Apellido", "asesor" + id + "@correo.com", "9" + (10_000_000 + id),
+                    id % 2 == 0 ? "Legal" : "Finanzas", "Lima"));
+        }
+        return asesores;
+    }
+
+    /* Copia el libro de una hoja añadiendo una segunda hoja igual a la primera */
+    private static void withTwoSheets(Path source, Path target) throws IOException {
+        try (ZipFile zip = new ZipFile(source.toFile());
+             OutputStream file = Files.newOutputStream(target);
+             ZipOutputStream out = new ZipOutputStream(file)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                String name = entry.getName();
+                if (name.equals("xl/workbook.xml")) {
+                    put(out, name, "<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELS + "\"><sheets>"
+                            + "<sheet name=\"Norte\" sheetId=\"1\" r:id=\"rId1\"/>"
+                            + "<sheet name=\"Sur\" sheetId=\"2\" r:id=\"rId4\"/></sheets></workbook>");
+                } else if (name.equals("xl/_rels/workbook.xml.rels")) {
+                    put(out, name, "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                            + "<Relationship Id=\"rId1\" Type=\"" + NS_RELS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                            + "<Relationship Id=\"rId2\" Type=\"" + NS_RELS + "/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                            + "<Relationship Id=\"rId4\" Type=\"" + NS_RELS + "/worksheet\" Target=\"worksheets/sheet2.xml\"/>"
+                            + "</Relationships>");
+                } else {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        byte[] content = in.readAllBytes();
+                        put(out, name, content);
+                        if (name.equals("xl/worksheets/sheet1.xml")) {
+                            put(out, "xl/worksheets/sheet2.xml", content);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void put(ZipOutputStream out, String name, String content) throws IOException {
+        put(out, name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void put(ZipOutputStream out, String name, byte[] content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.closeEntry();
+    }
+
+    @Test
+    void lasHojasDeUnLibroSeLeenEnParaleloConSusStringsCompartidos() throws IOException {
+        ExcelService excelService = new ExcelService(1);
+        Path single = dir.resolve("una.xlsx");
+        Path book = dir.resolve("dos.xlsx");
+        excelService.writeAsesoresToExcel(asesores(300), single.toString());
+        withTwoSheets(single, book);
+
+        List<MultiSourceIngestor.Shard> shards = MultiSourceIngestor.resolve(book.toString());
+        assertEquals(List.of(book + "#Norte", book + "#Sur"), shards.stream().map(MultiSourceIngestor.Shard::getName).toList());
+
+        MultiSourceIngestor.Result result = new MultiSourceIngestor(excelService, new StatisticsService(),
+                batch -> List.copyOf(batch), 2, 64).run(shards);
+
+        assertEquals(600, result.getRead());
+        assertEquals(600, result.getValid());
+        for (MultiSourceIngestor.ShardResult shard : result.getShards()) {
+            List<Asesor> valid = shard.getValidAsesores();
+            assertEquals(300, valid.size());
+            assertEquals("Finanzas", valid.get(0).getEspecialidad());
+            assertEquals("Legal", valid.get(299).getEspecialidad());
+        }
+    }
+
+    @Test
+    void losValidosCombinadosEncadenanLosDeCadaFuenteSinCopiarlos() throws IOException {
+        // La fuente del medio se queda sin válidos: la vista debe saltarla
+        int[] counts = {120, 0, 1, 75};
+        long id = 1;
+        for (int f = 0; f < counts.length; f++) {
+            StringBuilder csv = new StringBuilder();
+            for (int i = 0; i < Math.max(counts[f], 5); i++, id++) {
+                long written = i < counts[f] ? id : -id;
+                csv.append(written).append(",Nombre,Apellido,a").append(id).append("@correo.com,987654321,Legal,Lima\n");
+            }
+            Files.writeString(dir.resolve("fuente" + f + ".csv"), csv, StandardCharsets.UTF_8);
+        }
+        List<MultiSourceIngestor.Shard> shards = MultiSourceIngestor.resolve(dir.toString());
+
+        MultiSourceIngestor.Result result = new MultiSourceIngestor(new ExcelService(1), new StatisticsService(),
+                batch -> batch.stream().filter(asesor -> asesor.getId() > 0).toList(), 2, 16).run(shards);
+
+        List<Asesor> expected = new ArrayList<>();
+        for (MultiSourceIngestor.ShardResult shard : result.getShards()) {
+            expected.addAll(shard.getValidAsesores());
+        }
+        List<Asesor> valid = result.getValidAsesores();
+        assertEquals(196, valid.size());
+        assertEquals(196, result.getValid());
+        assertEquals(expected, valid);
+        List<Asesor> byIndex = new ArrayList<>();
+        for (int i = 0; i < valid.size(); i++) {
+            byIndex.add(valid.get(i));
+        }
+        assertEquals(expected, byIndex);
+        assertThrows(IndexOutOfBoundsException.class, () -> valid.get(196));
+        assertThrows(UnsupportedOperationException.class, () -> valid.add(expected.get(0)));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelZipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 32 * 1024;
+
+    @TempDir
+    Path dir;
+
+    /* Entradas de distintos tamaños: vacía, menor que un bloque y de varios bloques */
+    private static Map<String, byte[]> entries() {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("vacia.txt", new byte[0]);
+        entries.put("xl/pequeña.xml", "<a>hola</a>".getBytes(StandardCharsets.UTF_8));
+        StringBuilder xml = new StringBuilder();
+        while (xml.length() < 5 * BLOCK_SIZE + 123) {
+            xml.append("<row r=\"").append(random.nextInt(1000)).append("\"><c t=\"s\"><v>")
+                    .append(random.nextInt(50)).append("</v></c></row>");
+        }
+        entries.put("xl/worksheets/sheet1.xml", xml.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] noise = new byte[3 * BLOCK_SIZE + 7];
+        random.nextBytes(noise);
+        entries.put("ruido.bin", noise);
+        return entries;
+    }
+
+    private static byte[] parallelZip(Map<String, byte[]> entries, int entryLimit) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ParallelZipOutputStream zip = new ParallelZipOutputStream(bytes, Deflater.DEFAULT_COMPRESSION, 3,
+                BLOCK_SIZE, entryLimit)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(entry.getKey());
+                // En trozos que no coinciden con los bloques
+                byte[] data = entry.getValue();
+                for (int offset = 0; offset < data.length; offset += 1000) {
+                    zip.write(data, offset, Math.min(1000, data.length - offset));
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void seLeeConZipFileYZipInputStreamIgualQueElSecuencial() throws IOException {
+        Map<String, byte[]> entries = entries();
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(sequential, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        byte[] parallel = parallelZip(entries, Integer.MAX_VALUE);
+
+        assertContents(entries, readStream(sequential.toByteArray()));
+        assertContents(entries, readStream(parallel));
+        Path file = Files.write(dir.resolve("paralelo.zip"), parallel);
+        Map<String, byte[]> read = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(file.toFile(), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry : zip.stream().collect(Collectors.toList())) {
+                CRC32 crc = new CRC32();
+                crc.update(entries.get(entry.getName()));
+                assertEquals(crc.getValue(), entry.getCrc(), entry.getName());
+                assertEquals(entries.get(entry.getName()).length, entry.getSize(), entry.getName());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    read.put(entry.getName(), in.readAllBytes());
+                }
+            }
+        }
+        assertContents(entries, read);
+    }
+
+    @Test
+    void rechazaLasEntradasQueNecesitanZip64() throws IOException {
+        Map<String, byte[]> entries = entries();
+        // Con el límite por debajo de la hoja, la hoja hace de entrada de más de 4 GB
+        IOException error = assertThrows(IOException.class, () -> parallelZip(entries, 2 * BLOCK_SIZE));
+        assertTrue(error.getMessage().contains("xl/worksheets/sheet1.xml"), error.getMessage());
+
+        // Con todas las entradas por debajo del límite el zip se escribe entero
+        int limit = entries.values().stream().mapToInt(data -> data.length).max().getAsInt() + 1024;
+        assertContents(entries, readStream(parallelZip(entries, limit)));
+    }
+
+    @Test
+    void crcCombinadoIgualAlDeLaConcatenacion() {
+        byte[] data = entries().get("ruido.bin");
+        CRC32 whole = new CRC32();
+        whole.update(data);
+        for (int split : new int[]{0, 1, 4096, data.length - 1, data.length}) {
+            CRC32 first = new CRC32();
+            first.update(data, 0, split);
+            CRC32 second = new CRC32();
+            second.update(data, split, data.length - split);
+            assertEquals((int) whole.getValue(), ParallelZipOutputStream.crc32Combine(
+                    (int) first.getValue(), (int) second.getValue(), data.length - split), "split " + split);
+        }
+    }
+
+    @Test
+    void librosPartidosPorFilasYPorEspecialidad() throws IOException {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, "Ríos", "a" + id + "@correo.com", "987654321",
+                    id % 3 == 0 ? "Derecho Público" : id % 3 == 1 ? "Legal" : null, "Lima"));
+        }
+        // Con 4 hilos los libros se comprimen también en paralelo
+        ExcelService excelService = new ExcelService(4);
+        String output = dir.resolve("salida.xlsx").toString();
+
+        List<Path> parts = excelService.writeAsesoresSplit(asesores, output, 10);
+        assertEquals(List.of("salida_part001.xlsx", "salida_part002.xlsx", "salida_part003.xlsx"),
+                parts.stream().map(path -> path.getFileName().toString()).collect(Collectors.toList()));
+        List<Asesor> read = new ArrayList<>();
+        for (Path part : parts) {
+            read.addAll(excelService.readAsesoresFromExcel(part.toString()));
+            // También debe leerse en streaming, sin el directorio central
+            try (InputStream in = Files.newInputStream(part)) {
+                assertTrue(readStream(in.readAllBytes()).containsKey("xl/worksheets/sheet1.xml"));
+            }
+        }
+        assertEquals(asesores, read);
+
+        List<Path> byEspecialidad = excelService.writeAsesoresByEspecialidad(asesores, output);
+        assertEquals(3, byEspecialidad.size());
+        for (Path file : byEspecialidad) {
+            List<Asesor> rows = excelService.readAsesoresFromExcel(file.toString());
+            String suffix = file.getFileName().toString().replaceFirst("^salida_", "").replaceFirst("\\.xlsx$", "");
+            assertEquals(asesores.stream()
+                    .filter(asesor -> ExcelService.fileSuffix(asesor.getEspecialidad()).equals(suffix))
+                    .collect(Collectors.toList()), rows, suffix);
+        }
+    }
+
+    @Test
+    void alRepetirLaDivisionSeBorranLosLibrosAnteriores() throws IOException {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, "Ríos", "a" + id + "@correo.com", "987654321",
+                    id % 2 == 0 ? "Legal" : "Finanzas", "Lima"));
+        }
+        ExcelService excelService = new ExcelService(2);
+        String output = dir.resolve("salida.xlsx").toString();
+        Files.writeString(dir.resolve("salida_notas.txt"), "no es un libro");
+        Files.writeString(dir.resolve("otra_part009.xlsx"), "de otra salida");
+
+        assertEquals(3, excelService.writeAsesoresSplit(asesores, output, 10).size());
+        assertEquals(2, excelService.writeAsesoresByEspecialidad(asesores, output).size());
+        assertEquals(2, excelService.writeAsesoresSplit(asesores, output, 20).size());
+        excelService.writeAsesoresByEspecialidad(asesores.subList(1, 2), output);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("otra_part009.xlsx", "salida_legal.xlsx", "salida_notas.txt",
+                            "salida_part001.xlsx", "salida_part002.xlsx"),
+                    files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void siFallaUnLibroSeBorranTodosLosDeLaDivision() throws IOException {
+        List<Asesor> asesores = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            asesores.add(new Asesor(id, "Nombre" + id, "Ríos", "a" + id + "@correo.com", "987654321", "Legal", "Lima"));
+        }
+        // Un directorio con el nombre de la segunda parte hace fallar su escritura
+        Files.createDirectory(dir.resolve("salida_part002.xlsx"));
+        Files.writeString(dir.resolve("salida_part002.xlsx").resolve("dentro.txt"), "x");
+        ExcelService excelService = new ExcelService(2);
+
+        assertThrows(IOException.class,
+                () -> excelService.writeAsesoresSplit(asesores, dir.resolve("salida.xlsx").toString(), 10));
+        assertFalse(Files.exists(dir.resolve("salida_part001.xlsx")));
+        assertFalse(Files.exists(dir.resolve("salida_part003.xlsx")));
+    }
+
+    /* Lee el zip en streaming, como un lector que no usa el directorio central */
+    private static Map<String, byte[]> readStream(byte[] zipBytes) throws IOException {
+        Map<String, byte[]> read = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zipBytes), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                read.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return read;
+    }
+
+    private static void assertContents(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(actual.keySet()));
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    private static Map<String, Long> fill(SpaceSaving summary, int values, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TestDataGenerator.Distribution zipf = new TestDataGenerator.Distribution(values, 1.2);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            String value = "ciudad-" + zipf.sample(random);
+            summary.add(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+        return exact;
+    }
+
+    /* Los k valores más frecuentes según el conteo exacto (desempate por valor, como Counter) */
+    private static List<String> exactTop(Map<String, Long> exact, int k) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(exact.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<String> top = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(k, entries.size()))) {
+            top.add(entry.getKey());
+        }
+        return top;
+    }
+
+    private static List<String> values(List<SpaceSaving.Counter> counters) {
+        List<String> values = new ArrayList<>();
+        counters.forEach(counter -> values.add(counter.getValue()));
+        return values;
+    }
+
+    @Test
+    void modoExactoConPocosValores() {
+        SpaceSaving summary = new SpaceSaving(64);
+        Map<String, Long> exact = fill(summary, 40, 100_000, 1);
+        assertTrue(summary.isExact());
+        for (SpaceSaving.Counter counter : summary.top(64)) {
+            assertEquals(exact.get(counter.getValue()), counter.getCount());
+            assertEquals(0, counter.getError());
+        }
+        assertEquals(exactTop(exact, 10), values(summary.top(10)));
+    }
+
+    @Test
+    void modoAproximadoAcotaLasFrecuencias() {
+        SpaceSaving summary = new SpaceSaving(64);
+        Map<String, Long> exact = fill(summary, 20_000, 500_000, 2);
+        assertFalse(summary.isExact());
+
+        for (SpaceSaving.Counter counter : summary.top(64)) {
+            long real = exact.getOrDefault(counter.getValue(), 0L);
+            assertTrue(counter.getGuaranteedCount() <= real && real <= counter.getCount(), counter.toString());
+        }
+        // Todo valor con frecuencia > total / capacidad está en el resumen
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            if (entry.getValue() > summary.getTotal() / summary.getCapacity()) {
+                assertTrue(values(summary.top(64)).contains(entry.getKey()), entry.getKey());
+            }
+        }
+        assertEquals(exactTop(exact, 5), values(summary.top(5)));
+    }
+
+    @Test
+    void combinarResumenesDeVariosHilos() {
+        SpaceSaving merged = new SpaceSaving(64);
+        Map<String, Long> exact = new HashMap<>();
+        for (int shard = 0; shard < 4; shard++) {
+            SpaceSaving summary = new SpaceSaving(64);
+            fill(summary, 20_000, 125_000, 10 + shard).forEach((value, count) -> exact.merge(value, count, Long::sum));
+            merged.merge(summary);
+        }
+        assertEquals(500_000, merged.getTotal());
+        for (SpaceSaving.Counter counter : merged.top(64)) {
+            long real = exact.getOrDefault(counter.getValue(), 0L);
+            assertTrue(counter.getGuaranteedCount() <= real && real <= counter.getCount(), counter.toString());
+        }
+        assertEquals(exactTop(exact, 5), values(merged.top(5)));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatisticsServiceTest {
+
+    private final StatisticsService statisticsService = new StatisticsService();
+
+    private static List<Asesor> asesores(int count, long seed) {
+        TestDataGenerator generator = new TestDataGenerator();
+        SplittableRandom random = new SplittableRandom(seed);
+        TestDataGenerator.Distribution especialidades = new TestDataGenerator.Distribution(12, 1.0);
+        TestDataGenerator.Distribution ubicaciones = new TestDataGenerator.Distribution(16, 1.2);
+        List<Asesor> asesores = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            asesores.add(generator.generate(id, random, especialidades, ubicaciones));
+        }
+        return asesores;
+    }
+
+    @Test
+    void sketchesExactosYAproximadosFrenteAlConteoExacto() {
+        List<Asesor> asesores = asesores(200_000, 5);
+        StatisticsService.SketchAggregator exact = new StatisticsService.SketchAggregator(256, Integer.MAX_VALUE);
+        StatisticsService.SketchAggregator approximate = new StatisticsService.SketchAggregator(8, 0);
+        exact.addAll(asesores);
+        approximate.addAll(asesores);
+        assertTrue(exact.isExact());
+        assertFalse(approximate.isExact());
+
+        Set<String> emails = new HashSet<>();
+        Set<String> telefonos = new HashSet<>();
+        asesores.forEach(a -> {
+            emails.add(a.getEmail());
+            telefonos.add(a.getTelefono());
+        });
+        assertEquals(emails.size(), exact.countDistinctEmails());
+        assertEquals(telefonos.size(), exact.countDistinctTelefonos());
+        double tolerance = 4 * 1.04 / Math.sqrt(1 << HyperLogLog.DEFAULT_PRECISION);
+        assertEquals(emails.size(), approximate.countDistinctEmails(), emails.size() * tolerance);
+        assertEquals(telefonos.size(), approximate.countDistinctTelefonos(), telefonos.size() * tolerance);
+
+        // El top por ubicación del agregador exacto de siempre
+        Map<String, StatisticsService.DepartmentStats> departments = statisticsService.calculateDepartmentStatistics(asesores);
+        List<Map.Entry<String, StatisticsService.DepartmentStats>> byCount = new ArrayList<>(departments.entrySet());
+        byCount.sort((a, b) -> Long.compare(b.getValue().getAsesorCount(), a.getValue().getAsesorCount()));
+        for (int i = 0; i < 3; i++) {
+            String ubicacion = byCount.get(i).getKey();
+            long count = byCount.get(i).getValue().getAsesorCount();
+            assertEquals(ubicacion, exact.topUbicaciones(3).get(i).getValue());
+            assertEquals(count, exact.topUbicaciones(3).get(i).getCount());
+            assertEquals(ubicacion, approximate.topUbicaciones(3).get(i).getValue());
+            SpaceSaving.Counter counter = approximate.topUbicaciones(3).get(i);
+            assertTrue(counter.getGuaranteedCount() <= count && count <= counter.getCount());
+        }
+
+        String email = asesores.get(0).getEmail();
+        assertEquals(1, exact.countEmail(email));
+        assertTrue(approximate.countEmail(email) >= 1);
+    }
+
+    @Test
+    void combinarPorHilosEquivaleAUnSoloAgregador() {
+        List<Asesor> asesores = asesores(40_000, 6);
+        StatisticsService.SketchAggregator all = statisticsService.sketch(asesores);
+        StatisticsService.SketchAggregator merged = statisticsService.newSketchAggregator();
+        for (int shard = 0; shard < 4; shard++) {
+            merged.merge(statisticsService.sketch(asesores.subList(shard * 10_000, (shard + 1) * 10_000)));
+        }
+        assertEquals(all.getTotal(), merged.getTotal());
+        assertEquals(all.countDistinctEmails(), merged.countDistinctEmails());
+        assertEquals(all.topEspecialidades(5).toString(), merged.topEspecialidades(5).toString());
+    }
+
+    @Test
+    void fallosPorReglaDesdeElInforme() {
+        TestDataGenerator generator = new TestDataGenerator(new TestDataGenerator.Options()
+                .withInvalidRates(0.2, 0.2, 0.1));
+        SplittableRandom random = new SplittableRandom(9);
+        TestDataGenerator.Distribution uniform = new TestDataGenerator.Distribution(10, 0);
+        List<Asesor> batch = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            batch.add(generator.generate(id, random, uniform, uniform));
+        }
+        AsesorValidator.BatchResult result = new AsesorValidator(1).normalizeAndValidate(batch);
+        ValidationErrorReport report = ValidationErrorReport.inMemory();
+        report.record(result.getInvalid());
+
+        StatisticsService.SketchAggregator fromReport = statisticsService.newSketchAggregator();
+        fromReport.addFailures(report);
+        StatisticsService.SketchAggregator fromRows = statisticsService.newSketchAggregator();
+        fromRows.addInvalid(result.getInvalid());
+
+        assertFalse(fromReport.getFailuresByRule().isEmpty());
+        assertEquals(fromRows.getFailuresByRule(), fromReport.getFailuresByRule());
+        for (ValidationRule rule : ValidationRule.all()) {
+            assertEquals(report.countByRule(rule), fromReport.getFailuresByRule().getOrDefault(rule, 0L).longValue());
+        }
+    }
+}
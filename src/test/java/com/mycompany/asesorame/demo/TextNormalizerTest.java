@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TextNormalizerTest {
+
+    /* Ya normalizados, con mayúsculas, espacios, tildes y casos especiales de Unicode */
+    private static final List<String> VALORES = List.of(
+            "", "a", "A", "Ana", "ana", "ANA", " ana", "ana ", "\tAna\n", "aNA", "Ana María", "ana maría",
+            "ÁNGEL", "Ángel", "ángel", "Ñandú", "ÑANDÚ", "Straße", "STRASSE", "İstanbul", "istanbul", "ı",
+            "ǅemal", "ǆemal", "ǄEMAL", "ΟΔΟΣ", "Οδος", "Οδοσ", " Ana", "Ana ",
+            "𐐀bc", "𐐨bc", "a𐐀", "Ana-Lucía O'Neil", "123", "  ", "x@Correo.COM");
+
+    private static String capitalizeReferencia(String value) {
+        return StringUtils.capitalize(value.toLowerCase(Locale.ROOT).trim());
+    }
+
+    private static String lowerReferencia(String value) {
+        return value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    @Test
+    void losCaminosRapidosDanLoMismoQueSinCache() {
+        for (String value : VALORES) {
+            String capitalized = TextNormalizer.capitalizeLower(value);
+            String lower = TextNormalizer.lowerTrim(value);
+            assertEquals(capitalizeReferencia(value), capitalized, value);
+            assertEquals(lowerReferencia(value), lower, value);
+            // Lo que ya está normalizado se devuelve sin copiar (los pares sustitutos van siempre
+            // por el camino lento, así que solo se exige el mismo valor)
+            if (value.chars().noneMatch(ch -> Character.isSurrogate((char) ch))) {
+                if (capitalizeReferencia(value).equals(value)) {
+                    assertSame(value, capitalized, value);
+                }
+                if (lowerReferencia(value).equals(value)) {
+                    assertSame(value, lower, value);
+                }
+                assertSame(capitalized, TextNormalizer.capitalizeLower(capitalized), value);
+                assertSame(lower, TextNormalizer.lowerTrim(lower), value);
+            }
+            // Normalizar otra vez no cambia nada
+            assertEquals(capitalized, TextNormalizer.capitalizeLower(capitalized), value);
+            assertEquals(lower, TextNormalizer.lowerTrim(lower), value);
+        }
+    }
+
+    @Test
+    void laCacheConDesalojosDaLoMismoQueSinCache() {
+        TextNormalizer.Cache cache = new TextNormalizer.Cache(8, null);
+        List<String> distintos = new ArrayList<>(VALORES);
+        for (int i = 0; i < 200; i++) {
+            distintos.add((i % 2 == 0 ? "NOMBRE" : " nombre") + i);
+        }
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 20_000; i++) {
+            // Unos pocos valores frecuentes entre muchos que desalojan a los demás
+            String value = random.nextInt(4) == 0 ? VALORES.get(random.nextInt(4))
+                    : new String(distintos.get(random.nextInt(distintos.size())));
+            assertEquals(capitalizeReferencia(value), cache.get(value), value);
+        }
+        // Un acierto devuelve la misma instancia sin volver a normalizar
+        String first = cache.get("ANA");
+        assertSame(first, cache.get(new String("ANA")));
+    }
+
+    @Test
+    void lasEspecialidadesInternadasSonIgualesYCompartidas() {
+        TextNormalizer uno = new TextNormalizer(4);
+        TextNormalizer otro = new TextNormalizer();
+        for (String value : VALORES) {
+            String especialidad = uno.especialidad(new String(value));
+            assertEquals(capitalizeReferencia(value), especialidad, value);
+            assertSame(especialidad, otro.especialidad(new String(value)), value);
+            assertSame(especialidad, AsesorRecord.FLYWEIGHTS.intern(capitalizeReferencia(value)), value);
+            assertEquals(capitalizeReferencia(value), uno.nombre(value), value);
+            assertEquals(capitalizeReferencia(value), uno.apellido(value), value);
+            assertEquals(lowerReferencia(value), uno.email(value), value);
+        }
+    }
+}
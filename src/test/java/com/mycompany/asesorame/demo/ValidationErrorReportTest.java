@@ -0,0 +1,48 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationErrorReportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void noAdmiteRegistrosDespuesDeCerrar() throws IOException {
+        List<AsesorValidator.InvalidAsesor> invalid = List.of(new AsesorValidator.InvalidAsesor(
+                new Asesor(7L, "Ana", "Ríos", "ana", "987654321", "Legal", "Lima"),
+                ValidationRule.EMAIL_FORMATO.mask()));
+        Path file = dir.resolve("errores.tsv");
+        ValidationErrorReport report = ValidationErrorReport.open(file);
+        report.record(invalid);
+        report.close();
+        List<String> written = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        assertTrue(report.isClosed());
+        assertThrows(IllegalStateException.class, () -> report.record(invalid));
+        assertThrows(IllegalStateException.class, () -> report.record(List.of()));
+        // Lo rechazado no cambia los conteos ni el archivo
+        assertEquals(1, report.getInvalidCount());
+        assertEquals(1, report.countByRule(ValidationRule.EMAIL_FORMATO));
+        assertEquals(written, Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        ValidationErrorReport inMemory = ValidationErrorReport.inMemory();
+        inMemory.close();
+        assertThrows(IllegalStateException.class, () -> inMemory.record(invalid));
+    }
+}
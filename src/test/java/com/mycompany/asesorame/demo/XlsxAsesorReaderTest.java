@@ -0,0 +1,66 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxAsesorReaderTest {
+
+    @TempDir
+    Path dir;
+
+    private static final String SHARED_STRINGS = "<sst><si><t>Ana</t></si><si><t>Legal</t></si></sst>";
+
+    /* Libro mínimo: solo la hoja y los strings compartidos */
+    private Path workbook(String rows) throws IOException {
+        Path file = dir.resolve("asesores.xlsx");
+        try (OutputStream out = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            zip.write(SHARED_STRINGS.getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write(("<worksheet><sheetData>" + rows + "</sheetData></worksheet>").getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    @Test
+    void leeLosStringsCompartidos() throws IOException {
+        Path file = workbook("<row r=\"1\"><c r=\"A1\"><v>7</v></c><c r=\"B1\" t=\"s\"><v>0</v></c>"
+                + "<c r=\"F1\" t=\"s\"><v> 1 </v></c></row>");
+        try (XlsxAsesorReader reader = new XlsxAsesorReader(file.toString())) {
+            Asesor asesor = reader.next();
+            assertEquals(7L, asesor.getId());
+            assertEquals("Ana", asesor.getNombre());
+            assertEquals("Legal", asesor.getEspecialidad());
+        }
+    }
+
+    @Test
+    void indiceDeStringCompartidoInvalidoIndicaHojaYFila() throws IOException {
+        Path file = workbook("<row r=\"1\"><c r=\"A1\"><v>7</v></c><c r=\"B1\" t=\"s\"><v>0</v></c></row>"
+                + "<row r=\"2\"><c r=\"A2\"><v>8</v></c><c r=\"B2\" t=\"s\"><v>x1</v></c></row>");
+        try (XlsxAsesorReader reader = new XlsxAsesorReader(file.toString())) {
+            assertEquals("Ana", reader.next().getNombre());
+            UncheckedIOException error = assertThrows(UncheckedIOException.class, reader::hasNext);
+            String message = error.getCause().getMessage();
+            assertTrue(message.contains("xl/worksheets/sheet1.xml") && message.contains("fila 2")
+                    && message.contains("x1"), message);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.asesorame.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxAsesorWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void laTablaCompartidaCuentaReferenciasYValoresDistintos() throws IOException {
+        Path file = dir.resolve("sub").resolve("asesores.xlsx");
+        try (XlsxAsesorWriter writer = XlsxAsesorWriter.open(file.toString())) {
+            for (long id = 1; id <= 5; id++) {
+                writer.write(new Asesor(id, "Ana", "Ríos", "ana" + id + "@correo.com", "987654321",
+                        id % 2 == 0 ? "Legal" : "Finanzas", "Lima"));
+            }
+        }
+
+        String sst;
+        try (ZipFile zip = new ZipFile(file.toFile());
+             InputStream in = zip.getInputStream(zip.getEntry("xl/sharedStrings.xml"))) {
+            sst = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        // 5 filas x 2 columnas compartidas (especialidad y ubicación) con 3 valores distintos
+        assertTrue(sst.contains("count=\"10\" uniqueCount=\"3\""), sst);
+    }
+}